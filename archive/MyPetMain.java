@@ -38,33 +38,23 @@ public class MyPetMain {
 
       switch (command) {
         case "p":
-          for (int i = 0; i < times; i++) {
-            pet.interactWith(Action.PLAY);
-          }
+          pet.interactWith(Action.PLAY, times);
           System.out.println("Played with pet " + times + " time(s)");
           break;
         case "f":
-          for (int i = 0; i < times; i++) {
-            pet.interactWith(Action.FEED);
-          }
+          pet.interactWith(Action.FEED, times);
           System.out.println("Fed pet " + times + " time(s)");
           break;
         case "c":
-          for (int i = 0; i < times; i++) {
-            pet.interactWith(Action.CLEAN);
-          }
+          pet.interactWith(Action.CLEAN, times);
           System.out.println("Cleaned pet " + times + " time(s)");
           break;
         case "s":
-          for (int i = 0; i < times; i++) {
-            pet.interactWith(Action.SLEEP);
-          }
+          pet.interactWith(Action.SLEEP, times);
           System.out.println("Put pet to sleep " + times + " time(s)");
           break;
         case "h":
-          for (int i = 0; i < times; i++) {
-            pet.interactWith(Action.HUG);
-          }
+          pet.interactWith(Action.HUG, times);
           System.out.println("Hugged pet " + times + " time(s)");
           break;
         case "a":
@@ -0,0 +1,32 @@
+package petapp.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Takes the usual JMH command line and always adds the GC
+ * profiler, so every result carries its allocation rate per operation next to its time.
+ * The baseline in benchmarks/baseline.json was recorded with
+ * {@code java -jar benchmarks/target/benchmarks.jar -rf json -rff baseline.json}, compare
+ * a change against it by running the same command on the same machine.
+ */
+public class BenchmarkMain {
+
+  /**
+   * Runs the benchmarks.
+   *
+   * @param args JMH options, for example a benchmark name pattern or -wi 3 -i 3
+   * @throws CommandLineOptionException if the options cannot be parsed
+   * @throws RunnerException if a benchmark fails
+   */
+  public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+    new Runner(new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
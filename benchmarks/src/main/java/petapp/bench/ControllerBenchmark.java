@@ -0,0 +1,61 @@
+package petapp.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import petapp.controller.PetController;
+import petapp.model.Action;
+import petapp.model.Pet;
+import petapp.model.PetRandom;
+import petapp.view.MoodIconCache;
+import petapp.view.PetPanel;
+
+/**
+ * Benchmark of the controller's interaction path on a headless PetPanel: the model call,
+ * the delta published to the controller, the progress bars, mood label and image, and the
+ * feedback and hint messages. The care actions are applied in turn, which every mood
+ * allows. The messages pile up in the panel, so it is rebuilt for every iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector",
+    "-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class ControllerBenchmark {
+  private static final List<List<Action>> CARE = List.of(
+      List.of(Action.FEED), List.of(Action.PLAY), List.of(Action.CLEAN), List.of(Action.SLEEP));
+
+  private Pet pet;
+  private PetController controller;
+  private int next;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    MoodIconCache.shared().warmUp().join();
+    pet = new Pet(new PetRandom(42));
+    controller = new PetController(pet, new PetPanel());
+  }
+
+  /**
+   * One button's interaction, as applied at the end of a frame.
+   */
+  @Benchmark
+  public Pet handleInteraction() {
+    controller.handleInteraction(CARE.get(next));
+    next = next == CARE.size() - 1 ? 0 : next + 1;
+    PetBenchmark.keepAlive(pet);
+    return pet;
+  }
+}
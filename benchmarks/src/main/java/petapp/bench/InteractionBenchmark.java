@@ -0,0 +1,60 @@
+package petapp.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import petapp.model.Action;
+import petapp.model.MoodEnum;
+import petapp.model.Pet;
+import petapp.model.PetRandom;
+
+/**
+ * Benchmark of Pet.interactWith for every action in every mood. The mood is set before
+ * each interaction, since an interaction can change it, so the setMoodChurn result of
+ * PetBenchmark is part of every score here. Actions the mood does not allow measure the
+ * rejection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class InteractionBenchmark {
+  @Param({"FEED", "PLAY", "CLEAN", "SLEEP", "HUG"})
+  public Action action;
+
+  @Param({"HAPPY", "SAD", "ANXIETY"})
+  public MoodEnum mood;
+
+  private Pet pet;
+
+  @Setup
+  public void setUp() {
+    pet = new Pet(new PetRandom(42));
+  }
+
+  /**
+   * One interaction in the benchmark's mood.
+   */
+  @Benchmark
+  public Pet interactWith() {
+    pet.setMood(mood);
+    try {
+      pet.interactWith(action);
+    } catch (IllegalStateException e) {
+      return null;
+    }
+    PetBenchmark.keepAlive(pet);
+    return pet;
+  }
+}
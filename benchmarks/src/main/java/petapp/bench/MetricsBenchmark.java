@@ -0,0 +1,65 @@
+package petapp.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import petapp.metrics.InstrumentedPet;
+import petapp.metrics.PetMetrics;
+import petapp.model.Action;
+import petapp.model.Pet;
+import petapp.model.PetInterface;
+import petapp.model.PetRandom;
+
+/**
+ * Overhead of the metrics: the same step and interaction on a bare pet and on an
+ * InstrumentedPet with the default latency sampling. The instrumented scores minus the
+ * bare ones are the cost of leaving the metrics on.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class MetricsBenchmark {
+  @Param({"false", "true"})
+  public boolean instrumented;
+
+  private Pet bare;
+  private PetInterface pet;
+
+  @Setup
+  public void setUp() {
+    bare = new Pet(new PetRandom(42));
+    pet = instrumented ? new InstrumentedPet(bare, new PetMetrics()) : bare;
+  }
+
+  /**
+   * One step of a living pet.
+   */
+  @Benchmark
+  public PetInterface step() {
+    pet.step();
+    PetBenchmark.keepAlive(bare);
+    return pet;
+  }
+
+  /**
+   * One feeding, which every mood allows.
+   */
+  @Benchmark
+  public PetInterface interactWith() {
+    pet.interactWith(Action.FEED);
+    PetBenchmark.keepAlive(bare);
+    return pet;
+  }
+}
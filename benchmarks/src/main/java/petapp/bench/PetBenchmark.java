@@ -0,0 +1,82 @@
+package petapp.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import petapp.model.HealthStatus;
+import petapp.model.MoodEnum;
+import petapp.model.Pet;
+import petapp.model.PetRandom;
+
+/**
+ * Benchmarks of the single pet model: a step, mood strategy churn and the HealthStatus
+ * allocated by getHealth. Interactions are measured by InteractionBenchmark.
+ * A pet is kept alive by resetting the stats that kill it through the setters, which
+ * neither allocate nor notify, so every invocation measures a living pet.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class PetBenchmark {
+  // Stats above this are reset before they can reach the death threshold
+  private static final int RESET_THRESHOLD = 80;
+
+  private static final MoodEnum[] MOODS = MoodEnum.values();
+
+  private Pet pet;
+  private int nextMood;
+
+  @Setup
+  public void setUp() {
+    pet = new Pet(new PetRandom(42));
+  }
+
+  /**
+   * One step of a living pet, the mood follows the pet.
+   */
+  @Benchmark
+  public Pet step() {
+    pet.step();
+    keepAlive(pet);
+    return pet;
+  }
+
+  /**
+   * Switches the mood, and with it the strategy, on every call.
+   */
+  @Benchmark
+  public Pet setMoodChurn() {
+    pet.setMood(MOODS[nextMood]);
+    nextMood = nextMood == MOODS.length - 1 ? 0 : nextMood + 1;
+    return pet;
+  }
+
+  /**
+   * Reads the health status, which allocates a new record every call.
+   */
+  @Benchmark
+  public HealthStatus getHealth() {
+    return pet.getHealth();
+  }
+
+  /**
+   * Resets hunger and sleep once one of them nears the death threshold.
+   */
+  static void keepAlive(Pet pet) {
+    if (pet.getHunger() > RESET_THRESHOLD || pet.getSleep() > RESET_THRESHOLD) {
+      pet.setHunger(20);
+      pet.setSleep(15);
+    }
+  }
+}
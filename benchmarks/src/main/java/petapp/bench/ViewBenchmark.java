@@ -0,0 +1,50 @@
+package petapp.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import petapp.view.MoodIconCache;
+import petapp.view.PetPanel;
+
+/**
+ * Benchmark of PetPanel.updateImage on a headless panel, which shows the mood's icon from
+ * the MoodIconCache. The icons are prepared in the setup, as the application's warm-up
+ * does at startup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector",
+    "-Djava.awt.headless=true"})
+@State(Scope.Thread)
+public class ViewBenchmark {
+  @Param({"HAPPY", "SAD", "ANXIETY", "DEAD"})
+  public String mood;
+
+  private PetPanel panel;
+
+  @Setup
+  public void setUp() {
+    MoodIconCache.shared().warmUp().join();
+    panel = new PetPanel();
+  }
+
+  /**
+   * Shows the image of the benchmark's mood.
+   */
+  @Benchmark
+  public PetPanel updateImage() {
+    panel.updateImage(mood);
+    return panel;
+  }
+}
@@ -1,8 +1,21 @@
 package petapp;
 
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import petapp.controller.PetController;
-import petapp.model.Pet;
+import petapp.model.HealthStatus;
+import petapp.model.PackedPetStore;
 import petapp.model.PetInterface;
+import petapp.model.PetRandom;
+import petapp.model.PetStates;
+import petapp.service.PetService;
+import petapp.store.PetHistory;
+import petapp.store.PetSnapshot;
+import petapp.view.MoodIconCache;
 import petapp.view.PetView;
 
 /**
@@ -14,12 +27,78 @@ public class Main {
   /**
    * Application entry point.
    *
-   * @param args command line arguments (not used)
+   * @param args optional "--snapshot FILE" to resume the pet saved in FILE, if it exists,
+   *     and save it there again when the window closes unless it died or was abandoned,
+   *     or "--serve [PORT]" to run the headless PetService instead of a window
+   * @throws IOException if the service cannot be started
    */
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException {
+    if (args.length > 0 && args[0].equals("--serve")) {
+      int port = args.length > 1 ? Integer.parseInt(args[1]) : PetService.DEFAULT_PORT;
+      PetService service = new PetService(port);
+      System.out.println("Serving pets on port " + service.getPort());
+      return;
+    }
+
+    Path snapshot = args.length > 1 && args[0].equals("--snapshot") ? Path.of(args[1]) : null;
+    HealthStatus initial = snapshot != null ? load(snapshot)
+        : PetStates.toHealth(PetStates.DEFAULT);
+
+    // Decode the mood images in the background while the rest starts
+    MoodIconCache.shared().warmUp();
+
     // Create MVC components
-    PetInterface pet = new Pet();
+    // Recorded so that its history can be scrubbed through once it dies
+    PetInterface pet = new PetHistory(new PetRandom(System.nanoTime()),
+        PetHistory.DEFAULT_CHECKPOINT_INTERVAL, initial);
     PetView view = new PetView();
-    PetController controller = new PetController(pet, view);
+    PetController controller = new PetController(pet, view.getPanel());
+
+    if (snapshot != null) {
+      view.addWindowListener(new WindowAdapter() {
+        @Override
+        public void windowClosing(WindowEvent e) {
+          if (pet.isDead() || controller.isExited()) {
+            // The game is over, the next launch starts a new pet
+            delete(snapshot);
+          } else {
+            save(snapshot, pet);
+          }
+        }
+      });
+    }
+  }
+
+  private static HealthStatus load(Path snapshot) {
+    if (Files.exists(snapshot)) {
+      try {
+        int state = PetSnapshot.map(snapshot, FileChannel.MapMode.READ_ONLY).get(0);
+        if (!PetStates.isDead(state)) {
+          return PetStates.toHealth(state);
+        }
+        System.out.println("The saved pet is dead, starting a new pet");
+      } catch (IOException | IndexOutOfBoundsException e) {
+        System.err.println("Error loading snapshot, starting a new pet: " + e.getMessage());
+      }
+    }
+    return PetStates.toHealth(PetStates.DEFAULT);
+  }
+
+  private static void delete(Path snapshot) {
+    try {
+      Files.deleteIfExists(snapshot);
+    } catch (IOException e) {
+      System.err.println("Error deleting snapshot: " + e.getMessage());
+    }
+  }
+
+  private static void save(Path snapshot, PetInterface pet) {
+    PackedPetStore store = PackedPetStore.allocate(1);
+    store.set(0, PetStates.pack(pet.getHealth()));
+    try {
+      PetSnapshot.save(snapshot, store);
+    } catch (IOException e) {
+      System.err.println("Error saving snapshot: " + e.getMessage());
+    }
   }
-}
\ No newline at end of file
+}
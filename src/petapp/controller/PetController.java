@@ -1,27 +1,67 @@
 package petapp.controller;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import javax.swing.JMenuItem;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import petapp.jfr.PetFlight;
+import petapp.jfr.PetInteractionEvent;
+import petapp.jfr.PetStepEvent;
 import petapp.model.Action;
 import petapp.model.HealthStatus;
 import petapp.model.MoodEnum;
+import petapp.model.MoodRules;
+import petapp.model.PetBatch;
+import petapp.model.PetDelta;
 import petapp.model.PetInterface;
-import petapp.view.PetView;
+import petapp.model.PetStates;
+import petapp.model.PolicyTable;
+import petapp.model.Stat;
+import petapp.sim.CarePolicySolver;
+import petapp.store.PetHistory;
+import petapp.view.PetPanel;
 
 /**
  * The PetController class manages communication between the pet model and view.
  * It handles user inputs from the view, updates the model accordingly,
- * and refreshes the view to reflect the current state of the model.
+ * and refreshes the view from the changes the model publishes.
  */
 public class PetController {
+  // Delay between autopilot ticks
+  private static final int AUTOPILOT_DELAY_MS = 500;
+
+  // Coarser than the solver default so the table is ready a few seconds after enabling
+  private static final int AUTOPILOT_BUCKET_WIDTH = 10;
+
+  // Clicks within one frame are applied together, with one view refresh
+  private static final int FRAME_MS = 16;
+
   private final PetInterface pet;
-  private final PetView view;
+  private final PetPanel view;
+
+  // Recorded history of the pet for scrubbing after its death, null if not recorded
+  private final PetHistory history;
+  private boolean historyShown;
+
+  // Autopilot policy, solved on first use, and the timer driving it
+  private PolicyTable autopilot;
+  private final Timer autopilotTimer;
+
+  // Set once the pet is abandoned, the controller then no longer operates on it
+  private boolean exited;
 
-  // Used to track previous status values for feedback
-  private int prevHunger;
-  private int prevHygiene;
-  private int prevSocial;
-  private int prevSleep;
-  private MoodEnum prevMood;
+  // Packed state last shown, and the changes published since, merged into one delta
+  private int shown;
+  private PetDelta changes;
+
+  // Action clicks of the current frame and the timer applying them at its end
+  private final List<Action> clicks = new ArrayList<>();
+  private final Timer clickTimer;
 
   /**
    * Constructs a new controller for the pet application.
@@ -29,18 +69,21 @@ public class PetController {
    * @param pet the model
    * @param view the view
    */
-  public PetController(PetInterface pet, PetView view) {
+  public PetController(PetInterface pet, PetPanel view) {
     this.pet = pet;
     this.view = view;
+    this.history = pet instanceof PetHistory recorded ? recorded : null;
 
     // Attach action listeners to buttons
-    view.getFeedButton().addActionListener(e -> handleInteraction(Action.FEED));
-    view.getPlayButton().addActionListener(e -> handleInteraction(Action.PLAY));
-    view.getCleanButton().addActionListener(e -> handleInteraction(Action.CLEAN));
-    view.getSleepButton().addActionListener(e -> handleInteraction(Action.SLEEP));
-    view.getHugButton().addActionListener(e -> handleInteraction(Action.HUG));
+    view.getFeedButton().addActionListener(e -> click(Action.FEED));
+    view.getPlayButton().addActionListener(e -> click(Action.PLAY));
+    view.getCleanButton().addActionListener(e -> click(Action.CLEAN));
+    view.getSleepButton().addActionListener(e -> click(Action.SLEEP));
+    view.getHugButton().addActionListener(e -> click(Action.HUG));
     view.getStepButton().addActionListener(e -> stepGame());
+    view.getAutopilotButton().addActionListener(e -> toggleAutopilot());
     view.getExitButton().addActionListener(e -> exitGame());
+    view.getHistorySlider().addChangeListener(e -> showHistoryTick());
 
     // Set up mood menu item listener (for developer testing)
     view.setMoodMenuItemListener(e -> {
@@ -60,16 +103,16 @@ public class PetController {
       }
     });
 
-    // Initialize previous status values
-    HealthStatus initialHealth = pet.getHealth();
-    prevHunger = initialHealth.hunger();
-    prevHygiene = initialHealth.hygiene();
-    prevSocial = initialHealth.social();
-    prevSleep = initialHealth.sleep();
-    prevMood = initialHealth.mood();
+    autopilotTimer = new Timer(AUTOPILOT_DELAY_MS, e -> autopilotTick());
+    clickTimer = new Timer(FRAME_MS, e -> applyClicks());
+    clickTimer.setRepeats(false);
+
+    // The only full read of the pet, from here on the view follows its deltas
+    shown = PetStates.pack(pet.getHealth());
+    pet.addListener(delta -> changes = changes == null ? delta : changes.merge(delta));
 
     // Initial view update
-    updateView();
+    updateView(new PetDelta(shown, shown));
 
     // Add initial hints based on pet state
     view.addMessage("❓ HINTS ❓");
@@ -77,100 +120,205 @@ public class PetController {
   }
 
   /**
-   * Handles a pet interaction action from the view.
+   * Queues an action clicked in the view, to be applied with the other clicks of the frame.
+   *
+   * @param action the action clicked
+   */
+  private void click(Action action) {
+    clicks.add(action);
+    if (!clickTimer.isRunning()) {
+      clickTimer.start();
+    }
+  }
+
+  /**
+   * Applies the clicks queued so far, so they take effect before another operation.
+   */
+  private void applyClicks() {
+    clickTimer.stop();
+    if (!clicks.isEmpty()) {
+      List<Action> actions = new ArrayList<>(clicks);
+      clicks.clear();
+      handleInteraction(actions);
+    }
+  }
+
+  /**
+   * Handles pet interaction actions from the view in one batched model call.
+   * The buttons reach it through the per-frame click batching, headless drivers such as
+   * the benchmarks call it directly.
    *
-   * @param action the action to perform
+   * @param actions the actions to perform in order
    */
-  private void handleInteraction(Action action) {
-    if (pet.getHealth().dead()) {
+  public void handleInteraction(List<Action> actions) {
+    if (exited) {
+      return;
+    }
+    if (PetStates.isDead(shown)) {
       view.addMessage("☠️ Your pet is dead. No actions can be taken.");
       return;
     }
+    PetInteractionEvent event = PetFlight.beginInteraction();
 
-    // Store pre-action values
-    HealthStatus beforeStatus = pet.getHealth();
-    prevHunger = beforeStatus.hunger();
-    prevHygiene = beforeStatus.hygiene();
-    prevSocial = beforeStatus.social();
-    prevSleep = beforeStatus.sleep();
-    prevMood = beforeStatus.mood();
-
-    // Perform the action
-    pet.interactWith(action);
+    // Perform the actions, a mood change can make a later one impossible
+    PetBatch batch = pet.applyBatch(actions);
 
     // Update the view
-    updateView();
+    PetDelta delta = takeChanges();
+    updateView(delta);
 
     // Add a separator line
     view.addMessage("\n▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
 
-    // Provide feedback on the action
-    provideFeedback(action);
+    // Provide feedback on the actions
+    provideFeedback(actions.subList(0, batch.applied()), delta);
+    if (batch.rejection() != null) {
+      view.addMessage("🚫 Your pet's mood changed, the remaining actions were skipped.");
+    }
 
     // Check for mood change first (more important)
-    checkMoodChange();
+    checkMoodChange(delta);
 
     // Add hints based on current status
-    if (!pet.getHealth().dead()) {
+    if (!PetStates.isDead(shown)) {
       view.addMessage("\n❓ HINTS ❓");
       addHintBasedOnStatus();
     }
+    PetFlight.interacted(event, PetFlight.CONTROLLER, actions, delta.before(), delta.after());
   }
 
   /**
    * Advances the pet's state by one step.
    */
   private void stepGame() {
-    if (pet.getHealth().dead()) {
+    applyClicks();
+    if (exited) {
+      return;
+    }
+    if (PetStates.isDead(shown)) {
       view.addMessage("☠️ Your pet is dead. No more steps possible.");
       return;
     }
 
-    // Store pre-step values
-    HealthStatus beforeStatus = pet.getHealth();
-    prevHunger = beforeStatus.hunger();
-    prevHygiene = beforeStatus.hygiene();
-    prevSocial = beforeStatus.social();
-    prevSleep = beforeStatus.sleep();
-    prevMood = beforeStatus.mood();
+    PetStepEvent event = PetFlight.beginStep();
 
     // Perform the step
     pet.step();
 
     // Update the view
-    updateView();
+    PetDelta delta = takeChanges();
+    updateView(delta);
 
     // Add a separator line
     view.addMessage("\n▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
 
     // Provide feedback on the step
     view.addMessage("⏱️ Time passes... Your pet's needs have changed.");
-    provideFeedbackOnChanges();
+    provideFeedbackOnChanges(delta);
 
     // Check for mood change
-    checkMoodChange();
+    checkMoodChange(delta);
 
     // Add hints based on current status if not dead
-    if (!pet.getHealth().dead()) {
+    if (!PetStates.isDead(shown)) {
       view.addMessage("\n❓ HINTS ❓");
       addHintBasedOnStatus();
     }
+    PetFlight.stepped(event, PetFlight.CONTROLLER, 1, delta.before(), delta.after());
+  }
+
+  /**
+   * Turns the autopilot on or off, solving the care policy in the background the first time.
+   */
+  private void toggleAutopilot() {
+    if (!view.getAutopilotButton().isSelected()) {
+      autopilotTimer.stop();
+      view.addMessage("\n🤖 Autopilot off. Your pet is in your hands again.");
+      return;
+    }
+    if (autopilot != null) {
+      startAutopilot();
+      return;
+    }
+
+    view.getAutopilotButton().setEnabled(false);
+    view.addMessage("\n🤖 Working out the best care for your pet...");
+    new SwingWorker<PolicyTable, Void>() {
+      @Override
+      protected PolicyTable doInBackground() {
+        return new CarePolicySolver(MoodRules.defaults(), AUTOPILOT_BUCKET_WIDTH,
+            CarePolicySolver.DEFAULT_DISCOUNT, ForkJoinPool.commonPool()).solve(1e-3).table();
+      }
+
+      @Override
+      protected void done() {
+        try {
+          autopilot = get();
+        } catch (InterruptedException | ExecutionException ex) {
+          System.err.println("Error solving the care policy: " + ex.getMessage());
+          view.getAutopilotButton().setSelected(false);
+          return;
+        } finally {
+          view.getAutopilotButton().setEnabled(!exited && !PetStates.isDead(shown));
+        }
+        if (view.getAutopilotButton().isSelected()) {
+          startAutopilot();
+        }
+      }
+    }.execute();
+  }
+
+  private void startAutopilot() {
+    if (exited || PetStates.isDead(shown)) {
+      view.getAutopilotButton().setSelected(false);
+      return;
+    }
+    view.addMessage("\n🤖 Autopilot on. Sit back while your pet is looked after.");
+    autopilotTimer.start();
+  }
+
+  /**
+   * Performs one autopilot tick: the action from the policy table, if any, then a step.
+   */
+  private void autopilotTick() {
+    if (exited || PetStates.isDead(shown)) {
+      autopilotTimer.stop();
+      view.getAutopilotButton().setSelected(false);
+      return;
+    }
+
+    // Constant time table lookup on the current state
+    Action action = autopilot.decide(pet);
+    if (action != null) {
+      handleInteraction(List.of(action));
+    }
+    stepGame();
+  }
+
+  /**
+   * Returns the changes published since the last call, an empty delta if there were none.
+   */
+  private PetDelta takeChanges() {
+    PetDelta delta = changes != null ? changes : new PetDelta(shown, shown);
+    changes = null;
+    return delta;
   }
 
   /**
    * Checks and reports mood changes
    */
-  private void checkMoodChange() {
-    HealthStatus currentHealth = pet.getHealth();
+  private void checkMoodChange(PetDelta delta) {
+    boolean dead = PetStates.isDead(delta.after());
 
     // Check for mood change
-    if (currentHealth.mood() != prevMood && !currentHealth.dead()) {
+    if (delta.moodChanged() && !dead) {
       view.addMessage("\n🔄 MOOD CHANGED 🔄");
-      view.addMessage("Your pet's mood changed from " + prevMood + " to " + currentHealth.mood() + "!");
+      view.addMessage("Your pet's mood changed from " + PetStates.mood(delta.before())
+          + " to " + PetStates.mood(delta.after()) + "!");
     }
 
     // Check for death
-    if (currentHealth.dead()) {
+    if (dead) {
       view.addMessage("\n☠️ Your pet has died! Game over.");
     }
   }
@@ -194,56 +342,121 @@ public class PetController {
    * Kills the pet and updates the UI accordingly.
    */
   private void killPet() {
+    applyClicks();
+
     // Force the pet to die (implementation might vary based on Pet class)
     // Set extreme values to trigger death condition
-    pet.interactWith(Action.FEED);
-    pet.interactWith(Action.FEED);
-    pet.interactWith(Action.FEED);
-    pet.interactWith(Action.FEED);
-    pet.interactWith(Action.FEED);
+    pet.interactWith(Action.FEED, 5);
 
-    // Update the view
-    updateView();
+    // Update the view once for the five feeds
+    updateView(takeChanges());
 
     // Make sure the dead UI elements are shown
-    if (!pet.getHealth().dead()) {
+    if (!PetStates.isDead(shown)) {
       view.setPetDead();
+      showHistory();
     }
+
+    // Feeding does not have to kill the pet, so stop everything that would operate on it
+    exited = true;
+    autopilotTimer.stop();
+    view.getAutopilotButton().setSelected(false);
+    view.getAutopilotButton().setEnabled(false);
+  }
+
+  /**
+   * Returns whether the pet was abandoned with the exit button, or killed from the mood
+   * menu. The view then shows it dead, whatever the model says.
+   *
+   * @return true once the controller no longer operates on the pet
+   */
+  public boolean isExited() {
+    return exited;
+  }
+
+  /**
+   * Returns the timer driving the autopilot, for tests.
+   */
+  Timer getAutopilotTimer() {
+    return autopilotTimer;
   }
 
   /**
-   * Updates the view to reflect the current model state.
+   * Updates the view to the state after a change.
    */
-  private void updateView() {
-    HealthStatus health = pet.getHealth();
+  private void updateView(PetDelta delta) {
+    shown = delta.after();
+    boolean dead = PetStates.isDead(shown);
+    MoodEnum mood = PetStates.mood(shown);
 
     // Update health stats
     view.updateHealth(
-        health.hunger(),
-        health.hygiene(),
-        health.social(),
-        health.sleep(),
-        !health.dead()
+        PetStates.hunger(shown),
+        PetStates.hygiene(shown),
+        PetStates.social(shown),
+        PetStates.sleep(shown),
+        !dead
     );
 
     // Update mood and corresponding image
-    if (health.dead()) {
+    if (dead) {
       view.setMood("DEAD");
     } else {
-      view.updateMood(pet.getMood().name());
-      view.updateImage(pet.getMood().name());
+      view.updateMood(mood.name());
+      view.updateImage(mood.name());
     }
 
     // Show/hide HUG button based on mood (only if not dead)
-    if (!health.dead()) {
-      view.setHugButtonVisible(pet.getMood() == MoodEnum.ANXIETY);
+    if (!dead) {
+      view.setHugButtonVisible(mood == MoodEnum.ANXIETY);
+    } else {
+      showHistory();
+    }
+  }
+
+  /**
+   * Shows the history scrubber once the pet is dead, if its history was recorded.
+   */
+  private void showHistory() {
+    if (history != null && !historyShown) {
+      historyShown = true;
+      view.showHistory(history.getTick());
+    }
+  }
+
+  /**
+   * Displays the state at the tick selected on the history slider. A seek replays at most
+   * one checkpoint interval, so this keeps up with dragging.
+   */
+  private void showHistoryTick() {
+    if (!historyShown) {
+      return;
     }
+    int tick = view.getHistorySlider().getValue();
+    HealthStatus status = history.seek(tick);
+    view.showHistoryState(tick, status.hunger(), status.hygiene(), status.social(),
+        status.sleep(), status.dead() ? "DEAD" : status.mood().name());
   }
 
   /**
-   * Provides feedback on the action that was performed.
+   * Provides feedback on the actions that were performed, one line per kind of action.
    */
-  private void provideFeedback(Action action) {
+  private void provideFeedback(List<Action> actions, PetDelta delta) {
+    Map<Action, Integer> counts = new LinkedHashMap<>();
+    for (Action action : actions) {
+      counts.merge(action, 1, Integer::sum);
+    }
+    for (Map.Entry<Action, Integer> entry : counts.entrySet()) {
+      int times = entry.getValue();
+      view.addMessage(actionMessage(entry.getKey()) + (times > 1 ? " (x" + times + ")" : ""));
+    }
+    provideFeedbackOnChanges(delta);
+  }
+
+  /**
+   * Returns the feedback message for an action.
+   */
+  private static String actionMessage(Action action) {
     // Create action feedback message with emoji
     String actionMessage;
     switch (action) {
@@ -267,31 +480,24 @@ public class PetController {
         break;
     }
 
-    view.addMessage(actionMessage);
-    provideFeedbackOnChanges();
+    return actionMessage;
   }
 
   /**
    * Provides feedback on changes in stats.
    */
-  private void provideFeedbackOnChanges() {
-    HealthStatus currentHealth = pet.getHealth();
-
+  private void provideFeedbackOnChanges(PetDelta delta) {
     // Create status change message
-    StringBuilder changes = new StringBuilder("📊 Status Changes: \n");
+    StringBuilder message = new StringBuilder("📊 Status Changes: \n");
 
     // Show changes in health stats
-    int hungerChange = currentHealth.hunger() - prevHunger;
-    int hygieneChange = currentHealth.hygiene() - prevHygiene;
-    int socialChange = currentHealth.social() - prevSocial;
-    int sleepChange = currentHealth.sleep() - prevSleep;
-
-    changes.append("   Hunger: ").append(formatChange(hungerChange)).append("\n");
-    changes.append("   Hygiene: ").append(formatChange(hygieneChange)).append("\n");
-    changes.append("   Social: ").append(formatChange(socialChange)).append("\n");
-    changes.append("   Sleep: ").append(formatChange(sleepChange));
+    message.append("   Hunger: ").append(formatChange(delta.change(Stat.HUNGER))).append("\n");
+    message.append("   Hygiene: ").append(formatChange(delta.change(Stat.HYGIENE)))
+        .append("\n");
+    message.append("   Social: ").append(formatChange(delta.change(Stat.SOCIAL))).append("\n");
+    message.append("   Sleep: ").append(formatChange(delta.change(Stat.SLEEP)));
 
-    view.addMessage(changes.toString());
+    view.addMessage(message.toString());
   }
 
   /**
@@ -312,36 +518,35 @@ public class PetController {
    * Adds hints based on the current status.
    */
   private void addHintBasedOnStatus() {
-    if (pet.getHealth().dead()) {
+    if (PetStates.isDead(shown)) {
       return; // No hints for dead pet
     }
 
-    HealthStatus health = pet.getHealth();
     boolean hintsAdded = false;
 
     // Check for critical values
-    if (health.hunger() > 80) {
+    if (PetStates.hunger(shown) > 80) {
       view.addMessage("• Your pet is very hungry! Try feeding it.");
       hintsAdded = true;
     }
 
-    if (health.hygiene() > 80) {
+    if (PetStates.hygiene(shown) > 80) {
       view.addMessage("• Your pet is very dirty! Try cleaning it.");
       hintsAdded = true;
     }
 
-    if (health.social() > 80) {
+    if (PetStates.social(shown) > 80) {
       view.addMessage("• Your pet is very lonely! Try playing with it.");
       hintsAdded = true;
     }
 
-    if (health.sleep() > 80) {
+    if (PetStates.sleep(shown) > 80) {
       view.addMessage("• Your pet is very tired! Let it sleep.");
       hintsAdded = true;
     }
 
     // Mood-specific hints
-    if (pet.getMood() == MoodEnum.ANXIETY) {
+    if (PetStates.mood(shown) == MoodEnum.ANXIETY) {
       view.addMessage("• Your pet is anxious! Try hugging it to calm it down.");
       view.addMessage("• When anxious, normal actions may have unpredictable effects.");
       hintsAdded = true;
@@ -360,7 +565,8 @@ public class PetController {
    * @param mood the mood to set
    */
   public void setMood(MoodEnum mood) {
+    applyClicks();
     pet.setMood(mood);
-    updateView();
+    updateView(takeChanges());
   }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package petapp.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A pet's mood changing, recorded by the model.
+ */
+@Name("petapp.MoodChange")
+@Label("Mood Change")
+@Description("A pet's mood changing")
+public class MoodChangeEvent extends SampledEvent {
+  @Label("From")
+  public String from;
+
+  @Label("To")
+  public String to;
+}
@@ -0,0 +1,72 @@
+package petapp.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import petapp.model.PetStates;
+
+/**
+ * A timed operation that changes a pet, with its stats before and after. Both the model
+ * and the controller record these, told apart by the layer, and the controller's events
+ * enclose the model's and include the view refresh.
+ */
+public abstract class PetChangeEvent extends SampledEvent {
+  @Label("Layer")
+  @Description("The layer that ran the operation, model or controller")
+  public String layer;
+
+  @Label("Mood Before")
+  public String moodBefore;
+
+  @Label("Mood After")
+  public String moodAfter;
+
+  @Label("Dead")
+  @Description("Whether the pet is dead after the operation")
+  public boolean dead;
+
+  @Label("Hunger Before")
+  public int hungerBefore;
+
+  @Label("Hunger After")
+  public int hungerAfter;
+
+  @Label("Hygiene Before")
+  public int hygieneBefore;
+
+  @Label("Hygiene After")
+  public int hygieneAfter;
+
+  @Label("Social Before")
+  public int socialBefore;
+
+  @Label("Social After")
+  public int socialAfter;
+
+  @Label("Sleep Before")
+  public int sleepBefore;
+
+  @Label("Sleep After")
+  public int sleepAfter;
+
+  /**
+   * Sets the fields from the packed PetStates words before and after the operation.
+   *
+   * @param layer the layer that ran the operation
+   * @param before the state before
+   * @param after the state after
+   */
+  void set(String layer, int before, int after) {
+    this.layer = layer;
+    moodBefore = PetStates.mood(before).name();
+    moodAfter = PetStates.mood(after).name();
+    dead = PetStates.isDead(after);
+    hungerBefore = PetStates.hunger(before);
+    hungerAfter = PetStates.hunger(after);
+    hygieneBefore = PetStates.hygiene(before);
+    hygieneAfter = PetStates.hygiene(after);
+    socialBefore = PetStates.social(before);
+    socialAfter = PetStates.social(after);
+    sleepBefore = PetStates.sleep(before);
+    sleepAfter = PetStates.sleep(after);
+  }
+}
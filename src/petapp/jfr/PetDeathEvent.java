@@ -0,0 +1,27 @@
+package petapp.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A pet dying, recorded by the model.
+ */
+@Name("petapp.PetDeath")
+@Label("Pet Death")
+@Description("A pet dying")
+public class PetDeathEvent extends SampledEvent {
+  @Label("Cause")
+  @Description("What the pet was doing, a DeathCause name")
+  public String cause;
+
+  @Label("Mood")
+  @Description("The mood before the fatal operation")
+  public String mood;
+
+  @Label("Hunger")
+  public int hunger;
+
+  @Label("Sleep")
+  public int sleep;
+}
@@ -0,0 +1,180 @@
+package petapp.jfr;
+
+import java.util.List;
+import jdk.jfr.EventType;
+import petapp.model.Action;
+import petapp.model.DeathCause;
+import petapp.model.PetStates;
+
+/**
+ * Commits the Flight Recorder events of the model and the controller. The callers check
+ * isRecording first and begin the timed events here, which only creates them while a
+ * recording has them enabled, so without a recording no event is allocated and the pet's
+ * state is not even packed. The checks read cached event types rather than instances.
+ * Enabled events are filled in and handed to commit(), which applies the threshold and the
+ * sample setting; asking shouldCommit() first would sample twice.
+ */
+public final class PetFlight {
+  /**
+   * Layer of the events recorded by the model.
+   */
+  public static final String MODEL = "model";
+
+  /**
+   * Layer of the events recorded by the controller.
+   */
+  public static final String CONTROLLER = "controller";
+
+  /**
+   * Action of the interaction events for a batch of different actions.
+   */
+  public static final String BATCH = "BATCH";
+
+  /**
+   * Type of the step events.
+   */
+  public static final EventType STEP = EventType.getEventType(PetStepEvent.class);
+
+  /**
+   * Type of the interaction events.
+   */
+  public static final EventType INTERACTION = EventType.getEventType(PetInteractionEvent.class);
+
+  private static final EventType MOOD_CHANGE = EventType.getEventType(MoodChangeEvent.class);
+  private static final EventType DEATH = EventType.getEventType(PetDeathEvent.class);
+
+  private PetFlight() {
+  }
+
+  /**
+   * Returns whether a recording wants an operation's event or the mood change and death
+   * events it may cause, so the caller only tracks the state when it does.
+   *
+   * @param type the type of the operation's event, or null if it has none
+   * @return true if any of the events is enabled
+   */
+  public static boolean isRecording(EventType type) {
+    return type != null && type.isEnabled() || MOOD_CHANGE.isEnabled() || DEATH.isEnabled();
+  }
+
+  /**
+   * Begins a step event if a recording has step events enabled.
+   *
+   * @return the begun event, or null if none is recorded
+   */
+  public static PetStepEvent beginStep() {
+    if (!STEP.isEnabled()) {
+      return null;
+    }
+    PetStepEvent event = new PetStepEvent();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Begins an interaction event if a recording has interaction events enabled.
+   *
+   * @return the begun event, or null if none is recorded
+   */
+  public static PetInteractionEvent beginInteraction() {
+    if (!INTERACTION.isEnabled()) {
+      return null;
+    }
+    PetInteractionEvent event = new PetInteractionEvent();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Commits a step event if it passes its threshold and sampling.
+   *
+   * @param event the event begun before the step, or null if none was
+   * @param layer the layer that stepped the pet
+   * @param ticks the number of time units stepped
+   * @param before the packed state before
+   * @param after the packed state after
+   */
+  public static void stepped(PetStepEvent event, String layer, long ticks, int before,
+                             int after) {
+    if (event != null && event.isEnabled()) {
+      event.set(layer, before, after);
+      event.ticks = ticks;
+      event.commit();
+    }
+  }
+
+  /**
+   * Commits an interaction event if it passes its threshold and sampling.
+   *
+   * @param event the event begun before the interaction, or null if none was
+   * @param layer the layer that interacted with the pet
+   * @param action the action
+   * @param before the packed state before
+   * @param after the packed state after
+   */
+  public static void interacted(PetInteractionEvent event, String layer, Action action,
+                                int before, int after) {
+    if (event != null && event.isEnabled()) {
+      event.set(layer, before, after);
+      event.action = action.name();
+      event.count = 1;
+      event.commit();
+    }
+  }
+
+  /**
+   * Commits an interaction event for a batch of actions if it passes its threshold and
+   * sampling. The event is named after the action if the batch repeats a single one, so
+   * its latency is grouped with that action's, and BATCH otherwise.
+   *
+   * @param event the event begun before the interactions, or null if none was
+   * @param layer the layer that interacted with the pet
+   * @param actions the actions
+   * @param before the packed state before
+   * @param after the packed state after
+   */
+  public static void interacted(PetInteractionEvent event, String layer, List<Action> actions,
+                                int before, int after) {
+    if (event != null && event.isEnabled()) {
+      event.set(layer, before, after);
+      Action single = actions.isEmpty() ? null : actions.get(0);
+      for (Action action : actions) {
+        if (action != single) {
+          single = null;
+          break;
+        }
+      }
+      event.action = single != null ? single.name() : BATCH;
+      event.count = actions.size();
+      event.commit();
+    }
+  }
+
+  /**
+   * Commits the mood change and death events of one model operation.
+   *
+   * @param before the packed state before
+   * @param after the packed state after
+   * @param cause the cause if the operation killed the pet
+   */
+  public static void changed(int before, int after, DeathCause cause) {
+    if (PetStates.mood(before) != PetStates.mood(after) && MOOD_CHANGE.isEnabled()) {
+      MoodChangeEvent event = new MoodChangeEvent();
+      if (event.isEnabled()) {
+        event.from = PetStates.mood(before).name();
+        event.to = PetStates.mood(after).name();
+        event.commit();
+      }
+    }
+    if (!PetStates.isDead(before) && PetStates.isDead(after) && DEATH.isEnabled()) {
+      PetDeathEvent event = new PetDeathEvent();
+      if (event.isEnabled()) {
+        event.cause = cause.name();
+        event.mood = PetStates.mood(before).name();
+        event.hunger = PetStates.hunger(after);
+        event.sleep = PetStates.sleep(after);
+        event.commit();
+      }
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package petapp.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Interactions with a pet. The model records one event per action, the controller one per
+ * batch of clicks applied together, named after its action if every click was the same
+ * one and BATCH otherwise. Only interactions slower than the threshold are recorded unless
+ * a profile lowers it.
+ */
+@Name("petapp.PetInteraction")
+@Label("Pet Interaction")
+@Description("An interaction with a pet")
+@Threshold("1 ms")
+public class PetInteractionEvent extends PetChangeEvent {
+  @Label("Action")
+  @Description("The action, or BATCH for a batch of different actions")
+  public String action;
+
+  @Label("Count")
+  @Description("The number of actions performed together")
+  public int count;
+}
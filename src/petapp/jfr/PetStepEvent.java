@@ -0,0 +1,20 @@
+package petapp.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Pet steps, one event per step call. Only steps slower than the threshold are recorded
+ * unless a profile lowers it.
+ */
+@Name("petapp.PetStep")
+@Label("Pet Step")
+@Description("Time passing for a pet")
+@Threshold("1 ms")
+public class PetStepEvent extends PetChangeEvent {
+  @Label("Ticks")
+  @Description("The number of time units stepped")
+  public long ticks;
+}
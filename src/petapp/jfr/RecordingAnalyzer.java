@@ -0,0 +1,137 @@
+package petapp.jfr;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Summarizes the Virtual Pet events of a Flight Recorder file: latency percentiles of the
+ * interactions per layer and action and of the steps per layer, and the counts of mood
+ * transitions and deaths. Controller batches of different actions are grouped as BATCH.
+ * Counts are of the recorded events, so with sampling on they are a fraction of the
+ * operations.
+ */
+public class RecordingAnalyzer {
+  private final Map<String, List<Long>> latencies = new TreeMap<>();
+  private final Map<String, Long> moodChanges = new TreeMap<>();
+  private final Map<String, Long> deaths = new TreeMap<>();
+
+  /**
+   * Reads the pet events of a recording.
+   *
+   * @param recording the .jfr file
+   * @throws IOException if the file cannot be read
+   */
+  public RecordingAnalyzer(Path recording) throws IOException {
+    try (RecordingFile file = new RecordingFile(recording)) {
+      while (file.hasMoreEvents()) {
+        add(file.readEvent());
+      }
+    }
+  }
+
+  /**
+   * Analyzer entry point.
+   *
+   * @param args the .jfr file
+   * @throws IOException if the file cannot be read
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      System.err.println("Usage: RecordingAnalyzer FILE.jfr");
+      return;
+    }
+    new RecordingAnalyzer(Path.of(args[0])).print(System.out);
+  }
+
+  private void add(RecordedEvent event) {
+    switch (event.getEventType().getName()) {
+      case "petapp.PetStep" -> latency(event.getString("layer") + " STEP", event);
+      case "petapp.PetInteraction" -> latency(event.getString("layer") + " "
+          + event.getString("action"), event);
+      case "petapp.MoodChange" -> moodChanges.merge(event.getString("from") + "->"
+          + event.getString("to"), 1L, Long::sum);
+      case "petapp.PetDeath" -> deaths.merge(event.getString("cause"), 1L, Long::sum);
+      default -> {
+        // Not a pet event
+      }
+    }
+  }
+
+  private void latency(String key, RecordedEvent event) {
+    latencies.computeIfAbsent(key, k -> new ArrayList<>()).add(event.getDuration().toNanos());
+  }
+
+  /**
+   * Returns the sorted durations in nanoseconds of the recorded operations, keyed by layer
+   * and action, or STEP for steps and BATCH for batches of different actions, such as
+   * "model FEED".
+   *
+   * @return the durations by operation
+   */
+  public Map<String, long[]> getLatencies() {
+    Map<String, long[]> sorted = new TreeMap<>();
+    latencies.forEach((key, values) -> {
+      long[] nanos = values.stream().mapToLong(Long::longValue).toArray();
+      Arrays.sort(nanos);
+      sorted.put(key, nanos);
+    });
+    return sorted;
+  }
+
+  /**
+   * Returns the number of recorded mood changes, keyed by "FROM->TO".
+   *
+   * @return the counts
+   */
+  public Map<String, Long> getMoodChanges() {
+    return moodChanges;
+  }
+
+  /**
+   * Returns the number of recorded deaths, keyed by cause.
+   *
+   * @return the counts
+   */
+  public Map<String, Long> getDeaths() {
+    return deaths;
+  }
+
+  /**
+   * Returns a percentile of sorted values by the nearest rank.
+   *
+   * @param sorted the values in ascending order, not empty
+   * @param quantile the quantile, between 0 and 1
+   * @return the value
+   */
+  static long percentile(long[] sorted, double quantile) {
+    int rank = (int) Math.ceil(quantile * sorted.length);
+    return sorted[Math.max(0, rank - 1)];
+  }
+
+  /**
+   * Prints the summary as tables.
+   *
+   * @param out the stream to print to
+   */
+  public void print(PrintStream out) {
+    out.printf("%-32s %9s %10s %10s %10s %10s%n",
+        "operation", "events", "p50 us", "p90 us", "p99 us", "max us");
+    getLatencies().forEach((key, nanos) -> out.printf("%-32s %,9d %10.2f %10.2f %10.2f %10.2f%n",
+        key, nanos.length, percentile(nanos, 0.50) / 1e3, percentile(nanos, 0.90) / 1e3,
+        percentile(nanos, 0.99) / 1e3, nanos[nanos.length - 1] / 1e3));
+    out.println();
+    out.printf("%-32s %9s%n", "mood change", "events");
+    moodChanges.forEach((key, count) -> out.printf("%-32s %,9d%n", key, count));
+    out.println();
+    out.printf("%-32s %9s%n", "death cause", "events");
+    deaths.forEach((key, count) -> out.printf("%-32s %,9d%n", key, count));
+  }
+}
@@ -0,0 +1,64 @@
+package petapp.jfr;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.MetadataDefinition;
+import jdk.jfr.Name;
+import jdk.jfr.SettingControl;
+
+/**
+ * Event setting that records a random one in N events, so that a population of pets
+ * stepping millions of times a second leaves a readable recording. The value is N, when
+ * several recordings ask for different rates the densest wins.
+ */
+@MetadataDefinition
+@Name("petapp.Sample")
+@Label("Sample")
+@Description("Records a random one in this many events")
+public class SampleSetting extends SettingControl {
+  /**
+   * Value recording every event.
+   */
+  public static final String EVERY = "1";
+
+  private volatile int interval = 1;
+
+  @Override
+  public String combine(Set<String> values) {
+    int densest = Integer.MAX_VALUE;
+    for (String value : values) {
+      densest = Math.min(densest, parse(value));
+    }
+    return densest == Integer.MAX_VALUE ? EVERY : String.valueOf(densest);
+  }
+
+  @Override
+  public void setValue(String value) {
+    interval = parse(value);
+  }
+
+  @Override
+  public String getValue() {
+    return String.valueOf(interval);
+  }
+
+  /**
+   * Returns whether the current event is one of the sampled ones.
+   *
+   * @return true to record the event
+   */
+  public boolean sample() {
+    int n = interval;
+    return n <= 1 || ThreadLocalRandom.current().nextInt(n) == 0;
+  }
+
+  private static int parse(String value) {
+    try {
+      return Math.max(1, Integer.parseInt(value.trim()));
+    } catch (NumberFormatException e) {
+      return 1;
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package petapp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.SettingDefinition;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of the Virtual Pet events, which a recording can sample with the sample setting.
+ * Stack traces are off, the events come from a handful of call sites.
+ */
+@Category("Virtual Pet")
+@StackTrace(false)
+public abstract class SampledEvent extends Event {
+  /**
+   * Filters the events by the sample setting, evaluated after the threshold.
+   *
+   * @param setting the sample setting
+   * @return true to record the event
+   */
+  @Name("sample")
+  @Label("Sample")
+  @SettingDefinition
+  protected boolean sample(SampleSetting setting) {
+    return setting.sample();
+  }
+}
@@ -0,0 +1,170 @@
+package petapp.metrics;
+
+import java.util.List;
+import petapp.model.Action;
+import petapp.model.DeathCause;
+import petapp.model.HealthStatus;
+import petapp.model.MoodEnum;
+import petapp.model.PetBatch;
+import petapp.model.PetDelta;
+import petapp.model.PetInterface;
+import petapp.model.PetListener;
+import petapp.model.PetStates;
+
+/**
+ * Wrapper that records the operations on a pet in a PetMetrics: steps and interactions
+ * with a sampled latency, rejected interactions, mood transitions and deaths.
+ * The wrapper is not thread-safe: a single operation reads the pet before and after it
+ * runs, so threads sharing it must lock the wrapper around each operation, as PetService
+ * does. Operations on a dead pet are not counted. A batch goes to the wrapped pet whole,
+ * keeping its atomicity and single notification; the actions it applied are counted
+ * untimed, with one transition from its first to its last mood.
+ */
+public class InstrumentedPet implements PetInterface {
+  private final PetInterface pet;
+  private final PetMetrics metrics;
+
+  /**
+   * Wraps a pet, which must not be used directly afterwards.
+   *
+   * @param pet the pet to measure
+   * @param metrics the metrics to record into, shared by any number of pets
+   */
+  public InstrumentedPet(PetInterface pet, PetMetrics metrics) {
+    this.pet = pet;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void step() {
+    MoodEnum mood = pet.getMood();
+    boolean dead = pet.isDead();
+    long start = metrics.start();
+    pet.step();
+    if (!dead) {
+      metrics.stepped(1, start);
+      changed(mood, DeathCause.NEGLECT);
+    }
+  }
+
+  @Override
+  public long step(long ticks) {
+    MoodEnum mood = pet.getMood();
+    boolean dead = pet.isDead();
+    long stepped = pet.step(ticks);
+    if (!dead) {
+      // Only the ticks up to a death are counted
+      metrics.stepped(stepped, PetMetrics.NOT_TIMED);
+      changed(mood, DeathCause.NEGLECT);
+    }
+    return stepped;
+  }
+
+  @Override
+  public void interactWith(Action action) {
+    interact(action, metrics.start());
+  }
+
+  @Override
+  public PetBatch applyBatch(List<Action> actions) {
+    PetBatch batch = pet.applyBatch(actions);
+    for (int i = 0; i < batch.applied(); i++) {
+      metrics.interacted(actions.get(i), PetMetrics.NOT_TIMED);
+    }
+    if (batch.rejection() != null) {
+      metrics.rejected();
+    }
+    // The batch's own delta, read atomically by the wrapped pet
+    PetDelta delta = batch.delta();
+    if (delta.moodChanged()) {
+      metrics.moodChanged(PetStates.mood(delta.before()), PetStates.mood(delta.after()));
+    }
+    if (delta.died()) {
+      metrics.died(DeathCause.INTERACTION);
+    }
+    return batch;
+  }
+
+  private void interact(Action action, long start) {
+    MoodEnum mood = pet.getMood();
+    boolean dead = pet.isDead();
+    try {
+      pet.interactWith(action);
+    } catch (IllegalStateException e) {
+      metrics.rejected();
+      throw e;
+    }
+    if (!dead) {
+      metrics.interacted(action, start);
+      changed(mood, DeathCause.INTERACTION);
+    }
+  }
+
+  @Override
+  public HealthStatus getHealth() {
+    return pet.getHealth();
+  }
+
+  @Override
+  public void setMood(MoodEnum mood) {
+    MoodEnum before = pet.getMood();
+    pet.setMood(mood);
+    if (before != mood && !pet.isDead()) {
+      metrics.moodChanged(before, mood);
+    }
+  }
+
+  @Override
+  public MoodEnum getMood() {
+    return pet.getMood();
+  }
+
+  @Override
+  public int getHunger() {
+    return pet.getHunger();
+  }
+
+  @Override
+  public int getHygiene() {
+    return pet.getHygiene();
+  }
+
+  @Override
+  public int getSocial() {
+    return pet.getSocial();
+  }
+
+  @Override
+  public int getSleep() {
+    return pet.getSleep();
+  }
+
+  @Override
+  public boolean isDead() {
+    return pet.isDead();
+  }
+
+  @Override
+  public void addListener(PetListener listener) {
+    pet.addListener(listener);
+  }
+
+  @Override
+  public void removeListener(PetListener listener) {
+    pet.removeListener(listener);
+  }
+
+  /**
+   * Records the mood transition and the death of the operation that just ran on a pet
+   * which was alive.
+   */
+  private void changed(MoodEnum before, DeathCause cause) {
+    MoodEnum mood = pet.getMood();
+    if (mood != before) {
+      metrics.moodChanged(before, mood);
+    }
+    if (pet.isDead()) {
+      metrics.died(cause);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package petapp.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with fixed power-of-two buckets: bucket i counts the latencies of at
+ * least 2^(i-1) and less than 2^i nanoseconds, bucket 0 the zero latencies and the last
+ * bucket everything from 2^38 ns, about 4.6 minutes, on. Every bucket is a striped counter, so
+ * recording from many threads never contends on one cache line, and a recording is a
+ * leading zero count and an add.
+ */
+public class LatencyHistogram {
+  /**
+   * Number of buckets.
+   */
+  public static final int BUCKETS = 40;
+
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+  /**
+   * Creates an empty histogram.
+   */
+  public LatencyHistogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records a latency.
+   *
+   * @param nanos the latency in nanoseconds, negative values count as 0
+   */
+  public void record(long nanos) {
+    buckets[bucketOf(nanos)].increment();
+  }
+
+  /**
+   * Returns the bucket counting a latency.
+   */
+  static int bucketOf(long nanos) {
+    return nanos <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+  }
+
+  /**
+   * Returns the counts of all buckets. Concurrent recordings may or may not be included.
+   *
+   * @return the bucket counts
+   */
+  public long[] counts() {
+    long[] counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets[i].sum();
+    }
+    return counts;
+  }
+
+  /**
+   * Returns the number of recorded latencies.
+   *
+   * @return the count
+   */
+  public long count() {
+    long count = 0;
+    for (LongAdder bucket : buckets) {
+      count += bucket.sum();
+    }
+    return count;
+  }
+
+  /**
+   * Returns the upper bound of the bucket holding a quantile of the latencies.
+   *
+   * @param quantile the quantile, between 0 and 1
+   * @return the latency in nanoseconds, or 0 if nothing was recorded
+   */
+  public long percentile(double quantile) {
+    long[] counts = counts();
+    long total = 0;
+    for (long count : counts) {
+      total += count;
+    }
+    long rank = (long) Math.ceil(quantile * total);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank && seen > 0) {
+        return i == 0 ? 0 : 1L << i;
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,247 @@
+package petapp.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import petapp.model.Action;
+import petapp.model.DeathCause;
+import petapp.model.MoodEnum;
+
+/**
+ * Counters and latency histograms of the operations on any number of InstrumentedPets,
+ * published over JMX as a PetMetricsMXBean.
+ * Every counter is a striped LongAdder, so pets updated from many threads do not contend,
+ * and only one in sampleInterval operations is timed, since reading the clock twice costs
+ * about as much as a step. Reads are a sum over the stripes and may miss the operations
+ * running at the same time.
+ */
+public class PetMetrics implements PetMetricsMXBean {
+  /**
+   * Default number of operations per latency sample.
+   */
+  public static final int DEFAULT_SAMPLE_INTERVAL = 32;
+
+  /**
+   * Start time of an operation that is not timed.
+   */
+  static final long NOT_TIMED = Long.MIN_VALUE;
+
+  private static final Action[] ACTIONS = Action.values();
+  private static final MoodEnum[] MOODS = MoodEnum.values();
+  private static final DeathCause[] CAUSES = DeathCause.values();
+
+  private final LongAdder steps = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder[] interactions = adders(ACTIONS.length);
+  // Indexed by from * MOODS.length + to
+  private final LongAdder[] transitions = adders(MOODS.length * MOODS.length);
+  private final LongAdder[] deaths = adders(CAUSES.length);
+  private final LatencyHistogram stepLatency = new LatencyHistogram();
+  private final LatencyHistogram interactLatency = new LatencyHistogram();
+  private final int sampleMask;
+
+  /**
+   * Creates metrics timing one in DEFAULT_SAMPLE_INTERVAL operations.
+   */
+  public PetMetrics() {
+    this(DEFAULT_SAMPLE_INTERVAL);
+  }
+
+  /**
+   * Creates metrics.
+   *
+   * @param sampleInterval the number of operations per latency sample, a power of two;
+   *     1 times every operation
+   */
+  public PetMetrics(int sampleInterval) {
+    if (sampleInterval <= 0 || Integer.bitCount(sampleInterval) != 1) {
+      throw new IllegalArgumentException("Sample interval must be a power of two: "
+          + sampleInterval);
+    }
+    this.sampleMask = sampleInterval - 1;
+  }
+
+  /**
+   * Registers these metrics with the platform MBean server.
+   *
+   * @param name the name of the pets measured, the value of the name key
+   * @return the name the metrics are registered under
+   * @throws JMException if the name is invalid or already registered
+   */
+  public ObjectName register(String name) throws JMException {
+    ObjectName objectName = new ObjectName("petapp:type=PetMetrics,name=" + name);
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+    return objectName;
+  }
+
+  /**
+   * Unregisters metrics from the platform MBean server.
+   *
+   * @param objectName the name returned by register
+   * @throws JMException if nothing is registered under the name
+   */
+  public static void unregister(ObjectName objectName) throws JMException {
+    ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+  }
+
+  /**
+   * Returns the start time of an operation if it is sampled, else NOT_TIMED.
+   */
+  long start() {
+    return (ThreadLocalRandom.current().nextInt() & sampleMask) == 0
+        ? System.nanoTime() : NOT_TIMED;
+  }
+
+  void stepped(long ticks, long start) {
+    steps.add(ticks);
+    if (start != NOT_TIMED) {
+      stepLatency.record(System.nanoTime() - start);
+    }
+  }
+
+  void interacted(Action action, long start) {
+    interactions[action.ordinal()].increment();
+    if (start != NOT_TIMED) {
+      interactLatency.record(System.nanoTime() - start);
+    }
+  }
+
+  void rejected() {
+    rejected.increment();
+  }
+
+  void moodChanged(MoodEnum from, MoodEnum to) {
+    transitions[from.ordinal() * MOODS.length + to.ordinal()].increment();
+  }
+
+  void died(DeathCause cause) {
+    deaths[cause.ordinal()].increment();
+  }
+
+  /**
+   * Returns the number of mood changes from one mood to another.
+   *
+   * @param from the mood before
+   * @param to the mood after
+   * @return the count
+   */
+  public long getMoodTransitions(MoodEnum from, MoodEnum to) {
+    return transitions[from.ordinal() * MOODS.length + to.ordinal()].sum();
+  }
+
+  /**
+   * Returns the number of deaths of a cause.
+   *
+   * @param cause the cause
+   * @return the count
+   */
+  public long getDeaths(DeathCause cause) {
+    return deaths[cause.ordinal()].sum();
+  }
+
+  /**
+   * Returns the step latency histogram.
+   *
+   * @return the histogram
+   */
+  public LatencyHistogram getStepLatency() {
+    return stepLatency;
+  }
+
+  /**
+   * Returns the interaction latency histogram.
+   *
+   * @return the histogram
+   */
+  public LatencyHistogram getInteractLatency() {
+    return interactLatency;
+  }
+
+  @Override
+  public long getSteps() {
+    return steps.sum();
+  }
+
+  @Override
+  public Map<String, Long> getInteractions() {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    for (Action action : ACTIONS) {
+      counts.put(action.name(), interactions[action.ordinal()].sum());
+    }
+    return counts;
+  }
+
+  @Override
+  public long getRejectedInteractions() {
+    return rejected.sum();
+  }
+
+  @Override
+  public Map<String, Long> getMoodTransitions() {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    for (MoodEnum from : MOODS) {
+      for (MoodEnum to : MOODS) {
+        if (from != to) {
+          counts.put(from + "->" + to, getMoodTransitions(from, to));
+        }
+      }
+    }
+    return counts;
+  }
+
+  @Override
+  public Map<String, Long> getDeaths() {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    for (DeathCause cause : CAUSES) {
+      counts.put(cause.name(), getDeaths(cause));
+    }
+    return counts;
+  }
+
+  @Override
+  public int getSampleInterval() {
+    return sampleMask + 1;
+  }
+
+  @Override
+  public long getStepLatencyP50Nanos() {
+    return stepLatency.percentile(0.50);
+  }
+
+  @Override
+  public long getStepLatencyP99Nanos() {
+    return stepLatency.percentile(0.99);
+  }
+
+  @Override
+  public long getInteractLatencyP50Nanos() {
+    return interactLatency.percentile(0.50);
+  }
+
+  @Override
+  public long getInteractLatencyP99Nanos() {
+    return interactLatency.percentile(0.99);
+  }
+
+  @Override
+  public long[] getStepLatencyHistogram() {
+    return stepLatency.counts();
+  }
+
+  @Override
+  public long[] getInteractLatencyHistogram() {
+    return interactLatency.counts();
+  }
+
+  private static LongAdder[] adders(int count) {
+    LongAdder[] adders = new LongAdder[count];
+    for (int i = 0; i < count; i++) {
+      adders[i] = new LongAdder();
+    }
+    return adders;
+  }
+}
@@ -0,0 +1,93 @@
+package petapp.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of PetMetrics. Latencies come from a sample of the operations, one
+ * in getSampleInterval(), and are the upper bounds of power-of-two buckets.
+ */
+public interface PetMetricsMXBean {
+  /**
+   * Returns the number of ticks the pets were stepped.
+   *
+   * @return the step count
+   */
+  long getSteps();
+
+  /**
+   * Returns the number of interactions applied to living pets, by action.
+   *
+   * @return the counts keyed by action name
+   */
+  Map<String, Long> getInteractions();
+
+  /**
+   * Returns the number of interactions the pet's mood did not allow.
+   *
+   * @return the rejected count
+   */
+  long getRejectedInteractions();
+
+  /**
+   * Returns the number of mood changes, by the moods before and after.
+   *
+   * @return the counts keyed by "FROM->TO"
+   */
+  Map<String, Long> getMoodTransitions();
+
+  /**
+   * Returns the number of deaths, by cause.
+   *
+   * @return the counts keyed by DeathCause name
+   */
+  Map<String, Long> getDeaths();
+
+  /**
+   * Returns how many operations share one latency sample.
+   *
+   * @return the sample interval
+   */
+  int getSampleInterval();
+
+  /**
+   * Returns the median latency of a step.
+   *
+   * @return the latency in nanoseconds
+   */
+  long getStepLatencyP50Nanos();
+
+  /**
+   * Returns the 99th percentile latency of a step.
+   *
+   * @return the latency in nanoseconds
+   */
+  long getStepLatencyP99Nanos();
+
+  /**
+   * Returns the median latency of an interaction.
+   *
+   * @return the latency in nanoseconds
+   */
+  long getInteractLatencyP50Nanos();
+
+  /**
+   * Returns the 99th percentile latency of an interaction.
+   *
+   * @return the latency in nanoseconds
+   */
+  long getInteractLatencyP99Nanos();
+
+  /**
+   * Returns the sampled step latencies in the LatencyHistogram buckets.
+   *
+   * @return the bucket counts
+   */
+  long[] getStepLatencyHistogram();
+
+  /**
+   * Returns the sampled interaction latencies in the LatencyHistogram buckets.
+   *
+   * @return the bucket counts
+   */
+  long[] getInteractLatencyHistogram();
+}
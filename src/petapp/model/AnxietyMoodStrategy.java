@@ -4,10 +4,11 @@ import java.util.Random;
 
 /**
  * Implementation of the MoodStrategy for an anxious pet.
+ * The strategy is stateless, the hug effect is kept by the pet.
  */
 public class AnxietyMoodStrategy implements MoodStrategy {
+  // Null means draw from the pet's own Random
   private final Random random;
-  private boolean hugApplied = false;
 
   /**
    * Default constructor that uses a standard Random instance.
@@ -19,7 +20,7 @@ public class AnxietyMoodStrategy implements MoodStrategy {
   /**
    * Test constructor that allows injecting a Random for testing.
    *
-   * @param random The Random instance to use
+   * @param random The Random instance to use, or null to use the pet's own Random
    */
   public AnxietyMoodStrategy(Random random) {
     this.random = random;
@@ -30,17 +31,19 @@ public class AnxietyMoodStrategy implements MoodStrategy {
     if (action == Action.HUG) {
       // HUG greatly decreases social need but doesn't affect other statuses
       pet.setSocial(Math.max(0, pet.getSocial() - 30));
-      hugApplied = true;
+      pet.setHugApplied(true);
       return;
     }
 
+    Random rng = randomFor(pet);
+
     int hunger = pet.getHunger();
     int social = pet.getSocial();
     int hygiene = pet.getHygiene();
     int sleep = pet.getSleep();
 
     // Generate a random ratio between -1.0 and 1.0 if hug hasn't been applied
-    float randomRatio = hugApplied ? 1.0f : (random.nextFloat() * 2.0f - 1.0f);
+    float randomRatio = pet.isHugApplied() ? 1.0f : (rng.nextFloat() * 2.0f - 1.0f);
 
     // Apply action with the random ratio based on happy values * 0.75
     switch (action) {
@@ -81,19 +84,21 @@ public class AnxietyMoodStrategy implements MoodStrategy {
     // Hunger increases by 7
     pet.setHunger(Math.min(100, pet.getHunger() + 7));
 
+    Random rng = randomFor(pet);
+
     // Social randomly changes within (-7, 7)
-    int socialChange = random.nextInt(15) - 7; // range from -7 to 7
+    int socialChange = rng.nextInt(15) - 7; // range from -7 to 7
     pet.setSocial(Math.max(0, Math.min(100, pet.getSocial() + socialChange)));
 
     // Hygiene increases by 3
     pet.setHygiene(Math.min(100, pet.getHygiene() + 3));
 
     // Sleep randomly changes within (-10, 10)
-    int sleepChange = random.nextInt(21) - 10; // range from -10 to 10
+    int sleepChange = rng.nextInt(21) - 10; // range from -10 to 10
     pet.setSleep(Math.max(0, Math.min(100, pet.getSleep() + sleepChange)));
 
     // Reset hug effect after each update
-    hugApplied = false;
+    pet.setHugApplied(false);
   }
 
   @Override
@@ -122,10 +127,7 @@ public class AnxietyMoodStrategy implements MoodStrategy {
     return MoodEnum.ANXIETY;
   }
 
-  /**
-   * For testing: get the hug applied status.
-   */
-  boolean isHugApplied() {
-    return hugApplied;
+  private Random randomFor(Pet pet) {
+    return random != null ? random : pet.getRandom();
   }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package petapp.model;
+
+/**
+ * A care policy decides how to look after a pet from its health status.
+ * It is consulted once per tick, before the pet steps.
+ */
+@FunctionalInterface
+public interface CarePolicy {
+  /**
+   * A policy that never interacts, the pet is left unattended.
+   */
+  CarePolicy UNATTENDED = status -> null;
+
+  /**
+   * Decides the action for this tick.
+   *
+   * @param status the current health status of the pet
+   * @return the action to perform before the pet steps, or null to only step
+   */
+  Action decide(HealthStatus status);
+
+  /**
+   * Decides the action for this tick from a packed state, see PetStates.
+   * Table driven policies override this to avoid creating a HealthStatus.
+   *
+   * @param state the packed state of the pet
+   * @return the action to perform before the pet steps, or null to only step
+   */
+  default Action decide(int state) {
+    return decide(PetStates.toHealth(state));
+  }
+}
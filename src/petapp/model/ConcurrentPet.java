@@ -0,0 +1,238 @@
+package petapp.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Lock-free pet that many threads can share.
+ * The whole pet is one long: the packed state of PetStates in the low 32 bits and the
+ * number of operations applied so far in the high 32 bits. step(), interactWith() and
+ * setMood() compute the next word from the one they read and publish it with a
+ * compare-and-swap, retrying if another thread got there first. Readers never block and
+ * every read decodes one word, so a HealthStatus is never torn.
+ * A retried transition must draw the same numbers it drew the first time, so instead of a
+ * stateful Random the draws of operation n come from a counter-based generator keyed by
+ * the seed and n. The outcomes have the same distribution as Pet but not the same sequence
+ * as new Random(seed).
+ * Listeners run on the thread whose compare-and-swap succeeded, so deltas from different
+ * threads can arrive out of order; each one is exact for its operation.
+ */
+public class ConcurrentPet implements PetInterface {
+  private static final VarHandle WORD;
+
+  static {
+    try {
+      WORD = MethodHandles.lookup().findVarHandle(ConcurrentPet.class, "word", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private static final VarHandle LISTENERS = PetListeners.handle(MethodHandles.lookup());
+
+  private static final long STATE_MASK = 0xFFFFFFFFL;
+  private static final long ONE_OPERATION = 1L << 32;
+
+  private final MoodRules rules;
+  private final long seed;
+
+  // Operation count in the high half, packed state in the low half
+  private volatile long word;
+
+  // Change listeners, null while there are none
+  private volatile PetListener[] listeners;
+
+  /**
+   * Creates a pet with the Pet() default values.
+   *
+   * @param seed the seed of the pet's random draws
+   */
+  public ConcurrentPet(long seed) {
+    this(seed, PetStates.DEFAULT, MoodRules.defaults());
+  }
+
+  /**
+   * Creates a pet from a packed state.
+   *
+   * @param seed the seed of the pet's random draws
+   * @param state the packed state
+   * @param rules the rules the pet lives by
+   */
+  public ConcurrentPet(long seed, int state, MoodRules rules) {
+    this.seed = seed;
+    this.rules = rules;
+    this.word = state & STATE_MASK;
+  }
+
+  /**
+   * Returns the packed state word of this pet.
+   *
+   * @return the packed state
+   */
+  public int getState() {
+    return (int) word;
+  }
+
+  /**
+   * Returns the number of operations applied to this pet. Operations on a dead pet are not
+   * counted, and the count wraps after 2^32 operations.
+   *
+   * @return the operation count
+   */
+  public long getOperations() {
+    return word >>> 32;
+  }
+
+  @Override
+  public void step() {
+    long current;
+    long next;
+    do {
+      current = word;
+      int state = (int) current;
+      if (PetStates.isDead(state)) {
+        return;
+      }
+      next = advance(current, rules.step(state, new Draws(seed, current >>> 32)));
+    } while (!WORD.compareAndSet(this, current, next));
+    notify(current, next);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException if the pet's mood does not allow the action
+   */
+  @Override
+  public void interactWith(Action action) {
+    long current;
+    long next;
+    do {
+      current = word;
+      int state = (int) current;
+      if (PetStates.isDead(state)) {
+        return;
+      }
+      next = advance(current, rules.interact(state, action, new Draws(seed, current >>> 32)));
+    } while (!WORD.compareAndSet(this, current, next));
+    notify(current, next);
+  }
+
+  /**
+   * Performs the actions as one atomic operation: other threads see the pet before all of
+   * the applied actions or after all of them. Each action still draws as its own operation.
+   */
+  @Override
+  public PetBatch applyBatch(List<Action> actions) {
+    long current;
+    long next;
+    int applied;
+    IllegalStateException rejection;
+    do {
+      current = word;
+      next = current;
+      applied = 0;
+      rejection = null;
+      try {
+        for (; applied < actions.size() && !PetStates.isDead((int) next); applied++) {
+          next = advance(next, rules.interact((int) next, actions.get(applied),
+              new Draws(seed, next >>> 32)));
+        }
+      } catch (IllegalStateException e) {
+        // The actions before the rejected one are applied
+        rejection = e;
+      }
+    } while (next != current && !WORD.compareAndSet(this, current, next));
+    if (next != current) {
+      notify(current, next);
+    }
+    return new PetBatch(new PetDelta((int) current, (int) next), applied, rejection);
+  }
+
+  @Override
+  public HealthStatus getHealth() {
+    return PetStates.toHealth((int) word);
+  }
+
+  @Override
+  public void setMood(MoodEnum mood) {
+    long current;
+    long next;
+    do {
+      current = word;
+      next = advance(current, PetStates.withMood((int) current, mood));
+    } while (!WORD.compareAndSet(this, current, next));
+    notify(current, next);
+  }
+
+  @Override
+  public MoodEnum getMood() {
+    return PetStates.mood((int) word);
+  }
+
+  @Override
+  public int getHunger() {
+    return PetStates.hunger((int) word);
+  }
+
+  @Override
+  public int getHygiene() {
+    return PetStates.hygiene((int) word);
+  }
+
+  @Override
+  public int getSocial() {
+    return PetStates.social((int) word);
+  }
+
+  @Override
+  public int getSleep() {
+    return PetStates.sleep((int) word);
+  }
+
+  @Override
+  public boolean isDead() {
+    return PetStates.isDead((int) word);
+  }
+
+  @Override
+  public void addListener(PetListener listener) {
+    PetListeners.add(LISTENERS, this, listener);
+  }
+
+  @Override
+  public void removeListener(PetListener listener) {
+    PetListeners.remove(LISTENERS, this, listener);
+  }
+
+  private void notify(long current, long next) {
+    PetListener[] notify = listeners;
+    if (notify != null) {
+      PetListeners.fire(notify, (int) current, (int) next);
+    }
+  }
+
+  private static long advance(long current, int state) {
+    return ((current & ~STATE_MASK) + ONE_OPERATION) | (state & STATE_MASK);
+  }
+
+  /**
+   * The random draws of one operation: a SplitMix64 stream keyed by the pet's seed and the
+   * operation number, so any thread computing that operation draws the same numbers.
+   */
+  static final class Draws implements RandomGenerator {
+    private final long key;
+    private long index;
+
+    Draws(long seed, long operation) {
+      this.key = PetRandom.streamSeed(seed, operation);
+    }
+
+    @Override
+    public long nextLong() {
+      return PetRandom.streamSeed(key, index++);
+    }
+  }
+}
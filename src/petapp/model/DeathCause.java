@@ -0,0 +1,17 @@
+package petapp.model;
+
+/**
+ * What a pet was doing when it died. Death always comes from hunger and sleep both passing
+ * the death threshold; the cause tells whether time or care pushed them there.
+ */
+public enum DeathCause {
+  /**
+   * The pet died while time passed, in a step.
+   */
+  NEGLECT,
+
+  /**
+   * The pet died from an interaction.
+   */
+  INTERACTION
+}
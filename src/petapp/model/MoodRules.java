@@ -0,0 +1,553 @@
+package petapp.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.random.RandomGenerator;
+
+/**
+ * Declarative mood rules compiled into dense lookup tables.
+ * The rules file holds per-mood action deltas, tick drift and mood modifier thresholds,
+ * see res/rules/default-mood.rules. step() and interact() evaluate the tables on packed
+ * states (see PetStates) without dispatching to a MoodStrategy, and give bit-identical
+ * results to the strategy classes under the default rules.
+ */
+public final class MoodRules {
+  /**
+   * Classpath location of the default rules.
+   */
+  public static final String DEFAULT_RESOURCE = "/rules/default-mood.rules";
+
+  private static final int STATS = 4;
+  private static final int MOODS = MoodEnum.values().length;
+  private static final int ACTIONS = Action.values().length;
+  private static final int ANXIETY = MoodEnum.ANXIETY.ordinal();
+
+  private static final MoodRules DEFAULTS = loadDefaults();
+
+  // [mood][action] whether the action is accepted, and whether it uses a random ratio
+  private final boolean[][] allowed = new boolean[MOODS][ACTIONS];
+  private final boolean[][] randomRatio = new boolean[MOODS][ACTIONS];
+
+  // [mood][action][stat] delta sign and scaled magnitude, so rounding keeps its direction
+  private final int[][][] deltaSign = new int[MOODS][ACTIONS][STATS];
+  private final float[][][] deltaScale = new float[MOODS][ACTIONS][STATS];
+
+  // [mood][stat] fixed drift and symmetric random range per tick
+  private final int[][] drift = new int[MOODS][STATS];
+  private final int[][] driftRange = new int[MOODS][STATS];
+
+  // [mood] modifier: +1 counts stats above, -1 below the threshold
+  private final int[] modifierDirection = new int[MOODS];
+  private final int[] modifierThreshold = new int[MOODS];
+  private final int[] modifierCount = new int[MOODS];
+  private final int[] modifierThen = new int[MOODS];
+  private final int[] modifierElse = new int[MOODS];
+
+  private final int anxietyChance;
+  private final int anxietyBadChance;
+  private final int anxietyThreshold;
+  private final int deathThreshold;
+
+  // [mood][action] distribution of action deltas, built on first use by forEachInteraction
+  private volatile RatioOutcomes[][] ratioOutcomes;
+
+  private MoodRules(Properties rules) {
+    for (MoodEnum mood : MoodEnum.values()) {
+      int m = mood.ordinal();
+      String prefix = mood.name().toLowerCase(Locale.ROOT);
+
+      float scale = Float.parseFloat(rules.getProperty(prefix + ".action.scale", "1"));
+      for (String name : words(rules.getProperty(prefix + ".action.random", ""))) {
+        randomRatio[m][Action.valueOf(name).ordinal()] = true;
+      }
+      for (Action action : Action.values()) {
+        int a = action.ordinal();
+        String key = prefix + ".action." + action.name();
+        if (rules.getProperty(key) == null) {
+          continue;
+        }
+        allowed[m][a] = true;
+        int[] deltas = stats(rules, key);
+        for (int s = 0; s < STATS; s++) {
+          deltaSign[m][a][s] = Integer.signum(deltas[s]);
+          deltaScale[m][a][s] = randomRatio[m][a] ? Math.abs(deltas[s]) * scale
+              : Math.abs(deltas[s]);
+        }
+      }
+
+      drift[m] = stats(rules, prefix + ".drift");
+      if (rules.getProperty(prefix + ".drift.random") != null) {
+        driftRange[m] = stats(rules, prefix + ".drift.random");
+      }
+
+      String[] modifier = words(required(rules, prefix + ".modifier"));
+      if (modifier.length != 5) {
+        throw new IllegalArgumentException("Malformed rule " + prefix + ".modifier");
+      }
+      modifierDirection[m] = switch (modifier[0]) {
+        case "above" -> 1;
+        case "below" -> -1;
+        default -> throw new IllegalArgumentException(
+            "Expected above or below in " + prefix + ".modifier: " + modifier[0]);
+      };
+      // The vector kernel compares stats as bytes, so the threshold must be a stat value
+      modifierThreshold[m] = inRange(modifier[1], 0, 100, prefix + ".modifier");
+      modifierCount[m] = inRange(modifier[2], 0, STATS, prefix + ".modifier");
+      modifierThen[m] = MoodEnum.valueOf(modifier[3]).ordinal();
+      modifierElse[m] = MoodEnum.valueOf(modifier[4]).ordinal();
+    }
+
+    anxietyChance = Integer.parseInt(required(rules, "anxiety.chance"));
+    anxietyBadChance = Integer.parseInt(required(rules, "anxiety.chance.bad"));
+    anxietyThreshold = Integer.parseInt(required(rules, "anxiety.chance.threshold"));
+    deathThreshold = Integer.parseInt(required(rules, "death.threshold"));
+  }
+
+  /**
+   * Returns the shipped default rules.
+   *
+   * @return the default rules
+   */
+  public static MoodRules defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * Loads rules from a file.
+   *
+   * @param path the rules file
+   * @return the compiled rules
+   * @throws IOException if the file cannot be read
+   */
+  public static MoodRules load(Path path) throws IOException {
+    try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      Properties rules = new Properties();
+      rules.load(reader);
+      return new MoodRules(rules);
+    }
+  }
+
+  /**
+   * Loads rules from a stream.
+   *
+   * @param in the rules stream, not closed
+   * @return the compiled rules
+   * @throws IOException if the stream cannot be read
+   */
+  public static MoodRules load(InputStream in) throws IOException {
+    Properties rules = new Properties();
+    rules.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+    return new MoodRules(rules);
+  }
+
+  private static MoodRules loadDefaults() {
+    try (InputStream in = MoodRules.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+      if (in == null) {
+        throw new IllegalStateException("Rules not found in resources: " + DEFAULT_RESOURCE);
+      }
+      return load(in);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error loading rules: " + e.getMessage(), e);
+    }
+  }
+
+  private static String required(Properties rules, String key) {
+    String value = rules.getProperty(key);
+    if (value == null) {
+      throw new IllegalArgumentException("Missing rule " + key);
+    }
+    return value;
+  }
+
+  private static int inRange(String value, int min, int max, String key) {
+    int result = Integer.parseInt(value);
+    if (result < min || result > max) {
+      throw new IllegalArgumentException("Expected " + min + " to " + max + " in rule " + key
+          + ": " + result);
+    }
+    return result;
+  }
+
+  private static int[] stats(Properties rules, String key) {
+    String[] values = words(required(rules, key));
+    if (values.length != STATS) {
+      throw new IllegalArgumentException("Expected " + STATS + " values for rule " + key);
+    }
+    int[] result = new int[STATS];
+    for (int s = 0; s < STATS; s++) {
+      result[s] = Integer.parseInt(values[s]);
+    }
+    return result;
+  }
+
+  private static String[] words(String value) {
+    String trimmed = value.trim();
+    return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s+");
+  }
+
+  /**
+   * Advances a pet by one unit of time.
+   *
+   * @param state the packed state
+   * @param random the random generator of the pet
+   * @return the new packed state
+   */
+  public int step(int state, RandomGenerator random) {
+    if (PetStates.isDead(state)) {
+      return state;
+    }
+
+    int mood = PetStates.moodOrdinal(state);
+    int[] fixed = drift[mood];
+    int[] range = driftRange[mood];
+
+    // Random draws happen in stat order, same as the strategies
+    int hungerChange = fixed[0] + draw(range[0], random);
+    int hygieneChange = fixed[1] + draw(range[1], random);
+    int socialChange = fixed[2] + draw(range[2], random);
+    int sleepChange = fixed[3] + draw(range[3], random);
+
+    int hunger = PetStates.clamp(PetStates.hunger(state) + hungerChange);
+    int hygiene = PetStates.clamp(PetStates.hygiene(state) + hygieneChange);
+    int social = PetStates.clamp(PetStates.social(state) + socialChange);
+    int sleep = PetStates.clamp(PetStates.sleep(state) + sleepChange);
+
+    return settle(hunger, hygiene, social, sleep, mood, random);
+  }
+
+  /**
+   * A pet receives an interaction.
+   *
+   * @param state the packed state
+   * @param action the action to perform
+   * @param random the random generator of the pet
+   * @return the new packed state
+   */
+  public int interact(int state, Action action, RandomGenerator random) {
+    if (PetStates.isDead(state)) {
+      return state;
+    }
+
+    int mood = PetStates.moodOrdinal(state);
+    int a = action.ordinal();
+    if (!allowed[mood][a]) {
+      throw new IllegalStateException("Unexpected value: " + action);
+    }
+
+    int[] sign = deltaSign[mood][a];
+    float[] scale = deltaScale[mood][a];
+    float ratio = randomRatio[mood][a] ? random.nextFloat() * 2.0f - 1.0f : 1.0f;
+
+    int hunger = PetStates.clamp(PetStates.hunger(state) + scaled(sign[0], scale[0], ratio));
+    int hygiene = PetStates.clamp(PetStates.hygiene(state) + scaled(sign[1], scale[1], ratio));
+    int social = PetStates.clamp(PetStates.social(state) + scaled(sign[2], scale[2], ratio));
+    int sleep = PetStates.clamp(PetStates.sleep(state) + scaled(sign[3], scale[3], ratio));
+
+    return settle(hunger, hygiene, social, sleep, mood, random);
+  }
+
+  /**
+   * Receives the possible outcomes of a tick.
+   */
+  @FunctionalInterface
+  public interface TransitionSink {
+    /**
+     * Accepts one outcome. The same state may be passed more than once.
+     *
+     * @param state the packed state after the tick
+     * @param probability the probability of this outcome
+     */
+    void accept(int state, double probability);
+  }
+
+  /**
+   * Enumerates every outcome of step() from a state with its exact probability,
+   * covering all values of the random drift and the anxiety check.
+   *
+   * @param state the packed state
+   * @param sink receives each outcome, probabilities sum to 1
+   */
+  public void forEachTransition(int state, TransitionSink sink) {
+    if (PetStates.isDead(state)) {
+      sink.accept(state, 1.0);
+      return;
+    }
+
+    int mood = PetStates.moodOrdinal(state);
+    int[] fixed = drift[mood];
+    int[] range = driftRange[mood];
+    double weight = 1.0 / ((2 * range[0] + 1) * (2 * range[1] + 1)
+        * (2 * range[2] + 1) * (2 * range[3] + 1));
+
+    for (int dh = -range[0]; dh <= range[0]; dh++) {
+      int hunger = PetStates.clamp(PetStates.hunger(state) + fixed[0] + dh);
+      for (int dy = -range[1]; dy <= range[1]; dy++) {
+        int hygiene = PetStates.clamp(PetStates.hygiene(state) + fixed[1] + dy);
+        for (int dc = -range[2]; dc <= range[2]; dc++) {
+          int social = PetStates.clamp(PetStates.social(state) + fixed[2] + dc);
+          for (int ds = -range[3]; ds <= range[3]; ds++) {
+            int sleep = PetStates.clamp(PetStates.sleep(state) + fixed[3] + ds);
+            settle(hunger, hygiene, social, sleep, mood, weight, sink);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Enumerates every outcome of interact() from a state with its exact probability,
+   * covering all values of the random action ratio and the anxiety check.
+   *
+   * @param state the packed state
+   * @param action the action to perform
+   * @param sink receives each outcome, probabilities sum to 1
+   * @throws IllegalStateException if the mood of the state does not accept the action
+   */
+  public void forEachInteraction(int state, Action action, TransitionSink sink) {
+    if (PetStates.isDead(state)) {
+      sink.accept(state, 1.0);
+      return;
+    }
+
+    int mood = PetStates.moodOrdinal(state);
+    int a = action.ordinal();
+    if (!allowed[mood][a]) {
+      throw new IllegalStateException("Unexpected value: " + action);
+    }
+
+    RatioOutcomes outcomes = ratioOutcomes(mood, a);
+    for (int k = 0; k < outcomes.probability.length; k++) {
+      int[] delta = outcomes.delta[k];
+      settle(PetStates.clamp(PetStates.hunger(state) + delta[0]),
+          PetStates.clamp(PetStates.hygiene(state) + delta[1]),
+          PetStates.clamp(PetStates.social(state) + delta[2]),
+          PetStates.clamp(PetStates.sleep(state) + delta[3]),
+          mood, outcomes.probability[k], sink);
+    }
+  }
+
+  /**
+   * Whether a mood accepts an action, interact() throws for the others.
+   *
+   * @param mood the mood
+   * @param action the action
+   * @return true if the action is accepted
+   */
+  public boolean allows(MoodEnum mood, Action action) {
+    return allowed[mood.ordinal()][action.ordinal()];
+  }
+
+  /**
+   * Returns the stat values at which some rule starts to apply, that is, where a mood
+   * modifier, the anxiety chance or the death check differs from the value just below.
+   * Grouping stats into ranges that start at these values keeps every rule decision exact.
+   *
+   * @return the sorted distinct values between 1 and 100
+   */
+  public int[] thresholdEdges() {
+    TreeSet<Integer> edges = new TreeSet<>();
+    for (int m = 0; m < MOODS; m++) {
+      edges.add(modifierDirection[m] > 0 ? modifierThreshold[m] + 1 : modifierThreshold[m]);
+    }
+    edges.add(anxietyThreshold + 1);
+    edges.add(deathThreshold + 1);
+    return edges.stream().mapToInt(Integer::intValue).filter(v -> v >= 1 && v <= 100).toArray();
+  }
+
+  /**
+   * Passes the outcomes of the mood modifier and the anxiety check to a sink.
+   */
+  private void settle(int hunger, int hygiene, int social, int sleep, int mood,
+                      double probability, TransitionSink sink) {
+    int newMood = modify(hunger, hygiene, social, sleep, mood);
+    boolean dead = isFatal(hunger, sleep);
+
+    int chance = newMood == ANXIETY ? 0 : anxietyChance(hunger, sleep);
+    if (chance > 0) {
+      sink.accept(PetStates.pack(hunger, hygiene, social, sleep, ANXIETY, dead),
+          probability * chance / 100);
+    }
+    if (chance < 100) {
+      sink.accept(PetStates.pack(hunger, hygiene, social, sleep, newMood, dead),
+          probability * (100 - chance) / 100);
+    }
+  }
+
+  /**
+   * The distinct stat deltas of an action and their probabilities.
+   */
+  private record RatioOutcomes(int[][] delta, double[] probability) {
+  }
+
+  private RatioOutcomes ratioOutcomes(int mood, int action) {
+    RatioOutcomes[][] cached = ratioOutcomes;
+    if (cached == null) {
+      synchronized (this) {
+        cached = ratioOutcomes;
+        if (cached == null) {
+          cached = new RatioOutcomes[MOODS][ACTIONS];
+          for (int m = 0; m < MOODS; m++) {
+            for (int a = 0; a < ACTIONS; a++) {
+              if (allowed[m][a]) {
+                cached[m][a] = computeRatioOutcomes(m, a);
+              }
+            }
+          }
+          ratioOutcomes = cached;
+        }
+      }
+    }
+    return cached[mood][action];
+  }
+
+  /**
+   * Scans every value nextFloat() can return and groups the ratios that round to the same
+   * deltas. The deltas only change a few times over the range, so there are few groups.
+   */
+  private RatioOutcomes computeRatioOutcomes(int mood, int action) {
+    int[] sign = deltaSign[mood][action];
+    float[] scale = deltaScale[mood][action];
+    if (!randomRatio[mood][action]) {
+      int[] delta = new int[STATS];
+      for (int s = 0; s < STATS; s++) {
+        delta[s] = scaled(sign[s], scale[s], 1.0f);
+      }
+      return new RatioOutcomes(new int[][]{delta}, new double[]{1.0});
+    }
+
+    // nextFloat() returns one of 2^24 equally likely values k / 2^24
+    int values = 1 << 24;
+    List<int[]> deltas = new ArrayList<>();
+    List<Double> probabilities = new ArrayList<>();
+    int[] delta = new int[STATS];
+    int runStart = 0;
+    for (int k = 0; k < values; k++) {
+      float ratio = k / ((float) values) * 2.0f - 1.0f;
+      boolean changed = k == 0;
+      for (int s = 0; s < STATS; s++) {
+        int value = scaled(sign[s], scale[s], ratio);
+        changed |= value != delta[s];
+        delta[s] = value;
+      }
+      if (changed) {
+        if (k > 0) {
+          probabilities.add((double) (k - runStart) / values);
+        }
+        deltas.add(delta.clone());
+        runStart = k;
+      }
+    }
+    probabilities.add((double) (values - runStart) / values);
+
+    double[] probability = new double[probabilities.size()];
+    for (int i = 0; i < probability.length; i++) {
+      probability[i] = probabilities.get(i);
+    }
+    return new RatioOutcomes(deltas.toArray(new int[0][]), probability);
+  }
+
+  /**
+   * Applies the mood modifier of the given mood, then the anxiety and death checks.
+   */
+  private int settle(int hunger, int hygiene, int social, int sleep, int mood,
+                     RandomGenerator random) {
+    return finish(hunger, hygiene, social, sleep, modify(hunger, hygiene, social, sleep, mood),
+        random);
+  }
+
+  /**
+   * Returns the mood picked by the mood modifier of the given mood.
+   */
+  private int modify(int hunger, int hygiene, int social, int sleep, int mood) {
+    // Count stats past the threshold without branching, the sign bit is 1 when past it
+    int direction = modifierDirection[mood];
+    int threshold = modifierThreshold[mood];
+    int count = (((threshold - hunger) * direction) >>> 31)
+        + (((threshold - hygiene) * direction) >>> 31)
+        + (((threshold - social) * direction) >>> 31)
+        + (((threshold - sleep) * direction) >>> 31);
+    int reached = (modifierCount[mood] - 1 - count) >>> 31;
+    return modifierElse[mood] + reached * (modifierThen[mood] - modifierElse[mood]);
+  }
+
+  /**
+   * Applies the anxiety and death checks after the mood modifier picked the new mood.
+   */
+  int finish(int hunger, int hygiene, int social, int sleep, int newMood,
+             RandomGenerator random) {
+    // Random chance to become anxious if not already
+    if (newMood != ANXIETY && random.nextInt(100) < anxietyChance(hunger, sleep)) {
+      newMood = ANXIETY;
+    }
+
+    return PetStates.pack(hunger, hygiene, social, sleep, newMood, isFatal(hunger, sleep));
+  }
+
+  private int anxietyChance(int hunger, int sleep) {
+    return hunger > anxietyThreshold && sleep > anxietyThreshold
+        ? anxietyBadChance : anxietyChance;
+  }
+
+  private boolean isFatal(int hunger, int sleep) {
+    // Pet dies if both hunger and sleep are critically high
+    return hunger > deathThreshold && sleep > deathThreshold;
+  }
+
+  // Accessors for tick kernels, which apply the deterministic part of a tick in bulk
+
+  /**
+   * Whether the tick of a mood has no random part and its drift fits byte lanes, so
+   * 100 plus the drift never overflows a signed byte.
+   */
+  boolean isDeterministic(int mood) {
+    for (int s = 0; s < STATS; s++) {
+      if (driftRange[mood][s] != 0 || Math.abs(drift[mood][s]) > Byte.MAX_VALUE - 100) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  int drift(int mood, int stat) {
+    return drift[mood][stat];
+  }
+
+  boolean modifierCountsAbove(int mood) {
+    return modifierDirection[mood] > 0;
+  }
+
+  int modifierThreshold(int mood) {
+    return modifierThreshold[mood];
+  }
+
+  int modifierCount(int mood) {
+    return modifierCount[mood];
+  }
+
+  int modifierThen(int mood) {
+    return modifierThen[mood];
+  }
+
+  int modifierElse(int mood) {
+    return modifierElse[mood];
+  }
+
+  private static int scaled(int sign, float scale, float ratio) {
+    return sign * Math.round(scale * ratio);
+  }
+
+  private static int draw(int range, RandomGenerator random) {
+    return range == 0 ? 0 : random.nextInt(2 * range + 1) - range;
+  }
+}
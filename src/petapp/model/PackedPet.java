@@ -0,0 +1,143 @@
+package petapp.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Pet whose whole state is one packed 32-bit word in a PackedPetStore.
+ * Behaves exactly like Pet, see PetStates for the encoding.
+ * The listeners of a view hear about the changes made through that view, not those made
+ * through other views of the same pet or by the store's bulk operations.
+ */
+public class PackedPet implements PetInterface {
+  private static final VarHandle LISTENERS = PetListeners.handle(MethodHandles.lookup());
+
+  private final PackedPetStore store;
+  private final long index;
+
+  // Random number generator for the anxiety strategy and check
+  private final RandomGenerator random;
+
+  // Change listeners, null while there are none
+  private volatile PetListener[] listeners;
+
+  /**
+   * Creates a view of a pet in a store.
+   *
+   * @param store the store holding the state
+   * @param index the pet index in the store
+   * @param random the random generator of the pet
+   */
+  PackedPet(PackedPetStore store, long index, RandomGenerator random) {
+    this.store = store;
+    this.index = index;
+    this.random = random;
+  }
+
+  /**
+   * Returns the packed state word of this pet.
+   *
+   * @return the packed state
+   */
+  public int getState() {
+    return store.get(index);
+  }
+
+  @Override
+  public void step() {
+    int before = store.get(index);
+    update(before, PetStates.step(before, random));
+  }
+
+  @Override
+  public void interactWith(Action action) {
+    int before = store.get(index);
+    update(before, PetStates.interact(before, action, random));
+  }
+
+  /**
+   * Performs the actions in one pass, notifying the listeners once for all of them, also
+   * when an action the mood does not allow ends the sequence early.
+   */
+  @Override
+  public PetBatch applyBatch(List<Action> actions) {
+    int before = store.get(index);
+    int state = before;
+    int applied = 0;
+    IllegalStateException rejection = null;
+    for (; applied < actions.size() && !PetStates.isDead(state); applied++) {
+      try {
+        state = PetStates.interact(state, actions.get(applied), random);
+      } catch (IllegalStateException e) {
+        rejection = e;
+        break;
+      }
+    }
+    update(before, state);
+    return new PetBatch(new PetDelta(before, state), applied, rejection);
+  }
+
+  @Override
+  public HealthStatus getHealth() {
+    return PetStates.toHealth(store.get(index));
+  }
+
+  @Override
+  public void setMood(MoodEnum mood) {
+    int before = store.get(index);
+    update(before, PetStates.withMood(before, mood));
+  }
+
+  @Override
+  public MoodEnum getMood() {
+    return PetStates.mood(store.get(index));
+  }
+
+  @Override
+  public int getHunger() {
+    return PetStates.hunger(store.get(index));
+  }
+
+  @Override
+  public int getHygiene() {
+    return PetStates.hygiene(store.get(index));
+  }
+
+  @Override
+  public int getSocial() {
+    return PetStates.social(store.get(index));
+  }
+
+  @Override
+  public int getSleep() {
+    return PetStates.sleep(store.get(index));
+  }
+
+  @Override
+  public boolean isDead() {
+    return PetStates.isDead(store.get(index));
+  }
+
+  @Override
+  public void addListener(PetListener listener) {
+    PetListeners.add(LISTENERS, this, listener);
+  }
+
+  @Override
+  public void removeListener(PetListener listener) {
+    PetListeners.remove(LISTENERS, this, listener);
+  }
+
+  /**
+   * Stores the new state and notifies the listeners of the change.
+   */
+  private void update(int before, int after) {
+    store.set(index, after);
+    PetListener[] notify = listeners;
+    if (notify != null) {
+      PetListeners.fire(notify, before, after);
+    }
+  }
+}
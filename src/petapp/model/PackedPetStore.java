@@ -0,0 +1,195 @@
+package petapp.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.random.RandomGenerator;
+
+/**
+ * Off-heap storage of packed pet states, one 32-bit word per pet (see PetStates).
+ * The words live in direct or memory-mapped buffers, so 100M+ pets cost no heap and put
+ * no pressure on the garbage collector. Buffers are split into chunks because a single
+ * buffer is limited to 2 GB.
+ */
+public final class PackedPetStore {
+  /**
+   * Bytes used by one pet.
+   */
+  public static final int BYTES_PER_PET = Integer.BYTES;
+
+  // 64M pets (256 MB) per chunk
+  private static final int CHUNK_SHIFT = 26;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private final IntBuffer[] chunks;
+  private final long size;
+
+  // The mapped buffers under the chunks, null for an allocated store
+  private final MappedByteBuffer[] mapped;
+
+  private PackedPetStore(IntBuffer[] chunks, long size, MappedByteBuffer[] mapped) {
+    this.chunks = chunks;
+    this.size = size;
+    this.mapped = mapped;
+  }
+
+  /**
+   * Allocates an off-heap store where every pet starts with the Pet() default values.
+   *
+   * @param size the number of pets
+   * @return the new store
+   */
+  public static PackedPetStore allocate(long size) {
+    IntBuffer[] chunks = new IntBuffer[chunkCount(size)];
+    for (int i = 0; i < chunks.length; i++) {
+      int length = chunkLength(size, i);
+      chunks[i] = ByteBuffer.allocateDirect(length * BYTES_PER_PET)
+          .order(ByteOrder.nativeOrder())
+          .asIntBuffer();
+    }
+    PackedPetStore store = new PackedPetStore(chunks, size, null);
+    store.fill(PetStates.DEFAULT);
+    return store;
+  }
+
+  /**
+   * Maps a region of a file as a store. Changes to the pets are written to the file.
+   * The region holds little-endian words and is not initialized.
+   *
+   * @param channel the file channel, opened for reading and, for READ_WRITE, writing
+   * @param mode the map mode
+   * @param offset the file position of the first pet
+   * @param size the number of pets
+   * @return the mapped store
+   * @throws IOException if the region cannot be mapped
+   */
+  public static PackedPetStore map(FileChannel channel, FileChannel.MapMode mode,
+                                   long offset, long size) throws IOException {
+    IntBuffer[] chunks = new IntBuffer[chunkCount(size)];
+    MappedByteBuffer[] mapped = new MappedByteBuffer[chunks.length];
+    for (int i = 0; i < chunks.length; i++) {
+      long position = offset + ((long) i << CHUNK_SHIFT) * BYTES_PER_PET;
+      int length = chunkLength(size, i);
+      mapped[i] = channel.map(mode, position, (long) length * BYTES_PER_PET);
+      chunks[i] = mapped[i].order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+    return new PackedPetStore(chunks, size, mapped);
+  }
+
+  /**
+   * Writes the changes made to a READ_WRITE mapped store to the storage device holding the
+   * file. FileChannel.force() does not cover changes made through a mapping. Does nothing
+   * for an allocated store, or a store mapped in another mode.
+   */
+  public void force() {
+    if (mapped != null) {
+      for (MappedByteBuffer chunk : mapped) {
+        chunk.force();
+      }
+    }
+  }
+
+  private static int chunkCount(long size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Negative store size: " + size);
+    }
+    return (int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT);
+  }
+
+  private static int chunkLength(long size, int chunk) {
+    return (int) Math.min(CHUNK_SIZE, size - ((long) chunk << CHUNK_SHIFT));
+  }
+
+  /**
+   * Returns the number of pets in the store.
+   *
+   * @return the store size
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Returns the packed state of a pet.
+   *
+   * @param index the pet index
+   * @return the packed state
+   */
+  public int get(long index) {
+    checkIndex(index);
+    return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+  }
+
+  /**
+   * Replaces the packed state of a pet.
+   *
+   * @param index the pet index
+   * @param state the packed state
+   */
+  public void set(long index, int state) {
+    checkIndex(index);
+    chunks[(int) (index >>> CHUNK_SHIFT)].put((int) (index & CHUNK_MASK), state);
+  }
+
+  /**
+   * Sets every pet to the given packed state.
+   *
+   * @param state the packed state
+   */
+  public void fill(int state) {
+    for (IntBuffer chunk : chunks) {
+      for (int i = 0, n = chunk.capacity(); i < n; i++) {
+        chunk.put(i, state);
+      }
+    }
+  }
+
+  /**
+   * Copies every pet of another store of the same size into this one, in bulk.
+   *
+   * @param other the store to copy from
+   */
+  public void copyFrom(PackedPetStore other) {
+    if (other.size != size) {
+      throw new IllegalArgumentException("Store sizes differ: " + other.size + " and " + size);
+    }
+    for (int i = 0; i < chunks.length; i++) {
+      chunks[i].put(0, other.chunks[i], 0, chunks[i].capacity());
+    }
+  }
+
+  /**
+   * Advances every pet by one unit of time, in index order.
+   *
+   * @param random the random generator shared by all pets
+   */
+  public void stepAll(RandomGenerator random) {
+    for (IntBuffer chunk : chunks) {
+      for (int i = 0, n = chunk.capacity(); i < n; i++) {
+        chunk.put(i, PetStates.step(chunk.get(i), random));
+      }
+    }
+  }
+
+  /**
+   * Returns a PetInterface view of one pet in this store.
+   *
+   * @param index the pet index
+   * @param random the random generator of the pet
+   * @return the pet view
+   */
+  public PackedPet pet(long index, RandomGenerator random) {
+    checkIndex(index);
+    return new PackedPet(this, index, random);
+  }
+
+  private void checkIndex(long index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Pet index " + index + " out of " + size);
+    }
+  }
+}
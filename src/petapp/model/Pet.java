@@ -1,12 +1,35 @@
 package petapp.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
 import java.util.Random;
+import petapp.jfr.PetFlight;
+import petapp.jfr.PetInteractionEvent;
+import petapp.jfr.PetStepEvent;
 
 /**
  * Main Pet class implementing the PetInterface.
  * This class represents a virtual pet with various needs and moods.
+ * step(), interactWith(), apply() and setMood() notify the listeners with one delta each;
+ * the stat setters are for the mood strategies and tests and do not. The same operations
+ * record Flight Recorder events, see PetFlight.
  */
 public class Pet implements PetInterface {
+  // Shared stateless strategies, per-pet state such as the hug effect lives in the pet
+  private static final MoodStrategy HAPPY_STRATEGY = new HappyMoodStrategy();
+  private static final MoodStrategy SAD_STRATEGY = new SadMoodStrategy();
+  private static final MoodStrategy ANXIETY_STRATEGY = new AnxietyMoodStrategy(null);
+
+  // Stat thresholds for the mood modifier and anxiety chance, and for death
+  private static final int PROBLEM_THRESHOLD = 60;
+  private static final int DEATH_THRESHOLD = 95;
+
+  // Tick drift of the calm moods, the default rules mirror the Happy and Sad strategies
+  private static final MoodRules CALM_RULES = MoodRules.defaults();
+
+  private static final VarHandle LISTENERS = PetListeners.handle(MethodHandles.lookup());
+
   // Health status fields, representing different need.
   // All between 0-100 and the lower, the better.
   private int hunger;
@@ -21,9 +44,15 @@ public class Pet implements PetInterface {
   // Strategy pattern for mood-based behavior
   private MoodStrategy moodStrategy;
 
+  // Whether a hug calmed the anxious pet since the last mood assignment or update
+  private boolean hugApplied;
+
   // Random number generator for anxiety check
   private final Random random;
 
+  // Change listeners, null while there are none
+  private volatile PetListener[] listeners;
+
   /**
    * Default constructor that initializes the pet with default values.
    */
@@ -47,7 +76,25 @@ public class Pet implements PetInterface {
     this.random = random;
 
     // Default to happy mood strategy
-    this.moodStrategy = new HappyMoodStrategy();
+    this.moodStrategy = HAPPY_STRATEGY;
+  }
+
+  /**
+   * Restores a pet from a saved health status. Together with the state of the Random this
+   * is the whole state of a pet between operations, since the hug effect never outlives
+   * the interaction that applied it.
+   *
+   * @param random The Random instance to use
+   * @param status The status to restore
+   */
+  public Pet(Random random, HealthStatus status) {
+    this(random);
+    this.hunger = clamp(status.hunger());
+    this.hygiene = clamp(status.hygiene());
+    this.social = clamp(status.social());
+    this.sleep = clamp(status.sleep());
+    applyMood(status.mood());
+    this.dead = status.dead();
   }
 
   /**
@@ -64,6 +111,21 @@ public class Pet implements PetInterface {
    */
   @Override
   public void step() {
+    // A dead pet does not advance, so there is nothing to publish or record
+    if (dead) {
+      return;
+    }
+    PetListener[] notify = listeners;
+    boolean observed = notify != null || PetFlight.isRecording(PetFlight.STEP);
+    PetStepEvent event = observed ? PetFlight.beginStep() : null;
+    int before = observed ? state() : 0;
+    stepOnce();
+    if (observed) {
+      stepped(notify, event, 1, before);
+    }
+  }
+
+  private void stepOnce() {
     if (dead) {
       return;
     }
@@ -73,7 +135,7 @@ public class Pet implements PetInterface {
 
     // Check and update mood
     MoodEnum newMood = moodStrategy.moodModifier(this);
-    setMood(newMood);
+    applyMood(newMood);
 
     // Random chance to become anxious if not already
     checkAnxiety();
@@ -82,6 +144,126 @@ public class Pet implements PetInterface {
     checkDeath();
   }
 
+  /**
+   * Advances the pet by the given number of ticks, with the same outcome distribution as
+   * calling step() that many times. In HAPPY and SAD the drift is fixed, so the stats move
+   * in closed form until one of them crosses a threshold, and the anxiety trigger in that
+   * stretch is a single geometric draw. Anxious ticks are random and run one at a time.
+   * Listeners get one delta for all the ticks.
+   *
+   * @param ticks the number of ticks to advance
+   * @return the number of ticks advanced, fewer than asked if the pet died or was dead
+   */
+  @Override
+  public long step(long ticks) {
+    PetListener[] notify = listeners;
+    boolean observed = notify != null || PetFlight.isRecording(PetFlight.STEP);
+    PetStepEvent event = observed ? PetFlight.beginStep() : null;
+    int before = observed ? state() : 0;
+    long remaining = ticks;
+    while (remaining > 0 && !dead) {
+      long skipped = moodStrategy == HAPPY_STRATEGY || moodStrategy == SAD_STRATEGY
+          ? skipCalm(remaining) : 0;
+      if (skipped == 0) {
+        stepOnce();
+        skipped = 1;
+      }
+      remaining -= skipped;
+    }
+    long stepped = ticks - remaining;
+    if (observed && stepped > 0) {
+      stepped(notify, event, stepped, before);
+    }
+    return stepped;
+  }
+
+  /**
+   * Notifies the listeners and records the Flight Recorder events of a step.
+   */
+  private void stepped(PetListener[] notify, PetStepEvent event, long ticks, int before) {
+    int after = state();
+    if (notify != null) {
+      PetListeners.fire(notify, before, after);
+    }
+    PetFlight.stepped(event, PetFlight.MODEL, ticks, before, after);
+    PetFlight.changed(before, after, DeathCause.NEGLECT);
+  }
+
+  /**
+   * Skips calm ticks while the mood, anxiety chance and death check cannot change.
+   *
+   * @param limit the maximum number of ticks to skip
+   * @return the number of ticks skipped, 0 if the next tick has to be stepped normally
+   */
+  private long skipCalm(long limit) {
+    // The mood keeps its drift only if the modifier already agrees with it
+    if (moodStrategy.moodModifier(this) != mood || isDying()) {
+      return 0;
+    }
+
+    int m = mood.ordinal();
+    int hungerDrift = CALM_RULES.drift(m, 0);
+    int hygieneDrift = CALM_RULES.drift(m, 1);
+    int socialDrift = CALM_RULES.drift(m, 2);
+    int sleepDrift = CALM_RULES.drift(m, 3);
+
+    // The first tick where a stat crosses a threshold is stepped normally
+    long quiet = Math.min(crossing(hunger, hungerDrift, PROBLEM_THRESHOLD),
+        crossing(hygiene, hygieneDrift, PROBLEM_THRESHOLD));
+    quiet = Math.min(quiet, crossing(social, socialDrift, PROBLEM_THRESHOLD));
+    quiet = Math.min(quiet, crossing(sleep, sleepDrift, PROBLEM_THRESHOLD));
+    quiet = Math.min(quiet, crossing(hunger, hungerDrift, DEATH_THRESHOLD));
+    quiet = Math.min(quiet, crossing(sleep, sleepDrift, DEATH_THRESHOLD));
+    long skip = Math.min(limit, quiet - 1);
+    if (skip <= 0) {
+      return 0;
+    }
+
+    // Ticks until the anxiety check first succeeds, the chance is constant in this stretch
+    long trigger = geometric(anxietyChance());
+    boolean anxious = trigger <= skip;
+    if (anxious) {
+      skip = trigger;
+    }
+
+    setHunger(drifted(hunger, hungerDrift, skip));
+    setHygiene(drifted(hygiene, hygieneDrift, skip));
+    setSocial(drifted(social, socialDrift, skip));
+    setSleep(drifted(sleep, sleepDrift, skip));
+    applyMood(anxious ? MoodEnum.ANXIETY : mood);
+    return skip;
+  }
+
+  /**
+   * Returns the first tick at which value > threshold changes under a fixed drift,
+   * or Long.MAX_VALUE if it never does. Clamping to 0-100 never crosses a threshold back.
+   */
+  private static long crossing(int value, int drift, int threshold) {
+    if (value > threshold) {
+      return drift < 0 ? (value - threshold - drift - 1) / -drift : Long.MAX_VALUE;
+    }
+    return drift > 0 ? (threshold - value) / drift + 1 : Long.MAX_VALUE;
+  }
+
+  private static int drifted(int value, int drift, long ticks) {
+    return (int) Math.max(0, Math.min(100, value + drift * ticks));
+  }
+
+  /**
+   * Draws the number of the first successful trial, each succeeding with chance percent.
+   */
+  private long geometric(int chance) {
+    if (chance <= 0) {
+      return Long.MAX_VALUE;
+    }
+    if (chance >= 100) {
+      return 1;
+    }
+    double u = 1.0 - random.nextDouble();
+    double trials = Math.floor(Math.log(u) / Math.log1p(-chance / 100.0)) + 1;
+    return trials >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) trials;
+  }
+
   /**
    * The pet receives an interaction which affects its health status.
    */
@@ -90,13 +272,61 @@ public class Pet implements PetInterface {
     if (dead) {
       return;
     }
+    PetListener[] notify = listeners;
+    int before = notify != null ? state() : 0;
+    interactRecorded(action);
+    if (notify != null) {
+      PetListeners.fire(notify, before, state());
+    }
+  }
+
+  /**
+   * Performs the actions in one pass, notifying the listeners once for all of them, also
+   * when an action the mood does not allow ends the sequence early.
+   */
+  @Override
+  public PetBatch applyBatch(List<Action> actions) {
+    PetListener[] notify = listeners;
+    int before = state();
+    int applied = 0;
+    IllegalStateException rejection = null;
+    for (; applied < actions.size() && !dead; applied++) {
+      try {
+        interactRecorded(actions.get(applied));
+      } catch (IllegalStateException e) {
+        rejection = e;
+        break;
+      }
+    }
+    if (notify != null) {
+      PetListeners.fire(notify, before, state());
+    }
+    return new PetBatch(new PetDelta(before, state()), applied, rejection);
+  }
+
+  /**
+   * Interacts once and records the Flight Recorder events of the interaction.
+   */
+  private void interactRecorded(Action action) {
+    if (!PetFlight.isRecording(PetFlight.INTERACTION)) {
+      interactOnce(action);
+      return;
+    }
+    PetInteractionEvent event = PetFlight.beginInteraction();
+    int before = state();
+    interactOnce(action);
+    int after = state();
+    PetFlight.interacted(event, PetFlight.MODEL, action, before, after);
+    PetFlight.changed(before, after, DeathCause.INTERACTION);
+  }
 
+  private void interactOnce(Action action) {
     // Apply the action based on current mood strategy
     moodStrategy.applyAction(this, action);
 
     // Check and update mood after interaction
     MoodEnum newMood = moodStrategy.moodModifier(this);
-    setMood(newMood);
+    applyMood(newMood);
 
     // Random chance to become anxious if not already
     checkAnxiety();
@@ -118,18 +348,36 @@ public class Pet implements PetInterface {
    */
   @Override
   public void setMood(MoodEnum mood) {
+    PetListener[] notify = listeners;
+    boolean observed = notify != null || PetFlight.isRecording(null);
+    int before = observed ? state() : 0;
+    applyMood(mood);
+    if (observed) {
+      int after = state();
+      if (notify != null) {
+        PetListeners.fire(notify, before, after);
+      }
+      // Setting the mood never kills, so there is no cause
+      PetFlight.changed(before, after, null);
+    }
+  }
+
+  private void applyMood(MoodEnum mood) {
     this.mood = mood;
 
-    // Update strategy based on mood
+    // A mood assignment starts from a fresh strategy state
+    this.hugApplied = false;
+
+    // Update strategy based on mood, strategies are shared and never allocated here
     switch (mood) {
       case HAPPY:
-        this.moodStrategy = new HappyMoodStrategy();
+        this.moodStrategy = HAPPY_STRATEGY;
         break;
       case SAD:
-        this.moodStrategy = new SadMoodStrategy();
+        this.moodStrategy = SAD_STRATEGY;
         break;
       case ANXIETY:
-        this.moodStrategy = new AnxietyMoodStrategy(random);
+        this.moodStrategy = ANXIETY_STRATEGY;
         break;
       default:
         throw new IllegalStateException("Unexpected mood: " + mood);
@@ -149,64 +397,117 @@ public class Pet implements PetInterface {
    */
   private void checkDeath() {
     // Pet dies if both hunger and sleep are critically high
-    if (hunger > 95 && sleep > 95) {
+    if (isDying()) {
       dead = true;
     }
   }
 
+  private boolean isDying() {
+    return hunger > DEATH_THRESHOLD && sleep > DEATH_THRESHOLD;
+  }
+
   /**
    * Checks if the pet should become anxious based on its current status.
    */
   private void checkAnxiety() {
     // Only check if not already anxious
     if (mood != MoodEnum.ANXIETY) {
-      boolean badCondition = hunger > 60 && sleep > 60;
-      int maxProbability = badCondition ? 50 : 20;
-
       // Random chance based on condition
-      if (random.nextInt(100) < maxProbability) {
-        setMood(MoodEnum.ANXIETY);
+      if (random.nextInt(100) < anxietyChance()) {
+        applyMood(MoodEnum.ANXIETY);
       }
     }
   }
 
+  /**
+   * Returns the percent chance per check of becoming anxious.
+   */
+  private int anxietyChance() {
+    boolean badCondition = hunger > PROBLEM_THRESHOLD && sleep > PROBLEM_THRESHOLD;
+    return badCondition ? 50 : 20;
+  }
+
+  /**
+   * Clamps a health stat to its 0-100 range.
+   */
+  private static int clamp(int value) {
+    return Math.max(0, Math.min(100, value));
+  }
+
   // Getter and setter methods for health status fields
+  @Override
   public int getHunger() {
     return hunger;
   }
 
   public void setHunger(int hunger) {
-    this.hunger = Math.max(0, Math.min(100, hunger));
+    this.hunger = clamp(hunger);
   }
 
+  @Override
   public int getHygiene() {
     return hygiene;
   }
 
   public void setHygiene(int hygiene) {
-    this.hygiene = Math.max(0, Math.min(100, hygiene));
+    this.hygiene = clamp(hygiene);
   }
 
+  @Override
   public int getSocial() {
     return social;
   }
 
   public void setSocial(int social) {
-    this.social = Math.max(0, Math.min(100, social));
+    this.social = clamp(social);
   }
 
+  @Override
   public int getSleep() {
     return sleep;
   }
 
   public void setSleep(int sleep) {
-    this.sleep = Math.max(0, Math.min(100, sleep));
+    this.sleep = clamp(sleep);
   }
 
+  @Override
   public boolean isDead() {
     return dead;
   }
 
+  @Override
+  public void addListener(PetListener listener) {
+    PetListeners.add(LISTENERS, this, listener);
+  }
+
+  @Override
+  public void removeListener(PetListener listener) {
+    PetListeners.remove(LISTENERS, this, listener);
+  }
+
+  /**
+   * Returns the packed PetStates word of the current state.
+   */
+  private int state() {
+    return PetStates.pack(hunger, hygiene, social, sleep, mood.ordinal(), dead);
+  }
+
+  /**
+   * Returns the Random used by this pet, shared strategies draw from it.
+   */
+  Random getRandom() {
+    return random;
+  }
+
+  boolean isHugApplied() {
+    return hugApplied;
+  }
+
+  void setHugApplied(boolean hugApplied) {
+    this.hugApplied = hugApplied;
+  }
+
   /**
    * Get the current mood strategy (for testing).
    * @return return the current mood strategy.
@@ -0,0 +1,13 @@
+package petapp.model;
+
+/**
+ * The outcome of a sequence of actions: the change they made, how many of them were
+ * applied, and the rejection that ended the sequence early, if the mood did not allow an
+ * action when it came to it.
+ *
+ * @param delta the change made by the applied actions
+ * @param applied the number of actions applied, from the start of the sequence
+ * @param rejection the exception rejecting the next action, or null if none was rejected
+ */
+public record PetBatch(PetDelta delta, int applied, IllegalStateException rejection) {
+}
@@ -0,0 +1,94 @@
+package petapp.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The change one or more operations made to a pet, as the packed PetStates words before
+ * and after. Consecutive deltas of a pet merge into one, so a listener can coalesce all
+ * the changes of a tick and report them once.
+ *
+ * @param before the packed state before the change
+ * @param after the packed state after the change
+ */
+public record PetDelta(int before, int after) {
+  private static final Stat[] STATS = Stat.values();
+
+  /**
+   * Returns the health status before the change.
+   *
+   * @return the old health status
+   */
+  public HealthStatus oldHealth() {
+    return PetStates.toHealth(before);
+  }
+
+  /**
+   * Returns the health status after the change.
+   *
+   * @return the new health status
+   */
+  public HealthStatus newHealth() {
+    return PetStates.toHealth(after);
+  }
+
+  /**
+   * Returns how much a stat changed, positive when it got worse.
+   *
+   * @param stat the stat
+   * @return the new value minus the old one
+   */
+  public int change(Stat stat) {
+    return stat.of(after) - stat.of(before);
+  }
+
+  /**
+   * Returns whether the mood changed.
+   *
+   * @return true if the mood differs
+   */
+  public boolean moodChanged() {
+    return PetStates.moodOrdinal(before) != PetStates.moodOrdinal(after);
+  }
+
+  /**
+   * Returns whether the pet died in this change.
+   *
+   * @return true if the pet was alive before and is dead after
+   */
+  public boolean died() {
+    return !PetStates.isDead(before) && PetStates.isDead(after);
+  }
+
+  /**
+   * Returns this change followed by the next one as a single delta.
+   *
+   * @param next the change that followed this one
+   * @return the merged delta
+   */
+  public PetDelta merge(PetDelta next) {
+    return new PetDelta(before, next.after);
+  }
+
+  /**
+   * Returns the typed events of this change: the stats that changed in stat order, then
+   * the mood change and the death, if any.
+   *
+   * @return the events
+   */
+  public List<PetEvent> events() {
+    List<PetEvent> events = new ArrayList<>();
+    for (Stat stat : STATS) {
+      if (stat.of(before) != stat.of(after)) {
+        events.add(new PetEvent.StatChanged(stat, stat.of(before), stat.of(after)));
+      }
+    }
+    if (moodChanged()) {
+      events.add(new PetEvent.MoodChanged(PetStates.mood(before), PetStates.mood(after)));
+    }
+    if (died()) {
+      events.add(new PetEvent.Died());
+    }
+    return events;
+  }
+}
@@ -0,0 +1,32 @@
+package petapp.model;
+
+/**
+ * A typed change of a pet, see PetDelta.events().
+ */
+public sealed interface PetEvent {
+
+  /**
+   * A stat changed.
+   *
+   * @param stat the stat
+   * @param oldValue the value before
+   * @param newValue the value after
+   */
+  record StatChanged(Stat stat, int oldValue, int newValue) implements PetEvent {
+  }
+
+  /**
+   * The mood changed.
+   *
+   * @param oldMood the mood before
+   * @param newMood the mood after
+   */
+  record MoodChanged(MoodEnum oldMood, MoodEnum newMood) implements PetEvent {
+  }
+
+  /**
+   * The pet died.
+   */
+  record Died() implements PetEvent {
+  }
+}
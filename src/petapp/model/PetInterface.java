@@ -1,5 +1,8 @@
 package petapp.model;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Official pet interface.
  */
@@ -7,11 +10,105 @@ package petapp.model;
 public interface PetInterface {
   void step();
 
+  /**
+   * Advances the pet by the given number of ticks, same as calling step() that many times.
+   * Stops early once the pet is dead.
+   *
+   * @param ticks the number of ticks to advance
+   * @return the number of ticks advanced, fewer than asked if the pet died or was dead
+   */
+  default long step(long ticks) {
+    long t = 0;
+    for (; t < ticks && !isDead(); t++) {
+      step();
+    }
+    return t;
+  }
+
   void interactWith(Action action);
 
+  /**
+   * Performs an action several times, same as calling interactWith() that many times.
+   * Stops early once the pet is dead. Does nothing if times is zero or negative.
+   *
+   * @param action the action to perform
+   * @param times the number of times
+   * @return the change made by all the interactions together
+   * @throws IllegalStateException if the pet's mood does not allow the action when it
+   *     comes to it, the interactions before have been applied
+   */
+  default PetDelta interactWith(Action action, int times) {
+    return apply(Collections.nCopies(Math.max(0, times), action));
+  }
+
+  /**
+   * Performs a sequence of actions, same as calling interactWith() with each in turn.
+   * Stops early once the pet is dead.
+   *
+   * @param actions the actions to perform in order
+   * @return the change made by all the interactions together
+   * @throws IllegalStateException if the pet's mood does not allow an action when it comes
+   *     to it, the interactions before have been applied
+   */
+  default PetDelta apply(List<Action> actions) {
+    PetBatch batch = applyBatch(actions);
+    if (batch.rejection() != null) {
+      throw batch.rejection();
+    }
+    return batch.delta();
+  }
+
+  /**
+   * Performs a sequence of actions like apply(), reporting how many of them were applied
+   * instead of throwing when the mood does not allow one.
+   *
+   * @param actions the actions to perform in order
+   * @return the change made, the number of actions applied and the rejection, if any
+   */
+  default PetBatch applyBatch(List<Action> actions) {
+    int before = PetStates.pack(getHealth());
+    int applied = 0;
+    IllegalStateException rejection = null;
+    for (; applied < actions.size() && !isDead(); applied++) {
+      try {
+        interactWith(actions.get(applied));
+      } catch (IllegalStateException e) {
+        rejection = e;
+        break;
+      }
+    }
+    return new PetBatch(new PetDelta(before, PetStates.pack(getHealth())), applied, rejection);
+  }
+
   HealthStatus getHealth();
 
   void setMood(MoodEnum mood);
 
   MoodEnum getMood();
+
+  // Primitive reads that do not allocate a HealthStatus
+  int getHunger();
+
+  int getHygiene();
+
+  int getSocial();
+
+  int getSleep();
+
+  boolean isDead();
+
+  /**
+   * Registers a listener called with a PetDelta after each operation that changed the
+   * pet. Registration is lock-free and may happen on any thread.
+   *
+   * @param listener the listener
+   */
+  void addListener(PetListener listener);
+
+  /**
+   * Unregisters a listener.
+   *
+   * @param listener the listener
+   */
+  void removeListener(PetListener listener);
 }
@@ -0,0 +1,14 @@
+package petapp.model;
+
+/**
+ * Receives the changes of a pet, see PetInterface.addListener().
+ */
+@FunctionalInterface
+public interface PetListener {
+  /**
+   * Called after an operation changed the pet, on the thread that ran it.
+   *
+   * @param delta the change
+   */
+  void onChange(PetDelta delta);
+}
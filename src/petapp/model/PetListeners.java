@@ -0,0 +1,72 @@
+package petapp.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Lock-free copy-on-write listener arrays for pets.
+ * A pet keeps its listeners in a volatile array field that stays null until the first
+ * registration, so a pet nobody listens to pays one field read per operation and
+ * allocates nothing. Registrations replace the array with a compare-and-swap.
+ */
+final class PetListeners {
+
+  private PetListeners() {
+  }
+
+  /**
+   * Adds a listener to the array field of an owner.
+   */
+  static void add(VarHandle field, Object owner, PetListener listener) {
+    PetListener[] current;
+    PetListener[] next;
+    do {
+      current = (PetListener[]) field.getVolatile(owner);
+      next = current == null ? new PetListener[1] : Arrays.copyOf(current, current.length + 1);
+      next[next.length - 1] = listener;
+    } while (!field.compareAndSet(owner, current, next));
+  }
+
+  /**
+   * Removes a listener from the array field of an owner, if it is there.
+   */
+  static void remove(VarHandle field, Object owner, PetListener listener) {
+    PetListener[] current;
+    PetListener[] next;
+    do {
+      current = (PetListener[]) field.getVolatile(owner);
+      int index = current == null ? -1 : Arrays.asList(current).indexOf(listener);
+      if (index < 0) {
+        return;
+      }
+      next = new PetListener[current.length - 1];
+      System.arraycopy(current, 0, next, 0, index);
+      System.arraycopy(current, index + 1, next, index, next.length - index);
+    } while (!field.compareAndSet(owner, current, next.length == 0 ? null : next));
+  }
+
+  /**
+   * Tells the listeners about a change, if anything changed.
+   */
+  static void fire(PetListener[] listeners, int before, int after) {
+    if (before == after) {
+      return;
+    }
+    PetDelta delta = new PetDelta(before, after);
+    for (PetListener listener : listeners) {
+      listener.onChange(delta);
+    }
+  }
+
+  /**
+   * Returns the VarHandle of a pet class's listener array field named listeners.
+   */
+  static VarHandle handle(MethodHandles.Lookup lookup) {
+    try {
+      return lookup.findVarHandle(lookup.lookupClass(), "listeners", PetListener[].class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+}
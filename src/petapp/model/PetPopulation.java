@@ -0,0 +1,398 @@
+package petapp.model;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Struct-of-arrays engine for simulating a large number of pets.
+ * Every pet is a column index into parallel primitive arrays instead of a Pet object with its
+ * own strategy, so a pet costs 6 bytes of heap. stepAll() and interact() follow exactly the
+ * semantics of Pet.step() and Pet.interactWith(), including the anxiety and death checks.
+ * A population either shares one Random, or gives each pet its own PetRandom stream so that
+ * disjoint ranges can be stepped on different threads with identical results.
+ */
+public class PetPopulation {
+  private static final byte HAPPY = (byte) MoodEnum.HAPPY.ordinal();
+  private static final MoodEnum[] MOODS = MoodEnum.values();
+
+  // Pets handed to the tick kernel at a time, small enough to stay in cache
+  private static final int CHUNK = 4096;
+
+  private final int size;
+
+  // Health status columns, all between 0-100 and the lower, the better.
+  private final byte[] hunger;
+  private final byte[] hygiene;
+  private final byte[] social;
+  private final byte[] sleep;
+
+  // Mood ordinal and death state columns
+  private final byte[] mood;
+  private final boolean[] dead;
+  private final TickKernel.Columns columns;
+
+  // Shared random number generator, consumed in index order like a list of Pets sharing it.
+  // With per-pet streams it is the cursor used for single pet operations.
+  private final Random random;
+
+  // Per-pet PetRandom states, or null when all pets share the random generator
+  private final long[] streams;
+
+  // Compiled mood rules evaluated for every pet
+  private final MoodRules rules;
+
+  /**
+   * Creates a population where every pet starts with the Pet() default values.
+   *
+   * @param size the number of pets
+   */
+  public PetPopulation(int size) {
+    this(size, new Random());
+  }
+
+  /**
+   * Test constructor that allows injecting a Random for testing.
+   *
+   * @param size the number of pets
+   * @param random The Random instance to use
+   */
+  public PetPopulation(int size, Random random) {
+    this(size, random, MoodRules.defaults());
+  }
+
+  /**
+   * Creates a population that evaluates the given mood rules.
+   *
+   * @param size the number of pets
+   * @param random The Random instance to use
+   * @param rules the mood rules
+   */
+  public PetPopulation(int size, Random random, MoodRules rules) {
+    this(size, random, null, rules);
+  }
+
+  private PetPopulation(int size, Random random, long[] streams, MoodRules rules) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Negative population size: " + size);
+    }
+    this.size = size;
+    this.hunger = new byte[size];
+    this.hygiene = new byte[size];
+    this.social = new byte[size];
+    this.sleep = new byte[size];
+    this.mood = new byte[size];
+    this.dead = new boolean[size];
+    this.columns = new TickKernel.Columns(hunger, hygiene, social, sleep, mood, dead);
+    this.random = random;
+    this.streams = streams;
+    this.rules = rules;
+
+    // Initialize with default values from document, same as Pet()
+    Arrays.fill(hunger, (byte) 20);
+    Arrays.fill(hygiene, (byte) 60);
+    Arrays.fill(social, (byte) 60);
+    Arrays.fill(sleep, (byte) 15);
+    Arrays.fill(mood, HAPPY);
+  }
+
+  /**
+   * Creates a population where each pet has its own random stream derived from the seed.
+   * Pet i draws the same sequence as new Random(PetRandom.streamSeed(seed, i)).
+   *
+   * @param size the number of pets
+   * @param seed the population seed
+   * @return the new population
+   */
+  public static PetPopulation withStreams(int size, long seed) {
+    return withStreams(size, seed, MoodRules.defaults());
+  }
+
+  /**
+   * Creates a population with per-pet random streams that evaluates the given mood rules.
+   *
+   * @param size the number of pets
+   * @param seed the population seed
+   * @param rules the mood rules
+   * @return the new population
+   */
+  public static PetPopulation withStreams(int size, long seed, MoodRules rules) {
+    long[] streams = new long[Math.max(0, size)];
+    for (int i = 0; i < streams.length; i++) {
+      streams[i] = PetRandom.initialState(PetRandom.streamSeed(seed, i));
+    }
+    return new PetPopulation(size, new PetRandom(0), streams, rules);
+  }
+
+  /**
+   * Returns the number of pets in the population.
+   *
+   * @return the population size
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Advances every pet by one unit of time, in index order, using the best tick kernel.
+   */
+  public void stepAll() {
+    stepAll(TickKernel.best());
+  }
+
+  /**
+   * Advances every pet by one unit of time, in index order, using the given tick kernel.
+   * All kernels give the same result.
+   *
+   * @param kernel the kernel for the deterministic part of the tick
+   */
+  public void stepAll(TickKernel kernel) {
+    if (streams != null) {
+      stepRange(0, size, kernel);
+      return;
+    }
+    byte[] before = new byte[CHUNK];
+    for (int from = 0; from < size; from += CHUNK) {
+      stepChunk(from, Math.min(size, from + CHUNK), kernel, null, before);
+    }
+  }
+
+  /**
+   * Advances the pets in [from, to) by one unit of time using their own random streams.
+   * Disjoint ranges may be stepped concurrently, the result does not depend on the split.
+   *
+   * @param from the first pet index, inclusive
+   * @param to the last pet index, exclusive
+   * @throws IllegalStateException if the pets share one random generator
+   */
+  public void stepRange(int from, int to) {
+    stepRange(from, to, TickKernel.best());
+  }
+
+  /**
+   * Advances the pets in [from, to) by one unit of time using their own random streams
+   * and the given tick kernel.
+   *
+   * @param from the first pet index, inclusive
+   * @param to the last pet index, exclusive
+   * @param kernel the kernel for the deterministic part of the tick
+   * @throws IllegalStateException if the pets share one random generator
+   */
+  public void stepRange(int from, int to, TickKernel kernel) {
+    if (streams == null) {
+      throw new IllegalStateException("Population has no per-pet random streams");
+    }
+    PetRandom cursor = new PetRandom(0);
+    byte[] before = new byte[CHUNK];
+    for (int start = from; start < to; start += CHUNK) {
+      stepChunk(start, Math.min(to, start + CHUNK), kernel, cursor, before);
+    }
+  }
+
+  /**
+   * Steps a chunk: the kernel applies the deterministic drift and mood modifier in bulk,
+   * then the random parts run per pet in index order so the draws match Pet.step().
+   */
+  private void stepChunk(int from, int to, TickKernel kernel, PetRandom cursor, byte[] before) {
+    System.arraycopy(mood, from, before, 0, to - from);
+    kernel.drift(columns, from, to, rules);
+
+    for (int i = from; i < to; i++) {
+      if (dead[i]) {
+        continue;
+      }
+      Random source = random;
+      if (cursor != null) {
+        cursor.setState(streams[i]);
+        source = cursor;
+      }
+
+      if (rules.isDeterministic(before[i - from])) {
+        // Drift and mood modifier are done, only the anxiety and death checks are left
+        store(i, rules.finish(hunger[i], hygiene[i], social[i], sleep[i], mood[i], source));
+      } else {
+        store(i, rules.step(load(i), source));
+      }
+
+      if (cursor != null) {
+        streams[i] = cursor.getState();
+      }
+    }
+  }
+
+  /**
+   * Advances a single pet by one unit of time, same as Pet.step().
+   *
+   * @param index the pet index
+   */
+  public void step(int index) {
+    if (streams != null) {
+      step(index, (PetRandom) random);
+    } else if (!dead[index]) {
+      store(index, rules.step(load(index), random));
+    }
+  }
+
+  private void step(int index, PetRandom cursor) {
+    if (dead[index]) {
+      return;
+    }
+    cursor.setState(streams[index]);
+    store(index, rules.step(load(index), cursor));
+    streams[index] = cursor.getState();
+  }
+
+  /**
+   * Lets a care policy act once on each live pet in [from, to) using their own random
+   * streams, same as Pet.interactWith() with the decided action. Disjoint ranges may be
+   * handled concurrently.
+   *
+   * @param from the first pet index, inclusive
+   * @param to the last pet index, exclusive
+   * @param policy the care policy, asked with the packed state of each pet
+   * @throws IllegalStateException if the pets share one random generator
+   */
+  public void careRange(int from, int to, CarePolicy policy) {
+    if (streams == null) {
+      throw new IllegalStateException("Population has no per-pet random streams");
+    }
+    PetRandom cursor = new PetRandom(0);
+    for (int i = from; i < to; i++) {
+      if (dead[i]) {
+        continue;
+      }
+      int state = load(i);
+      Action action = policy.decide(state);
+      if (action != null) {
+        cursor.setState(streams[i]);
+        store(i, rules.interact(state, action, cursor));
+        streams[i] = cursor.getState();
+      }
+    }
+  }
+
+  /**
+   * The pet at the given index receives an interaction, same as Pet.interactWith().
+   *
+   * @param index the pet index
+   * @param action the action to perform
+   */
+  public void interact(int index, Action action) {
+    if (dead[index]) {
+      return;
+    }
+    if (streams == null) {
+      store(index, rules.interact(load(index), action, random));
+      return;
+    }
+    PetRandom cursor = (PetRandom) random;
+    cursor.setState(streams[index]);
+    store(index, rules.interact(load(index), action, cursor));
+    streams[index] = cursor.getState();
+  }
+
+  /**
+   * Gathers the columns of a pet into a packed state for the rules evaluator.
+   */
+  private int load(int index) {
+    return PetStates.pack(hunger[index], hygiene[index], social[index], sleep[index],
+        mood[index], dead[index]);
+  }
+
+  /**
+   * Scatters a packed state back into the columns of a pet.
+   */
+  private void store(int index, int state) {
+    hunger[index] = (byte) PetStates.hunger(state);
+    hygiene[index] = (byte) PetStates.hygiene(state);
+    social[index] = (byte) PetStates.social(state);
+    sleep[index] = (byte) PetStates.sleep(state);
+    mood[index] = (byte) PetStates.moodOrdinal(state);
+    dead[index] = PetStates.isDead(state);
+  }
+
+  private static byte clamp(int value) {
+    return (byte) PetStates.clamp(value);
+  }
+
+  /**
+   * Returns an instance of HealthStatus for the pet at the given index.
+   *
+   * @param index the pet index
+   * @return the health status of that pet
+   */
+  public HealthStatus getHealth(int index) {
+    return new HealthStatus(getMood(index), dead[index],
+        hunger[index], hygiene[index], social[index], sleep[index]);
+  }
+
+  /**
+   * Returns the packed state of the pet at the given index, see PetStates.
+   *
+   * @param index the pet index
+   * @return the packed state
+   */
+  public int getState(int index) {
+    return load(index);
+  }
+
+  /**
+   * Replaces the whole state of the pet at the given index with a packed state.
+   *
+   * @param index the pet index
+   * @param state the packed state
+   */
+  public void setState(int index, int state) {
+    store(index, state);
+  }
+
+  /**
+   * Allows the pet's mood to be set manually, same as Pet.setMood().
+   *
+   * @param index the pet index
+   * @param mood the mood to set
+   */
+  public void setMood(int index, MoodEnum mood) {
+    this.mood[index] = (byte) mood.ordinal();
+  }
+
+  public MoodEnum getMood(int index) {
+    return MOODS[mood[index]];
+  }
+
+  // Getter and setter methods for health status columns
+  public int getHunger(int index) {
+    return hunger[index];
+  }
+
+  public void setHunger(int index, int value) {
+    hunger[index] = clamp(value);
+  }
+
+  public int getHygiene(int index) {
+    return hygiene[index];
+  }
+
+  public void setHygiene(int index, int value) {
+    hygiene[index] = clamp(value);
+  }
+
+  public int getSocial(int index) {
+    return social[index];
+  }
+
+  public void setSocial(int index, int value) {
+    social[index] = clamp(value);
+  }
+
+  public int getSleep(int index) {
+    return sleep[index];
+  }
+
+  public void setSleep(int index, int value) {
+    sleep[index] = clamp(value);
+  }
+
+  public boolean isDead(int index) {
+    return dead[index];
+  }
+}
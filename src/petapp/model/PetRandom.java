@@ -0,0 +1,91 @@
+package petapp.model;
+
+import java.util.Random;
+
+/**
+ * A Random with the same sequence as java.util.Random whose state can be read and restored.
+ * A pet using PetRandom(seed) behaves exactly like one using new Random(seed), and the state
+ * can be kept in a primitive array, checkpointed or moved to another thread.
+ */
+public class PetRandom extends Random {
+  private static final long serialVersionUID = 1L;
+
+  private static final long MULTIPLIER = 0x5DEECE66DL;
+  private static final long ADDEND = 0xBL;
+  private static final long MASK = (1L << 48) - 1;
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  // Not initialized here, the superclass constructor sets it through setSeed()
+  private long state;
+
+  /**
+   * Creates a generator with a random seed.
+   */
+  public PetRandom() {
+    super();
+  }
+
+  /**
+   * Creates a generator with the same sequence as new Random(seed).
+   *
+   * @param seed the initial seed
+   */
+  public PetRandom(long seed) {
+    super(seed);
+  }
+
+  /**
+   * Derives the seed of the stream of one pet in a population, so each pet gets its own
+   * independent stream no matter how the population is split across threads.
+   *
+   * @param seed the population seed
+   * @param index the pet index
+   * @return the seed of that pet's stream
+   */
+  public static long streamSeed(long seed, long index) {
+    // SplitMix64 finalizer over the index-th step of the golden gamma sequence
+    long z = seed + (index + 1) * GOLDEN_GAMMA;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Returns the scrambled 48-bit state for a seed, same as new Random(seed) uses.
+   *
+   * @param seed the seed
+   * @return the internal state
+   */
+  public static long initialState(long seed) {
+    return (seed ^ MULTIPLIER) & MASK;
+  }
+
+  @Override
+  public synchronized void setSeed(long seed) {
+    state = initialState(seed);
+  }
+
+  @Override
+  protected int next(int bits) {
+    state = (state * MULTIPLIER + ADDEND) & MASK;
+    return (int) (state >>> (48 - bits));
+  }
+
+  /**
+   * Returns the internal 48-bit state.
+   *
+   * @return the state
+   */
+  public long getState() {
+    return state;
+  }
+
+  /**
+   * Restores an internal state previously returned by getState().
+   *
+   * @param state the state
+   */
+  public void setState(long state) {
+    this.state = state & MASK;
+  }
+}
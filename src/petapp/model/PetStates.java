@@ -0,0 +1,148 @@
+package petapp.model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Packed 32-bit encoding of a whole pet and the state transitions on it.
+ * Each stat fits in 7 bits and mood plus dead in 3 more:
+ * bits 0-6 hunger, 7-13 hygiene, 14-20 social, 21-27 sleep, 28-29 mood, 30 dead.
+ * step() and interact() follow exactly the semantics of Pet.step() and Pet.interactWith().
+ */
+public final class PetStates {
+  private static final int STAT_BITS = 7;
+  private static final int STAT_MASK = (1 << STAT_BITS) - 1;
+  private static final int HUNGER_SHIFT = 0;
+  private static final int HYGIENE_SHIFT = 7;
+  private static final int SOCIAL_SHIFT = 14;
+  private static final int SLEEP_SHIFT = 21;
+  private static final int MOOD_SHIFT = 28;
+  private static final int MOOD_MASK = 0x3;
+  private static final int DEAD_BIT = 1 << 30;
+
+  private static final MoodEnum[] MOODS = MoodEnum.values();
+
+  /**
+   * The state of a new pet, same as the Pet() default values.
+   */
+  public static final int DEFAULT = pack(20, 60, 60, 15, MoodEnum.HAPPY, false);
+
+  private PetStates() {
+  }
+
+  /**
+   * Packs the health status fields into one state word, clamping stats to 0-100.
+   *
+   * @param hunger the hunger level
+   * @param hygiene the hygiene level
+   * @param social the social level
+   * @param sleep the sleep level
+   * @param mood the mood
+   * @param dead whether the pet is dead
+   * @return the packed state
+   */
+  public static int pack(int hunger, int hygiene, int social, int sleep,
+                         MoodEnum mood, boolean dead) {
+    return pack(clamp(hunger), clamp(hygiene), clamp(social), clamp(sleep),
+        mood.ordinal(), dead);
+  }
+
+  static int pack(int hunger, int hygiene, int social, int sleep, int mood, boolean dead) {
+    return hunger << HUNGER_SHIFT
+        | hygiene << HYGIENE_SHIFT
+        | social << SOCIAL_SHIFT
+        | sleep << SLEEP_SHIFT
+        | mood << MOOD_SHIFT
+        | (dead ? DEAD_BIT : 0);
+  }
+
+  /**
+   * Packs a HealthStatus into one state word.
+   *
+   * @param health the health status
+   * @return the packed state
+   */
+  public static int pack(HealthStatus health) {
+    return pack(health.hunger(), health.hygiene(), health.social(), health.sleep(),
+        health.mood(), health.dead());
+  }
+
+  /**
+   * Unpacks a state word into a HealthStatus.
+   *
+   * @param state the packed state
+   * @return the health status
+   */
+  public static HealthStatus toHealth(int state) {
+    return new HealthStatus(mood(state), isDead(state),
+        hunger(state), hygiene(state), social(state), sleep(state));
+  }
+
+  public static int hunger(int state) {
+    return (state >>> HUNGER_SHIFT) & STAT_MASK;
+  }
+
+  public static int hygiene(int state) {
+    return (state >>> HYGIENE_SHIFT) & STAT_MASK;
+  }
+
+  public static int social(int state) {
+    return (state >>> SOCIAL_SHIFT) & STAT_MASK;
+  }
+
+  public static int sleep(int state) {
+    return (state >>> SLEEP_SHIFT) & STAT_MASK;
+  }
+
+  public static MoodEnum mood(int state) {
+    return MOODS[moodOrdinal(state)];
+  }
+
+  static int moodOrdinal(int state) {
+    return (state >>> MOOD_SHIFT) & MOOD_MASK;
+  }
+
+  public static boolean isDead(int state) {
+    return (state & DEAD_BIT) != 0;
+  }
+
+  /**
+   * Returns the state with its mood replaced, same as Pet.setMood().
+   *
+   * @param state the packed state
+   * @param mood the mood to set
+   * @return the new packed state
+   */
+  public static int withMood(int state, MoodEnum mood) {
+    return (state & ~(MOOD_MASK << MOOD_SHIFT)) | mood.ordinal() << MOOD_SHIFT;
+  }
+
+  /**
+   * Advances a pet by one unit of time under the default rules, same as Pet.step().
+   *
+   * @param state the packed state
+   * @param random the random generator of the pet
+   * @return the new packed state
+   */
+  public static int step(int state, RandomGenerator random) {
+    return MoodRules.defaults().step(state, random);
+  }
+
+  /**
+   * A pet receives an interaction under the default rules, same as Pet.interactWith().
+   *
+   * @param state the packed state
+   * @param action the action to perform
+   * @param random the random generator of the pet
+   * @return the new packed state
+   */
+  public static int interact(int state, Action action, RandomGenerator random) {
+    return MoodRules.defaults().interact(state, action, random);
+  }
+
+  /**
+   * Saturates a stat to 0-100, same as the clamping in the Pet setters.
+   */
+  static int clamp(int value) {
+    return Math.max(0, Math.min(100, value));
+  }
+}
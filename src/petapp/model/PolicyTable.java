@@ -0,0 +1,108 @@
+package petapp.model;
+
+/**
+ * A care policy stored as a lookup table with one decision byte per bucketed state.
+ * Each stat value maps to a bucket of neighbouring values, and the buckets of the four
+ * stats and the mood index the table, so a decision is a few array reads.
+ */
+public final class PolicyTable implements CarePolicy {
+  private static final Action[] ACTIONS = Action.values();
+  private static final int MOODS = MoodEnum.values().length;
+
+  /**
+   * Decision byte for a tick without an action, action decisions are 1 + Action.ordinal().
+   */
+  public static final byte STEP = 0;
+
+  // Bucket of each stat value 0-100
+  private final byte[] bucketOf;
+  private final int buckets;
+  private final byte[] decisions;
+
+  /**
+   * Creates a table.
+   *
+   * @param bucketOf the bucket of each stat value 0-100, buckets are numbered from 0
+   * @param decisions one decision per state index, see index()
+   */
+  public PolicyTable(byte[] bucketOf, byte[] decisions) {
+    if (bucketOf.length != 101) {
+      throw new IllegalArgumentException("Expected 101 stat buckets, got " + bucketOf.length);
+    }
+    this.bucketOf = bucketOf.clone();
+    this.buckets = bucketOf[100] + 1;
+    if (decisions.length != size(buckets)) {
+      throw new IllegalArgumentException(
+          "Expected " + size(buckets) + " decisions, got " + decisions.length);
+    }
+    this.decisions = decisions.clone();
+  }
+
+  /**
+   * Returns the number of state indexes for a number of buckets per stat.
+   *
+   * @param buckets the number of buckets per stat
+   * @return the table size
+   */
+  public static int size(int buckets) {
+    return MOODS * buckets * buckets * buckets * buckets;
+  }
+
+  /**
+   * Returns the state index of a table with the given buckets per stat.
+   *
+   * @param mood the mood ordinal
+   * @param hunger the hunger bucket
+   * @param hygiene the hygiene bucket
+   * @param social the social bucket
+   * @param sleep the sleep bucket
+   * @param buckets the number of buckets per stat
+   * @return the state index
+   */
+  public static int index(int mood, int hunger, int hygiene, int social, int sleep,
+                          int buckets) {
+    return (((mood * buckets + hunger) * buckets + hygiene) * buckets + social) * buckets
+        + sleep;
+  }
+
+  /**
+   * Returns the index of a packed state.
+   *
+   * @param state the packed state
+   * @return the state index
+   */
+  public int index(int state) {
+    return index(PetStates.moodOrdinal(state), bucketOf[PetStates.hunger(state)],
+        bucketOf[PetStates.hygiene(state)], bucketOf[PetStates.social(state)],
+        bucketOf[PetStates.sleep(state)], buckets);
+  }
+
+  public int buckets() {
+    return buckets;
+  }
+
+  @Override
+  public Action decide(int state) {
+    if (PetStates.isDead(state)) {
+      return null;
+    }
+    int decision = decisions[index(state)];
+    return decision == STEP ? null : ACTIONS[decision - 1];
+  }
+
+  @Override
+  public Action decide(HealthStatus status) {
+    return decide(PetStates.pack(status));
+  }
+
+  /**
+   * Decides for a pet from its primitive reads, without creating a HealthStatus.
+   *
+   * @param pet the pet
+   * @return the action to perform before the pet steps, or null to only step
+   */
+  public Action decide(PetInterface pet) {
+    return decide(PetStates.pack(pet.getHunger(), pet.getHygiene(), pet.getSocial(),
+        pet.getSleep(), pet.getMood(), pet.isDead()));
+  }
+}
@@ -0,0 +1,48 @@
+package petapp.model;
+
+/**
+ * Scalar TickKernel, the reference the vector kernel must match.
+ */
+final class ScalarTickKernel implements TickKernel {
+  static final ScalarTickKernel INSTANCE = new ScalarTickKernel();
+
+  private ScalarTickKernel() {
+  }
+
+  @Override
+  public void drift(Columns columns, int from, int to, MoodRules rules) {
+    byte[] hunger = columns.hunger();
+    byte[] hygiene = columns.hygiene();
+    byte[] social = columns.social();
+    byte[] sleep = columns.sleep();
+    byte[] mood = columns.mood();
+    boolean[] dead = columns.dead();
+
+    for (int i = from; i < to; i++) {
+      int m = mood[i];
+      if (dead[i] || !rules.isDeterministic(m)) {
+        continue;
+      }
+
+      int h = PetStates.clamp(hunger[i] + rules.drift(m, 0));
+      int hy = PetStates.clamp(hygiene[i] + rules.drift(m, 1));
+      int so = PetStates.clamp(social[i] + rules.drift(m, 2));
+      int sl = PetStates.clamp(sleep[i] + rules.drift(m, 3));
+
+      int t = rules.modifierThreshold(m);
+      int count;
+      if (rules.modifierCountsAbove(m)) {
+        count = (h > t ? 1 : 0) + (hy > t ? 1 : 0) + (so > t ? 1 : 0) + (sl > t ? 1 : 0);
+      } else {
+        count = (h < t ? 1 : 0) + (hy < t ? 1 : 0) + (so < t ? 1 : 0) + (sl < t ? 1 : 0);
+      }
+
+      hunger[i] = (byte) h;
+      hygiene[i] = (byte) hy;
+      social[i] = (byte) so;
+      sleep[i] = (byte) sl;
+      mood[i] = (byte) (count >= rules.modifierCount(m)
+          ? rules.modifierThen(m) : rules.modifierElse(m));
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package petapp.model;
+
+/**
+ * The health stats of a pet, all between 0-100 and the lower, the better.
+ */
+public enum Stat {
+  HUNGER,
+  HYGIENE,
+  SOCIAL,
+  SLEEP;
+
+  /**
+   * Returns the value of this stat in a packed state.
+   *
+   * @param state the packed state
+   * @return the stat value
+   */
+  public int of(int state) {
+    return switch (this) {
+      case HUNGER -> PetStates.hunger(state);
+      case HYGIENE -> PetStates.hygiene(state);
+      case SOCIAL -> PetStates.social(state);
+      case SLEEP -> PetStates.sleep(state);
+    };
+  }
+}
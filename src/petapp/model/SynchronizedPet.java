@@ -0,0 +1,100 @@
+package petapp.model;
+
+import java.util.List;
+
+/**
+ * Thread-safe wrapper that runs every operation of a pet under the wrapper's lock.
+ * Readers wait for writers and for each other; see ConcurrentPet for a lock-free pet.
+ */
+public class SynchronizedPet implements PetInterface {
+  private final PetInterface pet;
+
+  /**
+   * Wraps a pet, which must not be used directly afterwards.
+   *
+   * @param pet the pet to guard
+   */
+  public SynchronizedPet(PetInterface pet) {
+    this.pet = pet;
+  }
+
+  @Override
+  public synchronized void step() {
+    pet.step();
+  }
+
+  @Override
+  public synchronized long step(long ticks) {
+    return pet.step(ticks);
+  }
+
+  @Override
+  public synchronized void interactWith(Action action) {
+    pet.interactWith(action);
+  }
+
+  @Override
+  public synchronized PetDelta interactWith(Action action, int times) {
+    return pet.interactWith(action, times);
+  }
+
+  @Override
+  public synchronized PetDelta apply(List<Action> actions) {
+    return pet.apply(actions);
+  }
+
+  @Override
+  public synchronized PetBatch applyBatch(List<Action> actions) {
+    return pet.applyBatch(actions);
+  }
+
+  @Override
+  public synchronized HealthStatus getHealth() {
+    return pet.getHealth();
+  }
+
+  @Override
+  public synchronized void setMood(MoodEnum mood) {
+    pet.setMood(mood);
+  }
+
+  @Override
+  public synchronized MoodEnum getMood() {
+    return pet.getMood();
+  }
+
+  @Override
+  public synchronized int getHunger() {
+    return pet.getHunger();
+  }
+
+  @Override
+  public synchronized int getHygiene() {
+    return pet.getHygiene();
+  }
+
+  @Override
+  public synchronized int getSocial() {
+    return pet.getSocial();
+  }
+
+  @Override
+  public synchronized int getSleep() {
+    return pet.getSleep();
+  }
+
+  @Override
+  public synchronized boolean isDead() {
+    return pet.isDead();
+  }
+
+  @Override
+  public void addListener(PetListener listener) {
+    pet.addListener(listener);
+  }
+
+  @Override
+  public void removeListener(PetListener listener) {
+    pet.removeListener(listener);
+  }
+}
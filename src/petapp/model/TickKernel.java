@@ -0,0 +1,87 @@
+package petapp.model;
+
+/**
+ * Applies the deterministic part of a tick to a range of array-backed pets in bulk:
+ * the fixed drift and the mood modifier of every alive pet whose mood has no random drift
+ * (HAPPY and SAD under the default rules). The random anxiety check, the death check and
+ * the ticks of the other moods stay with PetPopulation, which runs them in index order.
+ */
+public interface TickKernel {
+
+  /**
+   * Applies the fixed drift, saturated to 0-100, and writes the mood picked by the mood
+   * modifier, for alive pets in [from, to) whose mood is deterministic under the rules.
+   *
+   * @param columns the population columns
+   * @param from the first pet index, inclusive
+   * @param to the last pet index, exclusive
+   * @param rules the mood rules
+   */
+  void drift(Columns columns, int from, int to, MoodRules rules);
+
+  /**
+   * The primitive columns of a population.
+   *
+   * @param hunger the hunger column
+   * @param hygiene the hygiene column
+   * @param social the social column
+   * @param sleep the sleep column
+   * @param mood the mood ordinal column
+   * @param dead the death state column
+   */
+  record Columns(byte[] hunger, byte[] hygiene, byte[] social, byte[] sleep,
+                 byte[] mood, boolean[] dead) {
+  }
+
+  /**
+   * Returns the scalar kernel, available everywhere.
+   *
+   * @return the scalar kernel
+   */
+  static TickKernel scalar() {
+    return ScalarTickKernel.INSTANCE;
+  }
+
+  /**
+   * Returns the SIMD kernel built on the jdk.incubator.vector module.
+   *
+   * @return the vector kernel
+   * @throws UnsupportedOperationException if the module is not in the boot layer
+   */
+  static TickKernel vector() {
+    if (!isVectorAvailable()) {
+      throw new UnsupportedOperationException(
+          "Run with --add-modules jdk.incubator.vector to use the vector kernel");
+    }
+    return VectorKernelHolder.INSTANCE;
+  }
+
+  /**
+   * Returns the vector kernel when its module is available, the scalar kernel otherwise.
+   *
+   * @return the best available kernel
+   */
+  static TickKernel best() {
+    return isVectorAvailable() ? VectorKernelHolder.INSTANCE : ScalarTickKernel.INSTANCE;
+  }
+
+  /**
+   * Whether the jdk.incubator.vector module is in the boot layer.
+   *
+   * @return true if the vector kernel can be used
+   */
+  static boolean isVectorAvailable() {
+    return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+  }
+
+  /**
+   * Loads the vector kernel lazily, so its class is never touched without the module.
+   */
+  final class VectorKernelHolder {
+    private static final TickKernel INSTANCE = isVectorAvailable()
+        ? new VectorTickKernel() : ScalarTickKernel.INSTANCE;
+
+    private VectorKernelHolder() {
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package petapp.model;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD TickKernel on the jdk.incubator.vector module.
+ * Each lane is one pet. Every deterministic mood gets its own masked pass over the same
+ * loaded vectors, so HAPPY and SAD pets receive their own drift in one sweep over the
+ * columns. The mood recount is a lane compare per stat and a masked add of ones.
+ * Produces exactly the same output as ScalarTickKernel.
+ */
+final class VectorTickKernel implements TickKernel {
+  private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+  private static final int MOODS = MoodEnum.values().length;
+
+  @Override
+  public void drift(Columns columns, int from, int to, MoodRules rules) {
+    byte[] hunger = columns.hunger();
+    byte[] hygiene = columns.hygiene();
+    byte[] social = columns.social();
+    byte[] sleep = columns.sleep();
+    byte[] mood = columns.mood();
+    boolean[] dead = columns.dead();
+
+    ByteVector zero = ByteVector.zero(SPECIES);
+    ByteVector one = ByteVector.broadcast(SPECIES, (byte) 1);
+
+    int i = from;
+    int bound = from + SPECIES.loopBound(to - from);
+    for (; i < bound; i += SPECIES.length()) {
+      ByteVector h = ByteVector.fromArray(SPECIES, hunger, i);
+      ByteVector hy = ByteVector.fromArray(SPECIES, hygiene, i);
+      ByteVector so = ByteVector.fromArray(SPECIES, social, i);
+      ByteVector sl = ByteVector.fromArray(SPECIES, sleep, i);
+      ByteVector m = ByteVector.fromArray(SPECIES, mood, i);
+      VectorMask<Byte> alive = VectorMask.fromArray(SPECIES, dead, i).not();
+
+      ByteVector newH = h;
+      ByteVector newHy = hy;
+      ByteVector newSo = so;
+      ByteVector newSl = sl;
+      ByteVector newM = m;
+      boolean changed = false;
+
+      for (int md = 0; md < MOODS; md++) {
+        if (!rules.isDeterministic(md)) {
+          continue;
+        }
+        VectorMask<Byte> lanes = m.compare(VectorOperators.EQ, (byte) md).and(alive);
+        if (!lanes.anyTrue()) {
+          continue;
+        }
+        changed = true;
+
+        // Saturating add, drift is small enough that 100 + drift fits in a byte
+        ByteVector dh = saturate(h.add((byte) rules.drift(md, 0)));
+        ByteVector dhy = saturate(hy.add((byte) rules.drift(md, 1)));
+        ByteVector dso = saturate(so.add((byte) rules.drift(md, 2)));
+        ByteVector dsl = saturate(sl.add((byte) rules.drift(md, 3)));
+
+        // Compare and count the stats past the modifier threshold
+        VectorOperators.Comparison past = rules.modifierCountsAbove(md)
+            ? VectorOperators.GT : VectorOperators.LT;
+        byte threshold = (byte) rules.modifierThreshold(md);
+        ByteVector count = zero
+            .add(one, dh.compare(past, threshold))
+            .add(one, dhy.compare(past, threshold))
+            .add(one, dso.compare(past, threshold))
+            .add(one, dsl.compare(past, threshold));
+        VectorMask<Byte> reached =
+            count.compare(VectorOperators.GE, (byte) rules.modifierCount(md));
+        ByteVector picked = ByteVector.broadcast(SPECIES, (byte) rules.modifierElse(md))
+            .blend((byte) rules.modifierThen(md), reached);
+
+        newH = newH.blend(dh, lanes);
+        newHy = newHy.blend(dhy, lanes);
+        newSo = newSo.blend(dso, lanes);
+        newSl = newSl.blend(dsl, lanes);
+        newM = newM.blend(picked, lanes);
+      }
+
+      if (changed) {
+        newH.intoArray(hunger, i);
+        newHy.intoArray(hygiene, i);
+        newSo.intoArray(social, i);
+        newSl.intoArray(sleep, i);
+        newM.intoArray(mood, i);
+      }
+    }
+
+    // Remaining pets that do not fill a whole vector
+    ScalarTickKernel.INSTANCE.drift(columns, i, to, rules);
+  }
+
+  private static ByteVector saturate(ByteVector value) {
+    return value.max((byte) 0).min((byte) 100);
+  }
+}
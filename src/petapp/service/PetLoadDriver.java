@@ -0,0 +1,219 @@
+package petapp.service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import petapp.model.Action;
+
+/**
+ * Load driver for the PetService.
+ * Every session runs on its own virtual thread with its own keep-alive connection: it
+ * creates a pet, then until the end of the run reads it, steps it or interacts with it,
+ * pausing for a think time between requests, and deletes it at the end. The driver speaks
+ * just enough HTTP/1.1 over a blocking socket to stay far cheaper than the service it
+ * measures.
+ * Prints the request rate, errors and latency percentiles. Without a host and port the
+ * driver starts a PetService in the same JVM.
+ */
+public class PetLoadDriver {
+  // Latency histogram with 10 us buckets up to 100 ms, the last bucket counts the rest
+  private static final int BUCKET_MICROS = 10;
+  private static final int BUCKETS = 10_000;
+
+  // A request unanswered for this long counts as an error and ends its session
+  private static final int TIMEOUT_MS = 10_000;
+
+  private static final Action[] ACTIONS = Action.values();
+
+  // Latencies of the first quarter of the run are not recorded, the JIT is still warming up
+  private long measureFrom;
+
+  private final AtomicLongArray latencies = new AtomicLongArray(BUCKETS + 1);
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+
+  /**
+   * Driver entry point.
+   *
+   * @param args optional session count (default 10,000), seconds (default 40), mean think
+   *     time in milliseconds (default 5,000) and the service as host:port (default an
+   *     in-process service)
+   * @throws Exception if the service cannot be started
+   */
+  public static void main(String[] args) throws Exception {
+    int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 40;
+    long think = args.length > 2 ? Long.parseLong(args[2]) : 5_000;
+
+    PetService service = args.length > 3 ? null : new PetService(0);
+    String host = service != null ? "localhost" : args[3].substring(0, args[3].indexOf(':'));
+    int port = service != null ? service.getPort()
+        : Integer.parseInt(args[3].substring(args[3].indexOf(':') + 1));
+    try {
+      new PetLoadDriver().run(host, port, sessions, (long) (seconds * 1e9), think);
+    } finally {
+      if (service != null) {
+        service.close();
+      }
+    }
+  }
+
+  private void run(String host, int port, int sessions, long nanos, long think) {
+    long start = System.nanoTime();
+    long end = start + nanos;
+    measureFrom = start + nanos / 4;
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < sessions; i++) {
+        executor.submit(() -> session(host, port, end, think));
+      }
+    }
+    double elapsed = (System.nanoTime() - measureFrom) / 1e9;
+
+    long count = requests.sum();
+    System.out.printf("%,d sessions, %,d requests in the last %.1f s, %,.0f requests/s,"
+        + " %,d errors%n", sessions, count, elapsed, count / elapsed, errors.sum());
+    System.out.printf("latency p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max bucket %.2f ms%n",
+        percentile(0.50), percentile(0.99), percentile(0.999), percentile(1.0));
+  }
+
+  private Void session(String host, int port, long end, long think) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    // Spread the sessions over the first think time so they do not all connect at once
+    pause(random.nextLong(think + 1));
+    try (Socket socket = new Socket()) {
+      socket.connect(new InetSocketAddress(host, port), TIMEOUT_MS);
+      socket.setSoTimeout(TIMEOUT_MS);
+      socket.setTcpNoDelay(true);
+      Connection connection = new Connection(socket, host);
+      String body = send(connection, "POST", "/pets");
+      if (body == null) {
+        return null;
+      }
+      String pet = "/pets/" + body.substring(6, body.indexOf(','));
+
+      while (true) {
+        pause(random.nextLong(think / 2, think * 3 / 2 + 1));
+        if (System.nanoTime() >= end) {
+          send(connection, "DELETE", pet);
+          return null;
+        }
+        int roll = random.nextInt(10);
+        String result;
+        if (roll < 5) {
+          result = send(connection, "GET", pet);
+        } else if (roll < 8) {
+          result = send(connection, "POST", pet + "/step");
+        } else {
+          result = send(connection, "POST",
+              pet + "/interact?action=" + ACTIONS[random.nextInt(ACTIONS.length)]);
+        }
+        if (result == null) {
+          return null;
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      errors.increment();
+      return null;
+    }
+  }
+
+  /**
+   * Sends a request and records its latency, returns the body or null on an error.
+   * A 409 for an action the pet's mood does not allow is a valid answer.
+   */
+  private String send(Connection connection, String method, String path) throws IOException {
+    long start = System.nanoTime();
+    int status = connection.request(method, path);
+    if (start >= measureFrom) {
+      record(System.nanoTime() - start);
+    }
+    if (status >= 400 && status != 409) {
+      errors.increment();
+      return null;
+    }
+    return connection.body;
+  }
+
+  private void record(long nanos) {
+    latencies.incrementAndGet((int) Math.min(BUCKETS, nanos / 1000 / BUCKET_MICROS));
+    requests.increment();
+  }
+
+  /**
+   * Returns the upper bound of the bucket holding a quantile of the latencies, in ms.
+   */
+  private double percentile(double quantile) {
+    long rank = (long) Math.ceil(quantile * requests.sum());
+    long seen = 0;
+    for (int i = 0; i <= BUCKETS; i++) {
+      seen += latencies.get(i);
+      if (seen >= rank && seen > 0) {
+        return (i + 1) * BUCKET_MICROS / 1000.0;
+      }
+    }
+    return 0;
+  }
+
+  private static void pause(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * A keep-alive HTTP/1.1 connection that sends bodiless requests and reads responses with
+   * a Content-Length, which is all the PetService answers with.
+   */
+  private static final class Connection {
+    private final InputStream in;
+    private final OutputStream out;
+    private final String host;
+    private String body;
+
+    Connection(Socket socket, String host) throws IOException {
+      this.in = new BufferedInputStream(socket.getInputStream());
+      this.out = socket.getOutputStream();
+      this.host = host;
+    }
+
+    int request(String method, String path) throws IOException {
+      out.write((method + " " + path + " HTTP/1.1\r\nHost: " + host
+          + "\r\nContent-Length: 0\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+      out.flush();
+
+      int status = Integer.parseInt(readLine().substring(9, 12));
+      int length = 0;
+      for (String line = readLine(); !line.isEmpty(); line = readLine()) {
+        if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+          length = Integer.parseInt(line.substring(15).trim());
+        }
+      }
+      body = new String(in.readNBytes(length), StandardCharsets.UTF_8);
+      return status;
+    }
+
+    private String readLine() throws IOException {
+      StringBuilder line = new StringBuilder();
+      for (int c = in.read(); c != '\n'; c = in.read()) {
+        if (c < 0) {
+          throw new IOException("Connection closed");
+        }
+        if (c != '\r') {
+          line.append((char) c);
+        }
+      }
+      return line.toString();
+    }
+  }
+}
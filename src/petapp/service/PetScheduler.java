@@ -0,0 +1,210 @@
+package petapp.service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.LockSupport;
+import petapp.model.PetInterface;
+
+/**
+ * Steps pets in wall-clock time, each at its own interval, from a hierarchical timing wheel.
+ * One wheel thread owns the wheel. Callers hand it new and cancelled pets through a
+ * lock-free queue, so schedule() and cancel() are O(1) and never wait for it. Every tick
+ * the wheel thread takes the pets due in the current slot and hands them to the executor
+ * in batches, it never runs pet code itself, so a slow step only holds up the rest of its
+ * own batch. A pet is stepped again only once its step has finished, and a step that
+ * starts late catches up with step(ticks) on the intervals it missed.
+ * The scheduler is the only writer of a scheduled pet; if other threads use the pet too,
+ * it must be thread-safe, such as a ConcurrentPet. Dead pets are dropped.
+ */
+public final class PetScheduler implements AutoCloseable {
+  /**
+   * Default length of a wheel tick, the resolution of the intervals.
+   */
+  public static final long DEFAULT_TICK_MILLIS = 10;
+
+  /**
+   * Default number of due pets handed to the executor as one task.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 1024;
+
+  private final Executor executor;
+  private final long tickNanos;
+  private final int batchSize;
+  private final long origin;
+
+  // New and cancelled pets, and finished batches to put back on the wheel
+  private final Queue<Object> requests = new ConcurrentLinkedQueue<>();
+
+  private final TimingWheel wheel;
+  private final Thread thread;
+  private volatile boolean closed;
+
+  // Time the wheel thread spent placing and dispatching pets
+  private volatile long wheelNanos;
+
+  /**
+   * Starts a scheduler with the default tick and batch size on the common pool.
+   */
+  public PetScheduler() {
+    this(ForkJoinPool.commonPool(), DEFAULT_TICK_MILLIS, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Starts a scheduler.
+   *
+   * @param executor the executor running the steps
+   * @param tickMillis the length of a wheel tick in milliseconds
+   * @param batchSize the maximum number of pets stepped by one task
+   */
+  public PetScheduler(Executor executor, long tickMillis, int batchSize) {
+    if (tickMillis <= 0 || batchSize <= 0) {
+      throw new IllegalArgumentException("Tick and batch size must be positive: "
+          + tickMillis + ", " + batchSize);
+    }
+    this.executor = executor;
+    this.tickNanos = tickMillis * 1_000_000;
+    this.batchSize = batchSize;
+    this.origin = System.nanoTime();
+    this.wheel = new TimingWheel(0);
+    this.thread = Thread.ofPlatform().daemon().name("pet-scheduler").start(this::run);
+  }
+
+  /**
+   * Steps a pet once per interval, starting one interval from now. Intervals are rounded
+   * up to whole ticks.
+   *
+   * @param pet the pet
+   * @param intervalMillis the interval between steps in milliseconds
+   * @return the handle to cancel the pet
+   */
+  public ScheduledPet schedule(PetInterface pet, long intervalMillis) {
+    if (intervalMillis <= 0) {
+      throw new IllegalArgumentException("Interval must be positive: " + intervalMillis);
+    }
+    if (closed) {
+      throw new RejectedExecutionException("Scheduler is closed");
+    }
+    long interval = Math.max(1, (intervalMillis * 1_000_000 + tickNanos - 1) / tickNanos);
+    ScheduledPet scheduled = new ScheduledPet(pet, this, interval, currentTick() + interval);
+    requests.offer(scheduled);
+    return scheduled;
+  }
+
+  /**
+   * Stops the wheel thread. Steps already handed to the executor still run.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    LockSupport.unpark(thread);
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Returns the time the wheel thread has spent placing and dispatching pets.
+   */
+  long wheelNanos() {
+    return wheelNanos;
+  }
+
+  void cancelled(ScheduledPet scheduled) {
+    requests.offer(scheduled);
+  }
+
+  private long currentTick() {
+    return (System.nanoTime() - origin) / tickNanos;
+  }
+
+  private void run() {
+    while (!closed) {
+      long start = System.nanoTime();
+      drainRequests();
+      long target = (start - origin) / tickNanos;
+      while (wheel.tick() < target) {
+        dispatch(wheel.advance());
+      }
+      long now = System.nanoTime();
+      wheelNanos += now - start;
+      LockSupport.parkNanos(this, origin + (wheel.tick() + 1) * tickNanos - now);
+    }
+  }
+
+  private void drainRequests() {
+    Object request;
+    while ((request = requests.poll()) != null) {
+      if (request instanceof ScheduledPet scheduled) {
+        // A pet arrives once when scheduled and once more for each cancel() call
+        if (scheduled.isCancelled()) {
+          wheel.remove(scheduled);
+        } else {
+          wheel.add(scheduled);
+        }
+      } else {
+        for (ScheduledPet scheduled : (ScheduledPet[]) request) {
+          if (!scheduled.isCancelled()) {
+            wheel.add(scheduled);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Hands a slot's due pets, linked through next, to the executor in batches.
+   */
+  private void dispatch(ScheduledPet due) {
+    while (due != null) {
+      // Size the batch to the pets it takes, a sparse slot often has only a few due
+      int count = 0;
+      for (ScheduledPet p = due; p != null && count < batchSize; p = p.next) {
+        count++;
+      }
+      ScheduledPet[] batch = new ScheduledPet[count];
+      for (int i = 0; i < count; i++) {
+        ScheduledPet next = due.next;
+        due.next = null;
+        batch[i] = due;
+        due = next;
+      }
+      try {
+        executor.execute(() -> runBatch(batch));
+      } catch (RuntimeException e) {
+        // Such as a shut down executor, the wheel thread carries on with the other pets
+        System.err.println("Error dispatching pets, they are no longer scheduled: " + e);
+        for (ScheduledPet scheduled : batch) {
+          scheduled.markCancelled();
+        }
+      }
+    }
+  }
+
+  private void runBatch(ScheduledPet[] batch) {
+    long tick = currentTick();
+    for (ScheduledPet scheduled : batch) {
+      if (scheduled.isCancelled()) {
+        continue;
+      }
+      // Catch up on the intervals missed while the step was late
+      long ticks = 1 + Math.max(0, (tick - scheduled.deadline) / scheduled.interval);
+      PetInterface pet = scheduled.getPet();
+      try {
+        pet.step(ticks);
+      } catch (RuntimeException e) {
+        System.err.println("Error stepping a pet, it is no longer scheduled: " + e);
+        scheduled.markCancelled();
+      }
+      if (pet.isDead()) {
+        scheduled.markCancelled();
+      }
+      scheduled.deadline += ticks * scheduled.interval;
+    }
+    requests.offer(batch);
+  }
+}
@@ -0,0 +1,290 @@
+package petapp.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import petapp.metrics.InstrumentedPet;
+import petapp.metrics.PetMetrics;
+import petapp.model.Action;
+import petapp.model.HealthStatus;
+import petapp.model.MoodRules;
+import petapp.model.Pet;
+import petapp.model.PetInterface;
+
+/**
+ * Headless HTTP service hosting many pets in one JVM.
+ * Runs on the JDK's embedded HttpServer with one virtual thread per request, so a request
+ * waiting on a slow client costs no platform thread. Each pet has its own ReentrantLock,
+ * held only while an operation runs on it, so requests for different pets never wait for
+ * each other and a contended pet parks its virtual threads without pinning a carrier.
+ * Endpoints, all answering with the pet as JSON:
+ * <ul>
+ *   <li>POST /pets creates a pet with the Pet() default values</li>
+ *   <li>GET /pets/{id} returns the pet's health status</li>
+ *   <li>POST /pets/{id}/step advances the pet by one unit of time</li>
+ *   <li>POST /pets/{id}/interact?action=FEED interacts with the pet, answering 409 if its
+ *       mood does not allow the action</li>
+ *   <li>DELETE /pets/{id} removes the pet, answering with its last health status</li>
+ * </ul>
+ * Pets are kept until they are deleted, so clients done with a pet should delete it.
+ * The operations on all pets are measured by one PetMetrics, published over JMX as
+ * petapp:type=PetMetrics,name=service-PORT while the service runs.
+ */
+public final class PetService implements AutoCloseable {
+  /**
+   * Default port of the service.
+   */
+  public static final int DEFAULT_PORT = 8080;
+
+  // Pending connections the kernel queues while all requests are being accepted
+  private static final int BACKLOG = 4096;
+
+  private static final MoodRules RULES = MoodRules.defaults();
+
+  // Keep-alive connections kept open between requests, the JDK default is only 200
+  private static final int MAX_IDLE_CONNECTIONS = 100_000;
+
+  static {
+    // The server reads these once, when its first instance is created. Responses are
+    // written as headers then body, so without TCP_NODELAY every small response waits for
+    // the client's delayed ACK, about 40 ms.
+    defaultProperty("sun.net.httpserver.nodelay", "true");
+    defaultProperty("sun.net.httpserver.maxIdleConnections",
+        String.valueOf(MAX_IDLE_CONNECTIONS));
+  }
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final Map<Integer, HostedPet> pets = new ConcurrentHashMap<>();
+  private final AtomicInteger nextId = new AtomicInteger();
+  private final PetMetrics metrics = new PetMetrics();
+  private final ObjectName metricsName;
+
+  /**
+   * Starts a service listening on a port.
+   *
+   * @param port the port, or 0 for any free port
+   * @throws IOException if the server cannot be started
+   */
+  public PetService(int port) throws IOException {
+    server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    server.setExecutor(executor);
+    server.createContext("/pets", this::handle);
+    server.start();
+    metricsName = registerMetrics();
+  }
+
+  /**
+   * Returns the port the service listens on.
+   *
+   * @return the port
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Returns the number of pets hosted.
+   *
+   * @return the pet count
+   */
+  public int size() {
+    return pets.size();
+  }
+
+  /**
+   * Returns the metrics of the pets hosted.
+   *
+   * @return the metrics
+   */
+  public PetMetrics getMetrics() {
+    return metrics;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.close();
+    if (metricsName != null) {
+      try {
+        PetMetrics.unregister(metricsName);
+      } catch (JMException e) {
+        System.err.println("Error unregistering metrics: " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Publishes the metrics, returns their name or null if they cannot be published.
+   */
+  private ObjectName registerMetrics() {
+    try {
+      return metrics.register("service-" + getPort());
+    } catch (JMException e) {
+      System.err.println("Error registering metrics, serving without them: " + e.getMessage());
+      return null;
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      String method = exchange.getRequestMethod();
+      String[] path = exchange.getRequestURI().getPath().split("/");
+      // path[0] is empty and path[1] is "pets"
+      if (path.length < 2 || !path[1].equals("pets")) {
+        send(exchange, 404, "{\"error\":\"No such resource\"}");
+        return;
+      }
+      if (path.length == 2) {
+        if (!method.equals("POST")) {
+          send(exchange, 405, "{\"error\":\"Use POST to create a pet\"}");
+          return;
+        }
+        int id = nextId.getAndIncrement();
+        HostedPet pet = new HostedPet(new InstrumentedPet(new Pet(), metrics));
+        pets.put(id, pet);
+        send(exchange, 201, json(id, pet.pet.getHealth()));
+        return;
+      }
+
+      int id = path.length <= 4 ? parseId(path[2]) : -1;
+      HostedPet pet = pets.get(id);
+      if (pet == null) {
+        send(exchange, 404, "{\"error\":\"No such pet\"}");
+        return;
+      }
+      if (path.length == 3) {
+        if (method.equals("GET")) {
+          send(exchange, 200, json(id, health(pet)));
+        } else if (method.equals("DELETE")) {
+          // A request already holding the pet finishes on it, later ones find no pet
+          pets.remove(id, pet);
+          send(exchange, 200, json(id, health(pet)));
+        } else {
+          send(exchange, 405, "{\"error\":\"Use GET to read a pet or DELETE to remove it\"}");
+        }
+      } else if (!method.equals("POST")) {
+        send(exchange, 405, "{\"error\":\"Use POST to change a pet\"}");
+      } else if (path[3].equals("step")) {
+        send(exchange, 200, json(id, step(pet)));
+      } else if (path[3].equals("interact")) {
+        Action action = parseAction(exchange.getRequestURI().getQuery());
+        if (action == null) {
+          send(exchange, 400, "{\"error\":\"Unknown action\"}");
+          return;
+        }
+        HealthStatus status = interact(pet, action);
+        send(exchange, status != null ? 200 : 409, status != null ? json(id, status)
+            : "{\"error\":\"The pet's mood does not allow " + action + "\"}");
+      } else {
+        send(exchange, 404, "{\"error\":\"No such operation\"}");
+      }
+    }
+  }
+
+  private static HealthStatus health(HostedPet hosted) {
+    hosted.lock.lock();
+    try {
+      return hosted.pet.getHealth();
+    } finally {
+      hosted.lock.unlock();
+    }
+  }
+
+  private static HealthStatus step(HostedPet hosted) {
+    hosted.lock.lock();
+    try {
+      hosted.pet.step();
+      return hosted.pet.getHealth();
+    } finally {
+      hosted.lock.unlock();
+    }
+  }
+
+  /**
+   * Interacts with a pet, or returns null if its mood does not allow the action.
+   */
+  private static HealthStatus interact(HostedPet hosted, Action action) {
+    PetInterface pet = hosted.pet;
+    hosted.lock.lock();
+    try {
+      if (!pet.isDead() && !RULES.allows(pet.getMood(), action)) {
+        return null;
+      }
+      pet.interactWith(action);
+      return pet.getHealth();
+    } finally {
+      hosted.lock.unlock();
+    }
+  }
+
+  private static void defaultProperty(String key, String value) {
+    if (System.getProperty(key) == null) {
+      System.setProperty(key, value);
+    }
+  }
+
+  private static int parseId(String id) {
+    try {
+      return Integer.parseInt(id);
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private static Action parseAction(String query) {
+    if (query == null || !query.startsWith("action=")) {
+      return null;
+    }
+    try {
+      return Action.valueOf(query.substring("action=".length()));
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static String json(int id, HealthStatus status) {
+    return "{\"id\":" + id
+        + ",\"mood\":\"" + status.mood()
+        + "\",\"dead\":" + status.dead()
+        + ",\"hunger\":" + status.hunger()
+        + ",\"hygiene\":" + status.hygiene()
+        + ",\"social\":" + status.social()
+        + ",\"sleep\":" + status.sleep()
+        + "}";
+  }
+
+  /**
+   * A pet and the lock held while an operation runs on it. A monitor would pin the carrier
+   * of a virtual thread waiting for it.
+   */
+  private static final class HostedPet {
+    final PetInterface pet;
+    final ReentrantLock lock = new ReentrantLock();
+
+    HostedPet(PetInterface pet) {
+      this.pet = pet;
+    }
+  }
+
+  private static void send(HttpExchange exchange, int code, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(code, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
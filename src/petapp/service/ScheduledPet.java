@@ -0,0 +1,61 @@
+package petapp.service;
+
+import petapp.model.PetInterface;
+
+/**
+ * A pet scheduled on a PetScheduler, and the handle to cancel it.
+ */
+public final class ScheduledPet {
+  private final PetInterface pet;
+  private final PetScheduler scheduler;
+
+  // Interval and next deadline in scheduler ticks
+  final long interval;
+  long deadline;
+
+  // Links of the timing wheel slot holding this pet, prev is null while it is not in one
+  ScheduledPet prev;
+  ScheduledPet next;
+
+  private volatile boolean cancelled;
+
+  ScheduledPet(PetInterface pet, PetScheduler scheduler, long interval, long deadline) {
+    this.pet = pet;
+    this.scheduler = scheduler;
+    this.interval = interval;
+    this.deadline = deadline;
+  }
+
+  /**
+   * Returns the scheduled pet.
+   *
+   * @return the pet
+   */
+  public PetInterface getPet() {
+    return pet;
+  }
+
+  /**
+   * Stops stepping the pet. A step already running finishes, no further one starts.
+   */
+  public void cancel() {
+    if (!cancelled) {
+      cancelled = true;
+      scheduler.cancelled(this);
+    }
+  }
+
+  /**
+   * Returns whether the pet is no longer stepped, because it was cancelled, died or its
+   * step failed.
+   *
+   * @return true if no further step will start
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  void markCancelled() {
+    cancelled = true;
+  }
+}
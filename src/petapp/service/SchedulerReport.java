@@ -0,0 +1,68 @@
+package petapp.service;
+
+import java.util.SplittableRandom;
+import petapp.model.ConcurrentPet;
+
+/**
+ * Prints how the PetScheduler's overhead grows with the number of scheduled pets.
+ * For each population the pets get random intervals of 1 to 10 seconds. The report shows
+ * the cost of schedule() and cancel() per pet, the share of wall time the wheel thread is
+ * busy, and its time per step dispatched, which should stay flat as the population grows.
+ */
+public class SchedulerReport {
+
+  /**
+   * Report entry point.
+   *
+   * @param args optional largest population (default 1,000,000) and seconds per run
+   *     (default 10)
+   * @throws InterruptedException if interrupted while a run is measured
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int largest = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 10;
+
+    System.out.printf("%10s %12s %12s %12s %10s %14s%n", "pets", "schedule ns", "cancel ns",
+        "steps/s", "wheel busy", "wheel ns/step");
+    for (int pets = 10_000; pets <= largest; pets *= 10) {
+      run(pets, seconds);
+    }
+  }
+
+  private static void run(int pets, double seconds) throws InterruptedException {
+    SplittableRandom random = new SplittableRandom(pets);
+    ConcurrentPet[] population = new ConcurrentPet[pets];
+    ScheduledPet[] handles = new ScheduledPet[pets];
+    for (int i = 0; i < pets; i++) {
+      population[i] = new ConcurrentPet(i);
+    }
+
+    try (PetScheduler scheduler = new PetScheduler()) {
+      long start = System.nanoTime();
+      for (int i = 0; i < pets; i++) {
+        handles[i] = scheduler.schedule(population[i], random.nextLong(1_000, 10_001));
+      }
+      double scheduleNanos = (double) (System.nanoTime() - start) / pets;
+
+      long wheelBefore = scheduler.wheelNanos();
+      long runStart = System.nanoTime();
+      Thread.sleep((long) (seconds * 1000));
+      double elapsed = System.nanoTime() - runStart;
+      long wheel = scheduler.wheelNanos() - wheelBefore;
+
+      start = System.nanoTime();
+      for (ScheduledPet handle : handles) {
+        handle.cancel();
+      }
+      double cancelNanos = (double) (System.nanoTime() - start) / pets;
+
+      long steps = 0;
+      for (ConcurrentPet pet : population) {
+        steps += pet.getOperations();
+      }
+      System.out.printf("%,10d %12.0f %12.0f %,12.0f %9.2f%% %14.0f%n", pets, scheduleNanos,
+          cancelNanos, steps / (elapsed / 1e9), 100 * wheel / elapsed,
+          steps > 0 ? (double) wheel / steps : 0);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package petapp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import petapp.model.HealthStatus;
+
+/**
+ * Measures ShardedPetRuntime throughput for several shard counts.
+ * One producer thread per shard posts steps and health queries to its own pets, waiting
+ * for every window of commands before posting the next one so that mailboxes stay bounded.
+ * Prints commands per second and the speedup over a single shard.
+ */
+public class ShardThroughput {
+  // Commands a producer keeps in flight
+  private static final int WINDOW = 1024;
+
+  /**
+   * Report entry point.
+   *
+   * @param args optional maximum shard count (default the number of processors), pets per
+   *     producer (default 10,000) and seconds per shard count (default 3)
+   * @throws Exception if a producer fails
+   */
+  public static void main(String[] args) throws Exception {
+    int maxShards = args.length > 0 ? Integer.parseInt(args[0])
+        : Runtime.getRuntime().availableProcessors();
+    int pets = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+    double seconds = args.length > 2 ? Double.parseDouble(args[2]) : 3;
+
+    System.out.printf("%d processors, %,d pets per producer%n",
+        Runtime.getRuntime().availableProcessors(), pets);
+    double single = 0;
+    for (int shards = 1; shards <= maxShards; shards *= 2) {
+      double rate = run(shards, pets, (long) (seconds * 1e9));
+      if (shards == 1) {
+        single = rate;
+      }
+      System.out.printf("%2d shards: %,14.0f commands/s, speedup %.2f%n",
+          shards, rate, rate / single);
+    }
+  }
+
+  private static double run(int shards, int pets, long nanos) throws Exception {
+    try (ShardedPetRuntime runtime = new ShardedPetRuntime(shards)) {
+      long[] counts = new long[shards];
+      List<Thread> producers = new ArrayList<>();
+      long start = System.nanoTime();
+      long end = start + nanos;
+      for (int p = 0; p < shards; p++) {
+        int producer = p;
+        producers.add(Thread.ofPlatform().start(() -> {
+          int first = producer * pets;
+          for (int id = first; id < first + pets; id++) {
+            runtime.create(id, id);
+          }
+          long count = 0;
+          int id = first;
+          while (System.nanoTime() < end) {
+            CompletableFuture<HealthStatus> last = null;
+            for (int i = 0; i < WINDOW; i++) {
+              last = (i & 3) == 0 ? runtime.getHealth(id) : runtime.step(id);
+              id = id + 1 < first + pets ? id + 1 : first;
+            }
+            last.join();
+            count += WINDOW;
+          }
+          counts[producer] = count;
+        }));
+      }
+      for (Thread producer : producers) {
+        producer.join();
+      }
+      double elapsed = (System.nanoTime() - start) / 1e9;
+      long total = 0;
+      for (long count : counts) {
+        total += count;
+      }
+      return total / elapsed;
+    }
+  }
+}
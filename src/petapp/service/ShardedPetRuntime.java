@@ -0,0 +1,254 @@
+package petapp.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import petapp.model.Action;
+import petapp.model.HealthStatus;
+import petapp.model.MoodEnum;
+import petapp.model.Pet;
+import petapp.model.PetRandom;
+
+/**
+ * Actor-style runtime giving many threads safe access to pets, which are not thread-safe.
+ * Every pet belongs to one of N shards by a hash of its id, and only the shard's thread
+ * ever touches it. Callers post commands to the shard's lock-free multi-producer mailbox
+ * and get a CompletableFuture of the pet's health after the command; the shard drains its
+ * mailbox in batches and parks when it is empty. Commands for one pet from one caller run
+ * in the order they were posted.
+ * Futures are completed on the shard thread, so dependent work should use the async
+ * CompletableFuture methods rather than run on the shard.
+ */
+public class ShardedPetRuntime implements AutoCloseable {
+  /**
+   * Default maximum number of commands a shard runs between two mailbox checks.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 256;
+
+  // Command operations
+  private static final int CREATE = 0;
+  private static final int STEP = 1;
+  private static final int INTERACT = 2;
+  private static final int SET_MOOD = 3;
+  private static final int HEALTH = 4;
+
+  private static final Action[] ACTIONS = Action.values();
+  private static final MoodEnum[] MOODS = MoodEnum.values();
+
+  private final Shard[] shards;
+  private volatile boolean closed;
+
+  /**
+   * Starts a runtime with one thread per shard.
+   *
+   * @param shardCount the number of shards
+   */
+  public ShardedPetRuntime(int shardCount) {
+    this(shardCount, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Starts a runtime with one thread per shard.
+   *
+   * @param shardCount the number of shards
+   * @param batchSize the maximum number of commands a shard runs per batch
+   */
+  public ShardedPetRuntime(int shardCount, int batchSize) {
+    if (shardCount <= 0 || batchSize <= 0) {
+      throw new IllegalArgumentException("Shard count and batch size must be positive: "
+          + shardCount + ", " + batchSize);
+    }
+    shards = new Shard[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      shards[i] = new Shard(batchSize);
+      shards[i].thread = Thread.ofPlatform().daemon().name("pet-shard-" + i)
+          .start(shards[i]::run);
+    }
+  }
+
+  /**
+   * Returns the number of shards.
+   *
+   * @return the shard count
+   */
+  public int shardCount() {
+    return shards.length;
+  }
+
+  /**
+   * Creates a pet with the Pet() default values, replacing any pet with the same id.
+   *
+   * @param petId the pet id
+   * @param seed the seed of the pet's random generator
+   * @return the health of the new pet
+   */
+  public CompletableFuture<HealthStatus> create(int petId, long seed) {
+    return post(petId, CREATE, seed);
+  }
+
+  /**
+   * Advances a pet by one unit of time.
+   *
+   * @param petId the pet id
+   * @return the health after the step
+   */
+  public CompletableFuture<HealthStatus> step(int petId) {
+    return post(petId, STEP, 0);
+  }
+
+  /**
+   * Interacts with a pet. The future fails with an IllegalStateException if the pet's
+   * mood does not allow the action.
+   *
+   * @param petId the pet id
+   * @param action the action
+   * @return the health after the interaction
+   */
+  public CompletableFuture<HealthStatus> interactWith(int petId, Action action) {
+    return post(petId, INTERACT, action.ordinal());
+  }
+
+  /**
+   * Sets the mood of a pet.
+   *
+   * @param petId the pet id
+   * @param mood the mood
+   * @return the health after the change
+   */
+  public CompletableFuture<HealthStatus> setMood(int petId, MoodEnum mood) {
+    return post(petId, SET_MOOD, mood.ordinal());
+  }
+
+  /**
+   * Reads the health of a pet.
+   *
+   * @param petId the pet id
+   * @return the health
+   */
+  public CompletableFuture<HealthStatus> getHealth(int petId) {
+    return post(petId, HEALTH, 0);
+  }
+
+  /**
+   * Stops the shard threads after they have run every command posted before.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    for (Shard shard : shards) {
+      shard.wake();
+    }
+    for (Shard shard : shards) {
+      try {
+        shard.thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private CompletableFuture<HealthStatus> post(int petId, int op, long arg) {
+    if (closed) {
+      throw new RejectedExecutionException("Runtime is closed");
+    }
+    Command command = new Command(petId, op, arg, new CompletableFuture<>());
+    Shard shard = shards[shardOf(petId, shards.length)];
+    shard.mailbox.offer(command);
+    // A command that raced with close() is either still queued and taken back here, or
+    // run by the shard before it stops
+    if (closed && shard.mailbox.remove(command)) {
+      throw new RejectedExecutionException("Runtime is closed");
+    }
+    shard.wake();
+    return command.result;
+  }
+
+  /**
+   * Returns the shard owning a pet, mixing the id so that consecutive ids spread evenly.
+   */
+  static int shardOf(int petId, int shardCount) {
+    int h = petId * 0x9E3779B9;
+    return (int) (((h ^ (h >>> 16)) & 0xFFFFFFFFL) % shardCount);
+  }
+
+  private record Command(int petId, int op, long arg, CompletableFuture<HealthStatus> result) {
+  }
+
+  /**
+   * One shard: its mailbox, the pets it owns and the thread that runs its commands.
+   */
+  private final class Shard {
+    private final Queue<Command> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean parked = new AtomicBoolean();
+    private final Map<Integer, Pet> pets = new HashMap<>();
+    private final int batchSize;
+    private Thread thread;
+
+    Shard(int batchSize) {
+      this.batchSize = batchSize;
+    }
+
+    void wake() {
+      if (parked.get() && parked.compareAndSet(true, false)) {
+        LockSupport.unpark(thread);
+      }
+    }
+
+    void run() {
+      while (true) {
+        int ran = 0;
+        Command command;
+        while (ran < batchSize && (command = mailbox.poll()) != null) {
+          execute(command);
+          ran++;
+        }
+        if (ran > 0) {
+          continue;
+        }
+        if (closed && mailbox.isEmpty()) {
+          return;
+        }
+        // Announce the park before checking the mailbox again, so a post either sees the
+        // flag and unparks this thread, or its command is seen here
+        parked.set(true);
+        if (mailbox.isEmpty() && !closed) {
+          LockSupport.park(this);
+        }
+        parked.set(false);
+      }
+    }
+
+    private void execute(Command command) {
+      try {
+        Pet pet;
+        if (command.op() == CREATE) {
+          pet = new Pet(new PetRandom(command.arg()));
+          pets.put(command.petId(), pet);
+        } else {
+          pet = pets.get(command.petId());
+          if (pet == null) {
+            throw new NoSuchElementException("No pet " + command.petId());
+          }
+          switch (command.op()) {
+            case STEP -> pet.step();
+            case INTERACT -> pet.interactWith(ACTIONS[(int) command.arg()]);
+            case SET_MOOD -> pet.setMood(MOODS[(int) command.arg()]);
+            default -> {
+              // HEALTH only reads
+            }
+          }
+        }
+        command.result().complete(pet.getHealth());
+      } catch (RuntimeException e) {
+        command.result().completeExceptionally(e);
+      }
+    }
+  }
+}
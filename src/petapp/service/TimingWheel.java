@@ -0,0 +1,128 @@
+package petapp.service;
+
+/**
+ * Hierarchical timing wheel holding the pets of a PetScheduler, owned by one thread.
+ * Time is counted in ticks. Level 0 has a slot per tick, and each higher level has a slot
+ * per full turn of the level below, so six levels of 64 slots reach about 2^36 ticks
+ * ahead. An entry sits in the lowest level whose turn contains both the current tick and
+ * its deadline; when the level below wraps around to that slot, the slot's entries
+ * cascade down. Every slot is a doubly linked list, so inserting and removing an entry
+ * are O(1), and each entry cascades at most once per level.
+ */
+final class TimingWheel {
+  static final int SLOT_BITS = 6;
+  static final int LEVELS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int SLOT_MASK = SLOTS - 1;
+
+  // Deadlines further away are parked at the edge of the wheel and placed again from there
+  private static final long MAX_DELAY = (long) SLOT_MASK << (SLOT_BITS * (LEVELS - 1));
+
+  // Sentinel heads of the slot lists, indexed level * SLOTS + slot
+  private final ScheduledPet[] slots = new ScheduledPet[LEVELS * SLOTS];
+  private long tick;
+  private int size;
+
+  /**
+   * Creates an empty wheel at a tick.
+   *
+   * @param tick the current tick
+   */
+  TimingWheel(long tick) {
+    this.tick = tick;
+    for (int i = 0; i < slots.length; i++) {
+      ScheduledPet head = new ScheduledPet(null, null, 0, 0);
+      head.next = head;
+      head.prev = head;
+      slots[i] = head;
+    }
+  }
+
+  long tick() {
+    return tick;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Adds an entry due at its deadline tick. A deadline that has passed is due on the next
+   * tick.
+   */
+  void add(ScheduledPet entry) {
+    place(entry, tick + 1);
+  }
+
+  private void place(ScheduledPet entry, long earliest) {
+    long due = Math.min(Math.max(entry.deadline, earliest), tick + MAX_DELAY);
+    int level = 0;
+    while (level < LEVELS - 1 && (due >>> (SLOT_BITS * (level + 1)))
+        != (tick >>> (SLOT_BITS * (level + 1)))) {
+      level++;
+    }
+    ScheduledPet head = slots[level * SLOTS + (int) ((due >>> (SLOT_BITS * level)) & SLOT_MASK)];
+    entry.prev = head.prev;
+    entry.next = head;
+    head.prev.next = entry;
+    head.prev = entry;
+    size++;
+  }
+
+  /**
+   * Removes an entry if it is in the wheel, entries taken out by advance() have no prev.
+   */
+  void remove(ScheduledPet entry) {
+    if (entry.prev == null) {
+      return;
+    }
+    entry.prev.next = entry.next;
+    entry.next.prev = entry.prev;
+    entry.next = null;
+    entry.prev = null;
+    size--;
+  }
+
+  /**
+   * Moves to the next tick and returns the entries due at it as a list linked through
+   * next, ending in null. The entries are no longer in the wheel.
+   */
+  ScheduledPet advance() {
+    tick++;
+    // Cascade from the highest level that wrapped, so entries can fall several levels
+    int wrapped = 0;
+    while (wrapped < LEVELS - 1 && ((tick >>> (SLOT_BITS * (wrapped + 1))) << (SLOT_BITS
+        * (wrapped + 1))) == tick) {
+      wrapped++;
+    }
+    for (int level = wrapped; level > 0; level--) {
+      ScheduledPet entry = detach(level, (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK));
+      while (entry != null) {
+        ScheduledPet next = entry.next;
+        // Entries due at this very tick land in the level 0 slot emptied below
+        place(entry, tick);
+        entry = next;
+      }
+    }
+    return detach(0, (int) (tick & SLOT_MASK));
+  }
+
+  /**
+   * Empties a slot and returns its entries as a null-terminated list.
+   */
+  private ScheduledPet detach(int level, int slot) {
+    ScheduledPet head = slots[level * SLOTS + slot];
+    if (head.next == head) {
+      return null;
+    }
+    ScheduledPet first = head.next;
+    for (ScheduledPet entry = first; entry != head; entry = entry.next) {
+      entry.prev = null;
+      size--;
+    }
+    head.prev.next = null;
+    head.next = head;
+    head.prev = head;
+    return first;
+  }
+}
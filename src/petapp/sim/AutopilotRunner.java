@@ -0,0 +1,63 @@
+package petapp.sim;
+
+import java.util.concurrent.ForkJoinPool;
+import petapp.model.CarePolicy;
+import petapp.model.MoodEnum;
+import petapp.model.MoodRules;
+import petapp.model.PetPopulation;
+
+/**
+ * Runs a population on autopilot at full tick rate: every tick each pet gets the action of
+ * a solved PolicyTable, then steps, in parallel chunks of the ParallelStepper.
+ * Prints the solve time, ticks per second and how the population fares compared to
+ * leaving it unattended.
+ */
+public class AutopilotRunner {
+
+  /**
+   * Runner entry point.
+   *
+   * @param args optional population size (default 1,000,000), ticks (default 500) and
+   *     bucket width (default CarePolicySolver.DEFAULT_BUCKET_WIDTH)
+   */
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+    int width = args.length > 2 ? Integer.parseInt(args[2])
+        : CarePolicySolver.DEFAULT_BUCKET_WIDTH;
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    long start = System.nanoTime();
+    CarePolicySolver.Solution solution = new CarePolicySolver(MoodRules.defaults(), width,
+        CarePolicySolver.DEFAULT_DISCOUNT, pool).solve(1e-3);
+    System.out.printf("Solved %,d states (%d buckets per stat), %,d transitions, %d sweeps"
+            + " in %.1f s%n", solution.values().length, solution.table().buckets(),
+        solution.transitions(), solution.sweeps(), (System.nanoTime() - start) / 1e9);
+
+    ParallelStepper stepper = new ParallelStepper(pool, ParallelStepper.DEFAULT_CHUNK_SIZE);
+    run("autopilot", stepper, size, ticks, solution.table());
+    run("unattended", stepper, size, ticks, null);
+  }
+
+  private static void run(String name, ParallelStepper stepper, int size, int ticks,
+                          CarePolicy policy) {
+    PetPopulation population = PetPopulation.withStreams(size, 42);
+    long start = System.nanoTime();
+    stepper.run(population, ticks, policy);
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    int alive = 0;
+    int happy = 0;
+    for (int i = 0; i < size; i++) {
+      if (!population.isDead(i)) {
+        alive++;
+        if (population.getMood(i) == MoodEnum.HAPPY) {
+          happy++;
+        }
+      }
+    }
+    System.out.printf("%-10s %,.0f ticks/s (%,.0f pet ticks/s), after %d ticks %.2f%% alive,"
+            + " %.2f%% happy%n", name, ticks / seconds, (double) size * ticks / seconds, ticks,
+        100.0 * alive / size, 100.0 * happy / size);
+  }
+}
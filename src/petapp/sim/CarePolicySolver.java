@@ -0,0 +1,433 @@
+package petapp.sim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.ToDoubleFunction;
+import petapp.model.Action;
+import petapp.model.MoodEnum;
+import petapp.model.MoodRules;
+import petapp.model.PetStates;
+import petapp.model.PolicyTable;
+
+/**
+ * Value iteration solver for the best care policy.
+ * Each tick the policy picks an action or none, the pet interacts and then steps. A tick
+ * the pet survives earns 1, plus HAPPY_BONUS if it ends happy, and future ticks are
+ * discounted. The full state space has 312M states, so stats are grouped into buckets of
+ * about bucketWidth values. Buckets also start at every MoodRules.thresholdEdges() value,
+ * so moods, the anxiety chance and death are decided exactly per bucket, and only the
+ * drift is approximated by taking the exact transitions from the middle of each bucket
+ * (MoodRules.forEachTransition and forEachInteraction).
+ * The sparse transition rows are built once, then every sweep runs over blocks of states on
+ * a ForkJoinPool.
+ */
+public class CarePolicySolver {
+  /**
+   * Default number of stat values per bucket.
+   */
+  public static final int DEFAULT_BUCKET_WIDTH = 5;
+
+  /**
+   * Default discount of the reward of the next tick.
+   */
+  public static final double DEFAULT_DISCOUNT = 0.98;
+
+  /**
+   * Extra reward for a tick that ends with a happy pet.
+   */
+  public static final double HAPPY_BONUS = 1.0;
+
+  private static final Action[] ACTIONS = Action.values();
+  private static final MoodEnum[] MOODS = MoodEnum.values();
+
+  // States per block, the unit of work of a sweep
+  private static final int BLOCK = 4096;
+
+  private final MoodRules rules;
+  private final int bucketWidth;
+  private final double discount;
+  private final ForkJoinPool pool;
+
+  /**
+   * Creates a solver for the default rules with default settings on the common pool.
+   */
+  public CarePolicySolver() {
+    this(MoodRules.defaults(), DEFAULT_BUCKET_WIDTH, DEFAULT_DISCOUNT, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a solver.
+   *
+   * @param rules the mood rules of the pet
+   * @param bucketWidth the number of stat values per bucket, 1 for exact stats
+   * @param discount the discount of the next tick, between 0 and 1 exclusive
+   * @param pool the pool running the sweeps
+   */
+  public CarePolicySolver(MoodRules rules, int bucketWidth, double discount, ForkJoinPool pool) {
+    if (bucketWidth < 1) {
+      throw new IllegalArgumentException("Bucket width must be positive: " + bucketWidth);
+    }
+    if (!(discount > 0 && discount < 1)) {
+      throw new IllegalArgumentException("Discount must be between 0 and 1: " + discount);
+    }
+    this.rules = rules;
+    this.bucketWidth = bucketWidth;
+    this.discount = discount;
+    this.pool = pool;
+  }
+
+  /**
+   * The solved policy.
+   *
+   * @param table the decision table
+   * @param values the discounted value of each state index when following the table
+   * @param sweeps the number of value iteration sweeps
+   * @param transitions the number of stored transitions
+   */
+  public record Solution(PolicyTable table, double[] values, int sweeps, long transitions) {
+  }
+
+  /**
+   * Runs value iteration until no state value changes by more than the tolerance.
+   *
+   * @param tolerance the largest value change at which to stop
+   * @return the solution
+   */
+  public Solution solve(double tolerance) {
+    Model model = new Model(bucketOf(bucketWidth, rules.thresholdEdges()));
+    List<Block> blocks = build(model);
+    long transitions = 0;
+    for (Block block : blocks) {
+      transitions += block.stepTarget.length + block.actTarget.length;
+    }
+
+    double[] values = new double[model.states];
+    double[] next = new double[model.states];
+    double[] afterStep = new double[model.states];
+    byte[] decisions = new byte[model.states];
+    int sweeps = 0;
+    double change;
+    do {
+      double[] current = values;
+      double[] updated = next;
+      invoke(blocks, block -> {
+        block.stepValues(current, afterStep, discount);
+        return 0.0;
+      });
+      change = 0;
+      for (double blockChange : invoke(blocks,
+          block -> block.chooseActions(current, afterStep, updated, decisions))) {
+        change = Math.max(change, blockChange);
+      }
+      values = updated;
+      next = current;
+      sweeps++;
+    } while (change > tolerance);
+
+    return new Solution(new PolicyTable(model.bucketOf, decisions), values, sweeps, transitions);
+  }
+
+  /**
+   * Returns the bucket of each stat value 0-100. Buckets start at multiples of the width
+   * and at every threshold edge.
+   *
+   * @param width the number of values per bucket
+   * @param edges values that must start a bucket
+   * @return the bucket of each value
+   */
+  static byte[] bucketOf(int width, int[] edges) {
+    TreeSet<Integer> starts = new TreeSet<>();
+    for (int value = 0; value <= 100; value += width) {
+      starts.add(value);
+    }
+    for (int edge : edges) {
+      starts.add(edge);
+    }
+    if (starts.size() > Byte.MAX_VALUE) {
+      throw new IllegalArgumentException("Too many buckets: " + starts.size());
+    }
+    byte[] bucketOf = new byte[101];
+    int bucket = -1;
+    for (int value = 0; value <= 100; value++) {
+      if (starts.contains(value)) {
+        bucket++;
+      }
+      bucketOf[value] = (byte) bucket;
+    }
+    return bucketOf;
+  }
+
+  /**
+   * The bucketed state space: state indexes and the representative stats of each bucket.
+   */
+  private static final class Model {
+    final byte[] bucketOf;
+    final int buckets;
+    final int states;
+    final int[] representative;
+
+    Model(byte[] bucketOf) {
+      this.bucketOf = bucketOf;
+      this.buckets = bucketOf[100] + 1;
+      this.states = PolicyTable.size(buckets);
+
+      // The middle value of each bucket
+      int[] first = new int[buckets];
+      int[] last = new int[buckets];
+      for (int value = 100; value >= 0; value--) {
+        first[bucketOf[value]] = value;
+      }
+      for (int value = 0; value <= 100; value++) {
+        last[bucketOf[value]] = value;
+      }
+      representative = new int[buckets];
+      for (int b = 0; b < buckets; b++) {
+        representative[b] = (first[b] + last[b]) / 2;
+      }
+    }
+
+    int index(int state) {
+      return PolicyTable.index(PetStates.mood(state).ordinal(),
+          bucketOf[PetStates.hunger(state)], bucketOf[PetStates.hygiene(state)],
+          bucketOf[PetStates.social(state)], bucketOf[PetStates.sleep(state)], buckets);
+    }
+
+    /**
+     * Returns the packed state in the middle of the buckets of a state index.
+     */
+    int representative(int index) {
+      int sleep = index % buckets;
+      int rest = index / buckets;
+      int social = rest % buckets;
+      rest /= buckets;
+      int hygiene = rest % buckets;
+      rest /= buckets;
+      int hunger = rest % buckets;
+      int mood = rest / buckets;
+      return PetStates.pack(representative[hunger], representative[hygiene],
+          representative[social], representative[sleep], MOODS[mood], false);
+    }
+  }
+
+  /**
+   * Builds the transition rows of all blocks, one task per pool thread so each one reuses
+   * its scratch arrays.
+   */
+  private List<Block> build(Model model) {
+    int blockCount = (model.states + BLOCK - 1) / BLOCK;
+    Block[] blocks = new Block[blockCount];
+    int workers = Math.min(pool.getParallelism(), blockCount);
+    List<Callable<Void>> tasks = new ArrayList<>(workers);
+    for (int w = 0; w < workers; w++) {
+      int worker = w;
+      tasks.add(() -> {
+        RowBuilder builder = new RowBuilder(model);
+        for (int b = worker; b < blockCount; b += workers) {
+          blocks[b] = builder.build(b * BLOCK, Math.min(model.states, (b + 1) * BLOCK));
+        }
+        return null;
+      });
+    }
+    for (Future<Void> result : pool.invokeAll(tasks)) {
+      join(result);
+    }
+    return List.of(blocks);
+  }
+
+  /**
+   * Sums transition probabilities per target state index, without hashing.
+   */
+  private final class RowBuilder {
+    private final Model model;
+    private final double[] probability;
+    private final int[] touched;
+    private int touchedCount;
+    private double reward;
+
+    private int[] targets = new int[1 << 16];
+    private float[] probabilities = new float[1 << 16];
+    private int size;
+
+    RowBuilder(Model model) {
+      this.model = model;
+      this.probability = new double[model.states];
+      this.touched = new int[model.states];
+    }
+
+    Block build(int from, int to) {
+      int count = to - from;
+      int[] stepStart = new int[count + 1];
+      double[] stepReward = new double[count];
+      size = 0;
+      for (int i = from; i < to; i++) {
+        int state = model.representative(i);
+        reward = 0;
+        rules.forEachTransition(state, this::add);
+        stepReward[i - from] = reward;
+        flush();
+        stepStart[i - from + 1] = size;
+      }
+      int[] stepTarget = Arrays.copyOf(targets, size);
+      float[] stepProbability = Arrays.copyOf(probabilities, size);
+
+      int[] actStart = new int[count * ACTIONS.length + 1];
+      size = 0;
+      for (int i = from; i < to; i++) {
+        int state = model.representative(i);
+        for (Action action : ACTIONS) {
+          if (rules.allows(PetStates.mood(state), action)) {
+            rules.forEachInteraction(state, action, this::add);
+            flush();
+          }
+          actStart[(i - from) * ACTIONS.length + action.ordinal() + 1] = size;
+        }
+      }
+      return new Block(from, to, stepStart, stepTarget, stepProbability, stepReward,
+          actStart, Arrays.copyOf(targets, size),
+          Arrays.copyOf(probabilities, size));
+    }
+
+    private void add(int state, double p) {
+      if (PetStates.isDead(state)) {
+        return;
+      }
+      reward += p * (1 + (PetStates.mood(state) == MoodEnum.HAPPY ? HAPPY_BONUS : 0));
+      int index = model.index(state);
+      if (probability[index] == 0) {
+        touched[touchedCount++] = index;
+      }
+      probability[index] += p;
+    }
+
+    /**
+     * Appends the summed row in target order and clears the scratch entries.
+     */
+    private void flush() {
+      Arrays.sort(touched, 0, touchedCount);
+      if (size + touchedCount > targets.length) {
+        int capacity = Math.max(targets.length * 2, size + touchedCount);
+        targets = Arrays.copyOf(targets, capacity);
+        probabilities = Arrays.copyOf(probabilities, capacity);
+      }
+      for (int k = 0; k < touchedCount; k++) {
+        int index = touched[k];
+        targets[size] = index;
+        probabilities[size++] = (float) probability[index];
+        probability[index] = 0;
+      }
+      touchedCount = 0;
+    }
+  }
+
+  /**
+   * Transition rows of a range of state indexes. Step rows hold the states after a tick
+   * without an action, action rows the states right after each action.
+   */
+  private final class Block {
+    final int from;
+    final int to;
+    final int[] stepStart;
+    final int[] stepTarget;
+    final float[] stepProbability;
+    final double[] stepReward;
+    final int[] actStart;
+    final int[] actTarget;
+    final float[] actProbability;
+
+    Block(int from, int to, int[] stepStart, int[] stepTarget, float[] stepProbability,
+          double[] stepReward, int[] actStart, int[] actTarget, float[] actProbability) {
+      this.from = from;
+      this.to = to;
+      this.stepStart = stepStart;
+      this.stepTarget = stepTarget;
+      this.stepProbability = stepProbability;
+      this.stepReward = stepReward;
+      this.actStart = actStart;
+      this.actTarget = actTarget;
+      this.actProbability = actProbability;
+    }
+
+    /**
+     * Computes the value of stepping from each state: reward plus the discounted values.
+     */
+    void stepValues(double[] values, double[] afterStep, double discount) {
+      for (int i = from; i < to; i++) {
+        int row = i - from;
+        double sum = 0;
+        for (int k = stepStart[row]; k < stepStart[row + 1]; k++) {
+          sum += stepProbability[k] * values[stepTarget[k]];
+        }
+        afterStep[i] = stepReward[row] + discount * sum;
+      }
+    }
+
+    /**
+     * Picks the best decision for each state, preferring to only step on ties.
+     *
+     * @return the largest value change in the block
+     */
+    double chooseActions(double[] values, double[] afterStep, double[] updated,
+                         byte[] decisions) {
+      double change = 0;
+      for (int i = from; i < to; i++) {
+        int row = i - from;
+        double best = afterStep[i];
+        byte decision = PolicyTable.STEP;
+        for (int a = 0; a < ACTIONS.length; a++) {
+          int start = actStart[row * ACTIONS.length + a];
+          int end = actStart[row * ACTIONS.length + a + 1];
+          if (start == end) {
+            continue;
+          }
+          double value = 0;
+          for (int k = start; k < end; k++) {
+            value += actProbability[k] * afterStep[actTarget[k]];
+          }
+          if (value > best + 1e-9) {
+            best = value;
+            decision = (byte) (a + 1);
+          }
+        }
+        updated[i] = best;
+        decisions[i] = decision;
+        change = Math.max(change, Math.abs(best - values[i]));
+      }
+      return change;
+    }
+  }
+
+  /**
+   * Runs a function over all blocks on the pool and returns the results in block order.
+   */
+  private List<Double> invoke(List<Block> blocks, ToDoubleFunction<Block> work) {
+    List<Callable<Double>> tasks = new ArrayList<>(blocks.size());
+    for (Block block : blocks) {
+      tasks.add(() -> work.applyAsDouble(block));
+    }
+    List<Double> results = new ArrayList<>(blocks.size());
+    for (Future<Double> result : pool.invokeAll(tasks)) {
+      results.add(join(result));
+    }
+    return results;
+  }
+
+  private static <T> T join(Future<T> result) {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while solving", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException("Solver task failed: " + e.getCause(), e.getCause());
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package petapp.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+import petapp.model.Action;
+import petapp.model.ConcurrentPet;
+import petapp.model.MoodRules;
+import petapp.model.Pet;
+import petapp.model.PetInterface;
+import petapp.model.PetRandom;
+import petapp.model.SynchronizedPet;
+
+/**
+ * Prints operations per second on one pet shared by 1 to 64 threads, for the lock-free
+ * ConcurrentPet and a SynchronizedPet around a Pet.
+ * Each thread mixes reads of the health status with writes, half steps and half
+ * interactions with an action the pet's current mood allows. A pet that dies is replaced,
+ * so the writes never become no-ops.
+ */
+public class ContentionReport {
+  private static final Action[] ACTIONS = Action.values();
+  private static final MoodRules RULES = MoodRules.defaults();
+
+  /**
+   * Report entry point.
+   *
+   * @param args optional percent of reads (default 80) and seconds per run (default 1)
+   * @throws InterruptedException if interrupted while waiting for the threads
+   */
+  public static void main(String[] args) throws InterruptedException {
+    int readPercent = args.length > 0 ? Integer.parseInt(args[0]) : 80;
+    double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+    int cores = Runtime.getRuntime().availableProcessors();
+
+    System.out.printf("%d%% reads, %.1f s per run, %d cores available%n",
+        readPercent, seconds, cores);
+    System.out.printf("%8s %16s %16s %8s%n", "threads", "concurrent op/s", "synchron. op/s",
+        "ratio");
+
+    // Warm up both paths before measuring
+    run(ConcurrentPet::new, 4, readPercent, seconds);
+    run(seed -> new SynchronizedPet(new Pet(new PetRandom(seed))), 4, readPercent, seconds);
+
+    for (int threads = 1; threads <= 64; threads *= 2) {
+      double concurrent = run(ConcurrentPet::new, threads, readPercent, seconds);
+      double synchronizedPet = run(seed -> new SynchronizedPet(new Pet(new PetRandom(seed))),
+          threads, readPercent, seconds);
+      System.out.printf("%8d %,16.0f %,16.0f %7.2fx%n", threads, concurrent, synchronizedPet,
+          concurrent / synchronizedPet);
+    }
+  }
+
+  /**
+   * Runs the threads against one shared pet for the given time, returns operations/s.
+   */
+  private static double run(LongFunction<PetInterface> factory, int threads, int readPercent,
+                            double seconds) throws InterruptedException {
+    SharedPet shared = new SharedPet(factory);
+    LongAdder operations = new LongAdder();
+    CountDownLatch start = new CountDownLatch(1);
+    long nanos = (long) (seconds * 1e9);
+    long[] window = new long[2];
+
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      long seed = t;
+      workers.add(Thread.ofPlatform().start(() -> {
+        SplittableRandom random = new SplittableRandom(seed);
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        long end = window[1];
+        long count = 0;
+        while ((count & 0xFF) != 0 || System.nanoTime() < end) {
+          PetInterface pet = shared.get();
+          int roll = random.nextInt(100);
+          if (roll < readPercent) {
+            pet.getHealth();
+          } else if ((roll & 1) == 0) {
+            pet.step();
+          } else {
+            interact(pet, ACTIONS[random.nextInt(ACTIONS.length)]);
+          }
+          count++;
+        }
+        operations.add(count);
+      }));
+    }
+
+    window[0] = System.nanoTime();
+    window[1] = window[0] + nanos;
+    start.countDown();
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    double elapsed = (System.nanoTime() - window[0]) / 1e9;
+    return operations.sum() / elapsed;
+  }
+
+  /**
+   * Interacts with the pet unless its mood does not allow the action. Another thread can
+   * change the mood between the check and the interaction, which then fails harmlessly.
+   */
+  private static void interact(PetInterface pet, Action action) {
+    if (RULES.allows(pet.getMood(), action)) {
+      try {
+        pet.interactWith(action);
+      } catch (IllegalStateException e) {
+        // The mood changed in between
+      }
+    }
+  }
+
+  /**
+   * The pet all threads share, replaced by a new one once it dies.
+   */
+  private static final class SharedPet {
+    private final LongFunction<PetInterface> factory;
+    private volatile PetInterface pet;
+    private long generation;
+
+    SharedPet(LongFunction<PetInterface> factory) {
+      this.factory = factory;
+      this.pet = factory.apply(0);
+    }
+
+    PetInterface get() {
+      PetInterface current = pet;
+      if (current.isDead()) {
+        synchronized (this) {
+          if (pet == current) {
+            pet = factory.apply(++generation);
+          }
+          current = pet;
+        }
+      }
+      return current;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package petapp.sim;
+
+import java.lang.ref.Reference;
+import petapp.model.PackedPetStore;
+import petapp.model.Pet;
+import petapp.model.PetPopulation;
+
+/**
+ * Prints the memory cost per pet of Pet, PetPopulation and PackedPetStore.
+ * Heap usage is measured from the used heap before and after allocating the pets.
+ */
+public class FootprintReport {
+
+  /**
+   * Report entry point.
+   *
+   * @param args optional number of pets to allocate (default 1,000,000)
+   */
+  public static void main(String[] args) {
+    int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+    long before = usedHeap();
+    Pet[] pets = new Pet[count];
+    for (int i = 0; i < count; i++) {
+      pets[i] = new Pet();
+    }
+    double petBytes = (double) (usedHeap() - before) / count;
+    Reference.reachabilityFence(pets);
+    pets = null;
+
+    before = usedHeap();
+    PetPopulation population = new PetPopulation(count);
+    double populationBytes = (double) (usedHeap() - before) / count;
+    Reference.reachabilityFence(population);
+
+    before = usedHeap();
+    PackedPetStore store = PackedPetStore.allocate(count);
+    double packedHeapBytes = (double) (usedHeap() - before) / count;
+    Reference.reachabilityFence(store);
+
+    System.out.printf("Pets allocated: %,d%n", count);
+    System.out.printf("%-16s %12s %12s%n", "Representation", "heap B/pet", "off-heap B/pet");
+    System.out.printf("%-16s %12.1f %12d%n", "Pet", petBytes, 0);
+    System.out.printf("%-16s %12.1f %12d%n", "PetPopulation", populationBytes, 0);
+    System.out.printf("%-16s %12.1f %12d%n", "PackedPetStore", packedHeapBytes,
+        PackedPetStore.BYTES_PER_PET);
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
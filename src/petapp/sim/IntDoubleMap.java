@@ -0,0 +1,122 @@
+package petapp.sim;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from non-negative int keys to double values, with linear probing
+ * and no boxing. Used for probability distributions over packed pet states, which never
+ * set the sign bit, so -1 marks an empty slot.
+ */
+final class IntDoubleMap {
+  private static final int EMPTY = -1;
+
+  private int[] keys;
+  private double[] values;
+  private int mask;
+  private int size;
+
+  /**
+   * Creates a map sized for the expected number of keys.
+   *
+   * @param expected the expected number of keys
+   */
+  IntDoubleMap(int expected) {
+    int capacity = Integer.highestOneBit(Math.max(16, expected) * 2 - 1) << 1;
+    keys = new int[capacity];
+    values = new double[capacity];
+    mask = capacity - 1;
+    Arrays.fill(keys, EMPTY);
+  }
+
+  /**
+   * Adds a value to the one stored for the key, or stores it if the key is new.
+   *
+   * @param key the key, not negative
+   * @param value the value to add
+   */
+  void add(int key, double value) {
+    int slot = slot(key);
+    if (keys[slot] == EMPTY) {
+      keys[slot] = key;
+      values[slot] = value;
+      if (++size * 2 > keys.length) {
+        grow();
+      }
+    } else {
+      values[slot] += value;
+    }
+  }
+
+  /**
+   * Returns the value stored for the key, or 0 if there is none.
+   *
+   * @param key the key
+   * @return the value
+   */
+  double get(int key) {
+    int slot = slot(key);
+    return keys[slot] == EMPTY ? 0 : values[slot];
+  }
+
+  /**
+   * Adds every entry of another map to this one.
+   *
+   * @param other the map to add
+   */
+  void addAll(IntDoubleMap other) {
+    for (int slot = 0; slot < other.keys.length; slot++) {
+      if (other.keys[slot] != EMPTY) {
+        add(other.keys[slot], other.values[slot]);
+      }
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  // Slot access for iterating without an iterator object, empty slots have a key of -1
+  int capacity() {
+    return keys.length;
+  }
+
+  int keyAt(int slot) {
+    return keys[slot];
+  }
+
+  double valueAt(int slot) {
+    return values[slot];
+  }
+
+  private int slot(int key) {
+    int slot = mix(key) & mask;
+    while (keys[slot] != EMPTY && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void grow() {
+    int[] oldKeys = keys;
+    double[] oldValues = values;
+    keys = new int[oldKeys.length * 2];
+    values = new double[oldValues.length * 2];
+    mask = keys.length - 1;
+    Arrays.fill(keys, EMPTY);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        int slot = slot(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  /**
+   * Spreads the packed stat bits over the whole hash, neighbouring states differ in few bits.
+   */
+  private static int mix(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,136 @@
+package petapp.sim;
+
+import java.util.Arrays;
+
+/**
+ * Streaming statistics over episode lifespans: count, mean, variance and a histogram of
+ * ticks to death. Each thread fills its own instance, and instances merge exactly in any
+ * order, using Welford's update per sample and Chan's formula per merge.
+ * Episodes that reach the tick limit alive are censored and counted at the limit.
+ */
+public class LifespanStats {
+  private final int maxTicks;
+  private final long[] histogram;
+  private long count;
+  private long censored;
+  private double mean;
+  private double squares;
+
+  /**
+   * Creates empty statistics.
+   *
+   * @param maxTicks the tick limit of an episode, the last histogram bin
+   */
+  public LifespanStats(int maxTicks) {
+    if (maxTicks < 0) {
+      throw new IllegalArgumentException("Negative tick limit: " + maxTicks);
+    }
+    this.maxTicks = maxTicks;
+    this.histogram = new long[maxTicks + 1];
+  }
+
+  /**
+   * Adds the lifespan of one episode.
+   *
+   * @param ticks the ticks to death, or maxTicks if the pet survived
+   * @param died whether the pet died, false if the episode was censored
+   */
+  public void add(int ticks, boolean died) {
+    int bin = Math.min(ticks, maxTicks);
+    histogram[bin]++;
+    if (!died) {
+      censored++;
+    }
+    count++;
+    double delta = bin - mean;
+    mean += delta / count;
+    squares += delta * (bin - mean);
+  }
+
+  /**
+   * Merges the statistics of another instance into this one.
+   *
+   * @param other statistics with the same tick limit
+   * @return this instance
+   */
+  public LifespanStats merge(LifespanStats other) {
+    if (other.maxTicks != maxTicks) {
+      throw new IllegalArgumentException(
+          "Different tick limits: " + maxTicks + " and " + other.maxTicks);
+    }
+    if (other.count == 0) {
+      return this;
+    }
+    long total = count + other.count;
+    double delta = other.mean - mean;
+    mean += delta * other.count / total;
+    squares += other.squares + delta * delta * count * other.count / total;
+    count = total;
+    censored += other.censored;
+    for (int i = 0; i < histogram.length; i++) {
+      histogram[i] += other.histogram[i];
+    }
+    return this;
+  }
+
+  public long count() {
+    return count;
+  }
+
+  public long censored() {
+    return censored;
+  }
+
+  public int maxTicks() {
+    return maxTicks;
+  }
+
+  public double mean() {
+    return mean;
+  }
+
+  /**
+   * Returns the sample variance of the lifespans.
+   *
+   * @return the variance, 0 with fewer than two episodes
+   */
+  public double variance() {
+    return count > 1 ? squares / (count - 1) : 0;
+  }
+
+  /**
+   * Returns the half width of the normal confidence interval of the mean.
+   *
+   * @param z the standard normal quantile, e.g. 1.96 for 95%
+   * @return the half width, infinite with fewer than two episodes
+   */
+  public double halfWidth(double z) {
+    return count > 1 ? z * Math.sqrt(variance() / count) : Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Returns the number of episodes that lasted exactly each number of ticks.
+   *
+   * @return a copy of the histogram, indexed by ticks from 0 to maxTicks
+   */
+  public long[] histogram() {
+    return Arrays.copyOf(histogram, histogram.length);
+  }
+
+  /**
+   * Returns the fraction of episodes that died within the given number of ticks.
+   *
+   * @param ticks the number of ticks
+   * @return the empirical death CDF at that tick
+   */
+  public double deathCdf(int ticks) {
+    long died = 0;
+    for (int i = 0; i <= Math.min(ticks, maxTicks); i++) {
+      died += histogram[i];
+    }
+    if (ticks >= maxTicks) {
+      died -= censored;
+    }
+    return count == 0 ? 0 : (double) died / count;
+  }
+}
@@ -0,0 +1,178 @@
+package petapp.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import petapp.model.Action;
+import petapp.model.CarePolicy;
+import petapp.model.MoodEnum;
+import petapp.model.Pet;
+import petapp.model.PetRandom;
+
+/**
+ * Monte Carlo estimator of pet lifespans under a care policy.
+ * Episodes run in batches, each batch on one worker thread with its own PetRandom stream
+ * and its own LifespanStats, so workers share nothing until the batches are merged.
+ * Batches run in rounds of a fixed size and are merged in batch order, so for a given seed
+ * the result does not depend on the number of threads. After each round the runner stops
+ * once the confidence interval of the mean lifespan is narrow enough.
+ */
+public class MonteCarloRunner {
+  /**
+   * Default number of episodes run by one task.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 1024;
+
+  /**
+   * Standard normal quantile of a 95% confidence interval.
+   */
+  public static final double Z_95 = 1.959964;
+
+  // Batches per round, the granularity of early stopping
+  private static final int ROUND_BATCHES = 32;
+
+  private final ForkJoinPool pool;
+  private final int batchSize;
+
+  /**
+   * Creates a runner on the common pool with the default batch size.
+   */
+  public MonteCarloRunner() {
+    this(ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Creates a runner on the given pool.
+   *
+   * @param pool the pool running the batches
+   * @param batchSize the number of episodes run by one task
+   */
+  public MonteCarloRunner(ForkJoinPool pool, int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+    }
+    this.pool = pool;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Runs episodes from the Pet() defaults until the 95% confidence interval of the mean
+   * lifespan has at most the target half width, or maxEpisodes have run.
+   *
+   * @param policy the care policy, called concurrently from several threads
+   * @param maxTicks the tick limit of an episode, longer lives are censored
+   * @param targetHalfWidth the half width in ticks at which to stop, 0 to run all episodes
+   * @param maxEpisodes the maximum number of episodes, rounded up to whole batches
+   * @param seed the seed of the batch streams
+   * @return the merged statistics
+   */
+  public LifespanStats run(CarePolicy policy, int maxTicks, double targetHalfWidth,
+                           long maxEpisodes, long seed) {
+    LifespanStats total = new LifespanStats(maxTicks);
+    long batch = 0;
+    while (total.count() < maxEpisodes && !(total.halfWidth(Z_95) <= targetHalfWidth)) {
+      long remaining = (maxEpisodes - total.count() + batchSize - 1) / batchSize;
+      int batches = (int) Math.min(ROUND_BATCHES, remaining);
+
+      List<Callable<LifespanStats>> tasks = new ArrayList<>(batches);
+      for (int i = 0; i < batches; i++) {
+        long stream = PetRandom.streamSeed(seed, batch++);
+        tasks.add(() -> runBatch(policy, maxTicks, stream));
+      }
+      for (Future<LifespanStats> result : pool.invokeAll(tasks)) {
+        total.merge(join(result));
+      }
+    }
+    return total;
+  }
+
+  private LifespanStats runBatch(CarePolicy policy, int maxTicks, long stream) {
+    PetRandom random = new PetRandom(stream);
+    LifespanStats stats = new LifespanStats(maxTicks);
+    for (int i = 0; i < batchSize; i++) {
+      Pet pet = new Pet(random);
+      stats.add(runEpisode(pet, policy, maxTicks), pet.isDead());
+    }
+    return stats;
+  }
+
+  /**
+   * Runs one episode: each tick the policy may act on the pet, then the pet steps.
+   *
+   * @param pet the pet
+   * @param policy the care policy
+   * @param maxTicks the tick limit
+   * @return the number of ticks until the pet died, or maxTicks if it survived
+   */
+  static int runEpisode(Pet pet, CarePolicy policy, int maxTicks) {
+    int ticks = 0;
+    while (ticks < maxTicks && !pet.isDead()) {
+      Action action = policy.decide(pet.getHealth());
+      if (action != null) {
+        pet.interactWith(action);
+      }
+      pet.step();
+      ticks++;
+    }
+    return ticks;
+  }
+
+  private static LifespanStats join(Future<LifespanStats> result) {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while running episodes", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException("Episode failed: " + e.getCause(), e.getCause());
+    }
+  }
+
+  /**
+   * Prints lifespan estimates and episode throughput for an unattended pet and for a
+   * simple threshold policy.
+   *
+   * @param args optional target half width in ticks (default 0.5) and tick limit
+   *     (default 10,000)
+   */
+  public static void main(String[] args) {
+    double target = args.length > 0 ? Double.parseDouble(args[0]) : 0.5;
+    int maxTicks = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+    MonteCarloRunner runner = new MonteCarloRunner();
+
+    // Calms the pet when anxious, otherwise treats its worst need once it gets high
+    CarePolicy threshold = status -> {
+      if (status.mood() == MoodEnum.ANXIETY) {
+        return Action.HUG;
+      }
+      if (status.hunger() > 70) {
+        return Action.FEED;
+      }
+      if (status.sleep() > 70) {
+        return Action.SLEEP;
+      }
+      return null;
+    };
+
+    report("unattended", runner, CarePolicy.UNATTENDED, maxTicks, target);
+    report("threshold", runner, threshold, maxTicks, target);
+  }
+
+  private static void report(String name, MonteCarloRunner runner, CarePolicy policy,
+                             int maxTicks, double target) {
+    long start = System.nanoTime();
+    LifespanStats stats = runner.run(policy, maxTicks, target, Long.MAX_VALUE, 42);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("%-10s lifespan %.2f +- %.2f ticks, sd %.1f, %.2f%% censored%n",
+        name, stats.mean(), stats.halfWidth(Z_95), Math.sqrt(stats.variance()),
+        100.0 * stats.censored() / stats.count());
+    System.out.printf("%-10s %,d episodes in %.2f s, %,.0f episodes/hour%n",
+        "", stats.count(), seconds, stats.count() / seconds * 3600);
+  }
+}
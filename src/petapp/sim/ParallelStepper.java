@@ -0,0 +1,118 @@
+package petapp.sim;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import petapp.model.CarePolicy;
+import petapp.model.PetPopulation;
+
+/**
+ * Deterministic parallel tick driver for a PetPopulation with per-pet random streams.
+ * Each tick splits the population into chunks that idle ForkJoinPool workers steal.
+ * Every pet only reads and writes its own columns and stream, so the result is identical
+ * for any number of threads and any chunk size.
+ */
+public class ParallelStepper {
+  /**
+   * Default number of pets stepped by one task without splitting further.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 16_384;
+
+  private final ForkJoinPool pool;
+  private final int chunkSize;
+
+  /**
+   * Creates a stepper on the common pool with the default chunk size.
+   */
+  public ParallelStepper() {
+    this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Creates a stepper on the given pool.
+   *
+   * @param pool the pool running the chunks
+   * @param chunkSize the number of pets stepped by one task without splitting further
+   */
+  public ParallelStepper(ForkJoinPool pool, int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+    }
+    this.pool = pool;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Advances every pet by one unit of time.
+   *
+   * @param population the population, created with per-pet streams
+   */
+  public void tick(PetPopulation population) {
+    tick(population, null);
+  }
+
+  /**
+   * Lets a care policy act on every pet, then advances every pet by one unit of time.
+   *
+   * @param population the population, created with per-pet streams
+   * @param policy the care policy, or null to only step
+   */
+  public void tick(PetPopulation population, CarePolicy policy) {
+    pool.invoke(new StepTask(population, policy, 0, population.size()));
+  }
+
+  /**
+   * Advances every pet by the given number of ticks.
+   *
+   * @param population the population, created with per-pet streams
+   * @param ticks the number of ticks
+   */
+  public void run(PetPopulation population, int ticks) {
+    run(population, ticks, null);
+  }
+
+  /**
+   * Runs the given number of ticks under a care policy.
+   *
+   * @param population the population, created with per-pet streams
+   * @param ticks the number of ticks
+   * @param policy the care policy, or null to only step
+   */
+  public void run(PetPopulation population, int ticks, CarePolicy policy) {
+    for (int t = 0; t < ticks; t++) {
+      tick(population, policy);
+    }
+  }
+
+  /**
+   * Steps a range of pets, splitting it in halves until it is at most one chunk.
+   */
+  // ForkJoinTask is Serializable, but these tasks only live in the pool and are never written
+  @SuppressWarnings("serial")
+  private class StepTask extends RecursiveAction {
+    private final PetPopulation population;
+    private final CarePolicy policy;
+    private final int from;
+    private final int to;
+
+    StepTask(PetPopulation population, CarePolicy policy, int from, int to) {
+      this.population = population;
+      this.policy = policy;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= chunkSize) {
+        if (policy != null) {
+          population.careRange(from, to, policy);
+        }
+        population.stepRange(from, to);
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new StepTask(population, policy, from, middle),
+          new StepTask(population, policy, middle, to));
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package petapp.sim;
+
+import java.util.concurrent.ForkJoinPool;
+import petapp.model.PetPopulation;
+
+/**
+ * Prints ticks per second of the ParallelStepper at 1, 2, 4, 8 and all available cores.
+ */
+public class ScalingReport {
+
+  /**
+   * Report entry point.
+   *
+   * @param args optional population size (default 4,000,000) and ticks (default 40)
+   */
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+    int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+    int cores = Runtime.getRuntime().availableProcessors();
+
+    System.out.printf("Population: %,d pets, %d ticks, %d cores available%n", size, ticks, cores);
+    System.out.printf("%8s %12s %16s %8s%n", "threads", "ticks/s", "pet steps/s", "speedup");
+
+    double baseline = 0;
+    for (int threads : new int[]{1, 2, 4, 8, cores}) {
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      try {
+        ParallelStepper stepper = new ParallelStepper(pool, ParallelStepper.DEFAULT_CHUNK_SIZE);
+
+        // Warm up on a separate population so the measured one starts from the defaults
+        stepper.run(PetPopulation.withStreams(Math.min(size, 1 << 20), 1), 20);
+
+        PetPopulation population = PetPopulation.withStreams(size, 42);
+        long start = System.nanoTime();
+        stepper.run(population, ticks);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        double ticksPerSecond = ticks / seconds;
+        if (baseline == 0) {
+          baseline = ticksPerSecond;
+        }
+        System.out.printf("%8d %12.1f %16.0f %7.2fx%n", threads, ticksPerSecond,
+            ticksPerSecond * size, ticksPerSecond / baseline);
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+}
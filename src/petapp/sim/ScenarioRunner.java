@@ -0,0 +1,370 @@
+package petapp.sim;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import petapp.model.Action;
+import petapp.model.MoodEnum;
+import petapp.model.MoodRules;
+import petapp.model.PetRandom;
+import petapp.model.PetStates;
+
+/**
+ * Headless runner for scripted pet sessions, the successor of the archived interactive CLI.
+ * Loads no AWT or Swing class, runs the pets as packed states under a MoodRules, streams
+ * scenario files of any size in chunks that run in parallel, and writes one CSV line per
+ * scenario, in input order, through a buffered writer.
+ * A scenario file holds one command per line, blank lines and # comments are ignored:
+ * <pre>
+ * scenario NAME                                  starts a new scenario
+ * seed N                                         seeds its random generator
+ * state HUNGER HYGIENE SOCIAL SLEEP MOOD [dead]  sets its initial state
+ * f|p|c|s|h [n]                                  feeds, plays, cleans, sleeps or hugs n times
+ * a [n]                                          advances n steps
+ * x [n]                                          runs the archive CLI's care simulation
+ * m MOOD                                         sets the mood
+ * </pre>
+ * Commands before the first scenario line form an unnamed scenario. A scenario without a
+ * seed gets its own stream of the run seed by its position, so results are reproducible
+ * whatever the parallelism. An action the mood does not allow is skipped and counted as
+ * rejected, and every command is a no-op once the pet is dead.
+ */
+public final class ScenarioRunner {
+  /**
+   * Default number of scenarios read and run together.
+   */
+  public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+  /**
+   * Header of the output.
+   */
+  public static final String HEADER = "scenario,mood,dead,hunger,hygiene,social,sleep,ticks,"
+      + "rejected";
+
+  // Operation codes, 0-4 are the Action ordinals
+  private static final int STEP = 5;
+  private static final int SIMULATE = 6;
+  private static final int SET_MOOD = 7;
+
+  private static final Action[] ACTIONS = Action.values();
+  private static final MoodEnum[] MOODS = MoodEnum.values();
+
+  private final MoodRules rules;
+  private final long seed;
+  private final ForkJoinPool pool;
+  private final int chunkSize;
+
+  /**
+   * A parsed scenario: operations as pairs of code and argument.
+   */
+  private record Scenario(String name, long seed, int state, long[] ops) {
+  }
+
+  /**
+   * Creates a runner.
+   *
+   * @param rules the rules the pets live by
+   * @param seed the run seed for scenarios without their own
+   * @param pool the pool running the scenarios
+   * @param chunkSize the number of scenarios read and run together
+   */
+  public ScenarioRunner(MoodRules rules, long seed, ForkJoinPool pool, int chunkSize) {
+    this.rules = rules;
+    this.seed = seed;
+    this.pool = pool;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Runner entry point.
+   *
+   * @param args [--rules FILE] [--seed N] [--threads N] [--out FILE] then the scenario
+   *     files, or - for standard input
+   * @throws IOException if a file cannot be read or the results written
+   */
+  public static void main(String[] args) throws IOException {
+    MoodRules rules = MoodRules.defaults();
+    long seed = 0;
+    int threads = Runtime.getRuntime().availableProcessors();
+    Path out = null;
+    List<String> files = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      switch (args[i]) {
+        case "--rules" -> rules = MoodRules.load(Path.of(args[++i]));
+        case "--seed" -> seed = Long.parseLong(args[++i]);
+        case "--threads" -> threads = Integer.parseInt(args[++i]);
+        case "--out" -> out = Path.of(args[++i]);
+        default -> files.add(args[i]);
+      }
+    }
+    if (files.isEmpty()) {
+      System.err.println("Usage: ScenarioRunner [--rules FILE] [--seed N] [--threads N]"
+          + " [--out FILE] FILE... (- for standard input)");
+      System.exit(2);
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    ScenarioRunner runner = new ScenarioRunner(rules, seed, pool, DEFAULT_CHUNK_SIZE);
+    long start = System.nanoTime();
+    long scenarios = 0;
+    try (Writer writer = out != null ? Files.newBufferedWriter(out)
+        : new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out),
+            StandardCharsets.UTF_8), 1 << 16)) {
+      writer.write(HEADER);
+      writer.write('\n');
+      for (String file : files) {
+        try (Reader reader = file.equals("-")
+            ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+            : Files.newBufferedReader(Path.of(file))) {
+          scenarios += runner.run(reader, writer, scenarios);
+        } catch (IllegalArgumentException e) {
+          System.err.println("Error in " + file + ": " + e.getMessage());
+          System.exit(1);
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.err.printf("%,d scenarios in %.2f s, %,.0f scenarios/s%n", scenarios, seconds,
+        scenarios / seconds);
+  }
+
+  /**
+   * Runs every scenario of a file and writes their result lines, without a header.
+   *
+   * @param in the scenario file
+   * @param out the writer for the results
+   * @param first the position of the first scenario in the whole run, for default seeds
+   * @return the number of scenarios run
+   * @throws IOException if the file cannot be read or the results written
+   * @throws IllegalArgumentException if a line is not a valid command
+   */
+  public long run(Reader in, Writer out, long first) throws IOException {
+    BufferedReader reader = in instanceof BufferedReader buffered ? buffered
+        : new BufferedReader(in, 1 << 16);
+    Parser parser = new Parser(reader, first);
+    long count = 0;
+    List<Scenario> chunk = new ArrayList<>(chunkSize);
+    Scenario scenario;
+    do {
+      scenario = parser.next();
+      if (scenario != null) {
+        chunk.add(scenario);
+      }
+      if (chunk.size() == chunkSize || scenario == null && !chunk.isEmpty()) {
+        String[] results = new String[chunk.size()];
+        Scenario[] batch = chunk.toArray(new Scenario[0]);
+        pool.submit(() -> IntStream.range(0, batch.length).parallel()
+            .forEach(i -> results[i] = run(batch[i]))).join();
+        for (String result : results) {
+          out.write(result);
+          out.write('\n');
+        }
+        count += chunk.size();
+        chunk.clear();
+      }
+    } while (scenario != null);
+    out.flush();
+    return count;
+  }
+
+  private String run(Scenario scenario) {
+    PetRandom random = new PetRandom(scenario.seed());
+    int state = scenario.state();
+    long ticks = 0;
+    long rejected = 0;
+    long[] ops = scenario.ops();
+    for (int i = 0; i < ops.length && !PetStates.isDead(state); i += 2) {
+      int code = (int) ops[i];
+      long arg = ops[i + 1];
+      if (code < STEP) {
+        Action action = ACTIONS[code];
+        for (long n = 0; n < arg && !PetStates.isDead(state); n++) {
+          if (rules.allows(PetStates.mood(state), action)) {
+            state = rules.interact(state, action, random);
+          } else {
+            rejected++;
+          }
+        }
+      } else if (code == STEP) {
+        for (long n = 0; n < arg && !PetStates.isDead(state); n++) {
+          state = rules.step(state, random);
+          ticks++;
+        }
+      } else if (code == SIMULATE) {
+        for (long n = 0; n < arg && !PetStates.isDead(state); n++) {
+          state = rules.step(state, random);
+          ticks++;
+          // The care schedule of the archive CLI's simulation
+          state = care(state, Action.FEED, n % 5 == 0, random);
+          state = care(state, Action.PLAY, n % 10 == 0, random);
+          state = care(state, Action.CLEAN, n % 15 == 0, random);
+          state = care(state, Action.SLEEP, n % 20 == 0, random);
+          state = care(state, Action.HUG,
+              n % 8 == 0 && PetStates.mood(state) == MoodEnum.ANXIETY, random);
+        }
+      } else {
+        state = PetStates.withMood(state, MOODS[(int) arg]);
+      }
+    }
+    return scenario.name() + ',' + PetStates.mood(state) + ',' + PetStates.isDead(state)
+        + ',' + PetStates.hunger(state) + ',' + PetStates.hygiene(state)
+        + ',' + PetStates.social(state) + ',' + PetStates.sleep(state)
+        + ',' + ticks + ',' + rejected;
+  }
+
+  private int care(int state, Action action, boolean due, PetRandom random) {
+    if (!due || PetStates.isDead(state) || !rules.allows(PetStates.mood(state), action)) {
+      return state;
+    }
+    return rules.interact(state, action, random);
+  }
+
+  /**
+   * Reads scenarios one at a time from a stream of lines.
+   */
+  private final class Parser {
+    private final BufferedReader reader;
+    private long index;
+    private int lineNumber;
+
+    // The scenario line read ahead of the next scenario, or null
+    private String pendingName;
+    private boolean done;
+
+    Parser(BufferedReader reader, long first) {
+      this.reader = reader;
+      this.index = first;
+    }
+
+    /**
+     * Returns the next scenario, or null at the end of the file.
+     */
+    Scenario next() throws IOException {
+      if (done) {
+        return null;
+      }
+      String name = pendingName;
+      pendingName = null;
+      Long scenarioSeed = null;
+      int state = PetStates.DEFAULT;
+      long[] ops = new long[16];
+      int size = 0;
+      boolean empty = name == null;
+
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        int comment = line.indexOf('#');
+        String[] tokens = (comment >= 0 ? line.substring(0, comment) : line).trim()
+            .split("\\s+");
+        if (tokens[0].isEmpty()) {
+          continue;
+        }
+        if (tokens[0].equals("scenario")) {
+          String next = tokens.length > 1 ? tokens[1] : null;
+          if (next == null) {
+            throw error("scenario needs a name");
+          }
+          if (!empty) {
+            pendingName = next;
+            return build(name, scenarioSeed, state, ops, size);
+          }
+          name = next;
+          empty = false;
+          continue;
+        }
+        empty = false;
+        switch (tokens[0]) {
+          case "seed" -> scenarioSeed = parseLong(tokens, 1, null);
+          case "state" -> state = parseState(tokens);
+          default -> {
+            if (size + 2 > ops.length) {
+              ops = Arrays.copyOf(ops, ops.length * 2);
+            }
+            ops[size++] = code(tokens[0]);
+            ops[size++] = tokens[0].equals("m") ? parseMood(tokens, 1).ordinal()
+                : parseLong(tokens, 1, 1L);
+          }
+        }
+      }
+      done = true;
+      return empty ? null : build(name, scenarioSeed, state, ops, size);
+    }
+
+    private Scenario build(String name, Long scenarioSeed, int state, long[] ops, int size) {
+      long position = index++;
+      return new Scenario(name != null ? name : String.valueOf(position),
+          scenarioSeed != null ? scenarioSeed : PetRandom.streamSeed(seed, position), state,
+          Arrays.copyOf(ops, size));
+    }
+
+    private int code(String command) {
+      return switch (command) {
+        case "f" -> Action.FEED.ordinal();
+        case "p" -> Action.PLAY.ordinal();
+        case "c" -> Action.CLEAN.ordinal();
+        case "s" -> Action.SLEEP.ordinal();
+        case "h" -> Action.HUG.ordinal();
+        case "a" -> STEP;
+        case "x" -> SIMULATE;
+        case "m" -> SET_MOOD;
+        default -> throw error("unknown command " + command);
+      };
+    }
+
+    private int parseState(String[] tokens) {
+      if (tokens.length < 6) {
+        throw error("state needs HUNGER HYGIENE SOCIAL SLEEP MOOD [dead]");
+      }
+      return PetStates.pack((int) parseLong(tokens, 1, null), (int) parseLong(tokens, 2, null),
+          (int) parseLong(tokens, 3, null), (int) parseLong(tokens, 4, null),
+          parseMood(tokens, 5), tokens.length > 6 && tokens[6].equals("dead"));
+    }
+
+    private long parseLong(String[] tokens, int position, Long fallback) {
+      if (tokens.length <= position) {
+        if (fallback == null) {
+          throw error(tokens[0] + " needs a number");
+        }
+        return fallback;
+      }
+      try {
+        long value = Long.parseLong(tokens[position]);
+        if (value < 0 && !tokens[0].equals("seed")) {
+          throw error("negative number " + value);
+        }
+        return value;
+      } catch (NumberFormatException e) {
+        throw error("not a number: " + tokens[position]);
+      }
+    }
+
+    private MoodEnum parseMood(String[] tokens, int position) {
+      try {
+        return MoodEnum.valueOf(tokens[position].toUpperCase());
+      } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+        throw error("expected a mood: HAPPY, SAD or ANXIETY");
+      }
+    }
+
+    private IllegalArgumentException error(String message) {
+      return new IllegalArgumentException("line " + lineNumber + ": " + message);
+    }
+  }
+}
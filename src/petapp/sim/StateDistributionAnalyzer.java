@@ -0,0 +1,253 @@
+package petapp.sim;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import petapp.model.MoodEnum;
+import petapp.model.MoodRules;
+import petapp.model.PetStates;
+
+/**
+ * Exact analysis of an unattended pet. Propagates the probability distribution over packed
+ * states through step() one tick at a time, enumerating every value of the random drift and
+ * the anxiety check (see MoodRules.forEachTransition), instead of sampling pets.
+ * Dead states are absorbing and collapse into a single probability mass.
+ * Each tick splits the live states into slot ranges that ForkJoinPool workers expand into
+ * partial distributions, which are then merged.
+ */
+public class StateDistributionAnalyzer {
+  // Map slots expanded by one task without splitting further
+  private static final int CHUNK_SLOTS = 4096;
+
+  private static final int MOODS = MoodEnum.values().length;
+
+  private final MoodRules rules;
+  private final ForkJoinPool pool;
+
+  /**
+   * Creates an analyzer for the default rules on the common pool.
+   */
+  public StateDistributionAnalyzer() {
+    this(MoodRules.defaults(), ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates an analyzer.
+   *
+   * @param rules the mood rules of the pet
+   * @param pool the pool running each tick
+   */
+  public StateDistributionAnalyzer(MoodRules rules, ForkJoinPool pool) {
+    this.rules = rules;
+    this.pool = pool;
+  }
+
+  /**
+   * The result of an analysis, indexed by tick from 0 (the initial state) to ticks().
+   *
+   * @param deathCdf probability that the pet is dead after each tick
+   * @param moodOccupancy probability that the pet is alive and in each mood, [tick][mood]
+   * @param support number of distinct live states after each tick
+   * @param expectedLifespan expected number of ticks until death, truncated at ticks()
+   */
+  public record Analysis(double[] deathCdf, double[][] moodOccupancy, int[] support,
+                         double expectedLifespan) {
+    /**
+     * Returns the number of ticks analyzed.
+     *
+     * @return the last tick index
+     */
+    public int ticks() {
+      return deathCdf.length - 1;
+    }
+
+    /**
+     * Returns the probability that the pet is still alive after the last tick, which is
+     * how much of the lifespan distribution lies beyond the analysis.
+     *
+     * @return the remaining live probability
+     */
+    public double aliveMass() {
+      return 1 - deathCdf[ticks()];
+    }
+  }
+
+  /**
+   * Analyzes exactly the given number of ticks.
+   *
+   * @param initialState the packed state to start from
+   * @param ticks the number of ticks
+   * @return the analysis
+   */
+  public Analysis analyze(int initialState, int ticks) {
+    return analyze(initialState, ticks, 0);
+  }
+
+  /**
+   * Analyzes until the pet is alive with at most the given probability, or maxTicks.
+   *
+   * @param initialState the packed state to start from
+   * @param maxTicks the maximum number of ticks
+   * @param tolerance the live probability at which to stop
+   * @return the analysis
+   */
+  public Analysis analyze(int initialState, int maxTicks, double tolerance) {
+    if (maxTicks < 0) {
+      throw new IllegalArgumentException("Negative number of ticks: " + maxTicks);
+    }
+    double[] deathCdf = new double[maxTicks + 1];
+    double[][] occupancy = new double[maxTicks + 1][];
+    int[] support = new int[maxTicks + 1];
+
+    Partial initial = new Partial(1);
+    initial.accept(initialState, 1);
+    IntDoubleMap alive = initial.alive;
+    double dead = initial.dead;
+    deathCdf[0] = dead;
+    occupancy[0] = initial.moods;
+    support[0] = alive.size();
+
+    // E[T] is the sum over t of P(T > t), the pet alive after t ticks
+    double lifespan = 0;
+    int tick = 0;
+    while (tick < maxTicks && 1 - dead > tolerance) {
+      lifespan += 1 - dead;
+      Partial next = pool.invoke(new ExpandTask(alive, 0, alive.capacity()));
+      alive = next.alive;
+      dead += next.dead;
+      tick++;
+
+      deathCdf[tick] = dead;
+      occupancy[tick] = next.moods;
+      support[tick] = alive.size();
+    }
+
+    return new Analysis(trim(deathCdf, tick), trim(occupancy, tick), trim(support, tick),
+        lifespan);
+  }
+
+  private static double[] trim(double[] values, int last) {
+    return Arrays.copyOf(values, last + 1);
+  }
+
+  private static double[][] trim(double[][] values, int last) {
+    return Arrays.copyOf(values, last + 1);
+  }
+
+  private static int[] trim(int[] values, int last) {
+    return Arrays.copyOf(values, last + 1);
+  }
+
+  /**
+   * The distribution after one tick of a slot range: live states, dead mass and the
+   * live mass per mood.
+   */
+  private static final class Partial {
+    IntDoubleMap alive;
+    double dead;
+    final double[] moods = new double[MOODS];
+
+    Partial(int expected) {
+      alive = new IntDoubleMap(expected);
+    }
+
+    void accept(int state, double probability) {
+      if (PetStates.isDead(state)) {
+        dead += probability;
+      } else {
+        alive.add(state, probability);
+        moods[PetStates.mood(state).ordinal()] += probability;
+      }
+    }
+
+    /**
+     * Merges another partial into this one, adding the smaller map into the larger one.
+     */
+    Partial merge(Partial other) {
+      if (other.alive.size() > alive.size()) {
+        IntDoubleMap smaller = alive;
+        alive = other.alive;
+        alive.addAll(smaller);
+      } else {
+        alive.addAll(other.alive);
+      }
+      dead += other.dead;
+      for (int m = 0; m < MOODS; m++) {
+        moods[m] += other.moods[m];
+      }
+      return this;
+    }
+  }
+
+  /**
+   * Expands a slot range of the live distribution, splitting it in halves until it is at
+   * most one chunk.
+   */
+  // Holds the distribution map and the analyzer, neither serializable, and never leaves the pool
+  @SuppressWarnings("serial")
+  private class ExpandTask extends RecursiveTask<Partial> {
+    private final IntDoubleMap alive;
+    private final int from;
+    private final int to;
+
+    ExpandTask(IntDoubleMap alive, int from, int to) {
+      this.alive = alive;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Partial compute() {
+      if (to - from <= CHUNK_SLOTS) {
+        Partial partial = new Partial(to - from);
+        for (int slot = from; slot < to; slot++) {
+          int state = alive.keyAt(slot);
+          if (state >= 0) {
+            double probability = alive.valueAt(slot);
+            rules.forEachTransition(state,
+                (next, p) -> partial.accept(next, probability * p));
+          }
+        }
+        return partial;
+      }
+      int middle = (from + to) >>> 1;
+      ExpandTask right = new ExpandTask(alive, middle, to);
+      right.fork();
+      Partial left = new ExpandTask(alive, from, middle).compute();
+      return left.merge(right.join());
+    }
+  }
+
+  /**
+   * Prints the exact death CDF, mood occupancy and expected lifespan of an unattended pet
+   * starting at the Pet() defaults.
+   *
+   * @param args optional number of ticks to tabulate (default 50) and the live probability
+   *     at which the lifespan run stops (default 1e-4)
+   */
+  public static void main(String[] args) {
+    int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+    double tolerance = args.length > 1 ? Double.parseDouble(args[1]) : 1e-4;
+    StateDistributionAnalyzer analyzer = new StateDistributionAnalyzer();
+
+    long start = System.nanoTime();
+    Analysis analysis = analyzer.analyze(PetStates.DEFAULT, ticks);
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    System.out.printf("%6s %10s %10s %10s %10s %12s%n",
+        "tick", "P(dead)", "HAPPY", "SAD", "ANXIETY", "states");
+    for (int t = 0; t <= analysis.ticks(); t++) {
+      double[] moods = analysis.moodOccupancy()[t];
+      System.out.printf("%6d %10.6f %10.6f %10.6f %10.6f %,12d%n", t, analysis.deathCdf()[t],
+          moods[MoodEnum.HAPPY.ordinal()], moods[MoodEnum.SAD.ordinal()],
+          moods[MoodEnum.ANXIETY.ordinal()], analysis.support()[t]);
+    }
+    System.out.printf("P(dead after %d ticks) = %.9f (%.2f s)%n",
+        analysis.ticks(), analysis.deathCdf()[analysis.ticks()], seconds);
+
+    // Run on until the pet is alive with at most the tolerance, the lifespan is truncated there
+    Analysis lifespan = analyzer.analyze(PetStates.DEFAULT, 100_000, tolerance);
+    System.out.printf("Expected lifespan = %.4f ticks (%d ticks analyzed, %.1e alive)%n",
+        lifespan.expectedLifespan(), lifespan.ticks(), lifespan.aliveMass());
+  }
+}
@@ -0,0 +1,96 @@
+package petapp.store;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+import petapp.model.PetInterface;
+
+/**
+ * Prints the hit rate, evictions and rehydration latency of a PetCache under LRU and
+ * W-TinyLFU, for Zipf-distributed accesses to a large population of which a tenth fits in
+ * memory, with a full scan of the population in the middle of the run.
+ * Every access is also one tick, so rehydrated pets have missed ticks to catch up on.
+ */
+public class CacheReport {
+
+  /**
+   * Report entry point.
+   *
+   * @param args optional pet count (default 1,000,000), resident share in percent
+   *     (default 10), accesses (default 5,000,000) and Zipf exponent (default 0.9)
+   * @throws IOException if the store cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    int pets = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int percent = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+    int accesses = args.length > 2 ? Integer.parseInt(args[2]) : 5_000_000;
+    double exponent = args.length > 3 ? Double.parseDouble(args[3]) : 0.9;
+    int capacity = (int) ((long) pets * percent / 100);
+
+    double[] cumulative = zipf(pets, exponent);
+    System.out.printf("%,d pets, %,d resident, %,d accesses, Zipf %.2f%n", pets, capacity,
+        accesses, exponent);
+    System.out.printf("%-10s %9s %12s %14s %14s %12s%n", "policy", "hit rate", "evictions",
+        "mean rehyd us", "max rehyd us", "accesses/s");
+    run("LRU", LruPolicy::new, pets, capacity, accesses, cumulative);
+    run("W-TinyLFU", TinyLfuPolicy::new, pets, capacity, accesses, cumulative);
+  }
+
+  private static void run(String name, IntFunction<EvictionPolicy> policy, int pets,
+                          int capacity, int accesses, double[] cumulative) throws IOException {
+    Path path = Files.createTempFile("pet-cache", ".bin");
+    long[] tick = new long[1];
+    try (DormantPetStore store = DormantPetStore.open(path)) {
+      PetCache cache = new PetCache(policy.apply(capacity), store, () -> tick[0]);
+      for (int id = 0; id < pets; id++) {
+        cache.create(id, id);
+      }
+      PetCache.Stats before = cache.stats();
+
+      SplittableRandom random = new SplittableRandom(1);
+      long start = System.nanoTime();
+      for (int i = 0; i < accesses; i++) {
+        tick[0]++;
+        int id;
+        if (i >= accesses / 2 && i < accesses / 2 + pets) {
+          // One pass over every pet, as a batch job would do
+          id = i - accesses / 2;
+        } else {
+          id = Arrays.binarySearch(cumulative, random.nextDouble());
+          id = id < 0 ? Math.min(-id - 1, pets - 1) : id;
+        }
+        cache.apply(id, PetInterface::getHealth);
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+
+      PetCache.Stats stats = cache.stats();
+      long hits = stats.hits() - before.hits();
+      long misses = stats.misses() - before.misses();
+      System.out.printf("%-10s %8.2f%% %,12d %14.1f %14.1f %,12.0f%n", name,
+          100.0 * hits / (hits + misses), stats.evictions() - before.evictions(),
+          (stats.rehydrationNanos() - before.rehydrationNanos()) / 1e3 / Math.max(1, misses),
+          stats.maxRehydrationNanos() / 1e3, accesses / seconds);
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  /**
+   * Returns the cumulative distribution of a Zipf law over ranks 1 to n.
+   */
+  private static double[] zipf(int n, double exponent) {
+    double[] cumulative = new double[n];
+    double sum = 0;
+    for (int i = 0; i < n; i++) {
+      sum += 1 / Math.pow(i + 1, exponent);
+      cumulative[i] = sum;
+    }
+    for (int i = 0; i < n; i++) {
+      cumulative[i] /= sum;
+    }
+    return cumulative;
+  }
+}
@@ -0,0 +1,101 @@
+package petapp.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * On-disk store of pets evicted from a PetCache.
+ * The file holds one fixed 24-byte little-endian record per pet id, at id * 24: the packed
+ * PetStates word, a marker telling written records from the zeros of a sparse file, the
+ * 48-bit random generator state and the tick the pet was last advanced to. A record is
+ * all a pet needs to resume exactly where it stopped.
+ */
+public final class DormantPetStore implements AutoCloseable {
+  /**
+   * Bytes of one record.
+   */
+  public static final int RECORD_BYTES = 24;
+
+  private static final int PRESENT = 0x544E524D; // "MRNT"
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES)
+      .order(ByteOrder.LITTLE_ENDIAN);
+
+  /**
+   * A dormant pet.
+   *
+   * @param state the packed state
+   * @param randomState the state of the pet's PetRandom
+   * @param tick the tick the pet was last advanced to
+   */
+  public record Dormant(int state, long randomState, long tick) {
+  }
+
+  private DormantPetStore(FileChannel channel) {
+    this.channel = channel;
+  }
+
+  /**
+   * Opens a store, creating the file if it does not exist.
+   *
+   * @param path the store file
+   * @return the store
+   * @throws IOException if the file cannot be opened
+   */
+  public static DormantPetStore open(Path path) throws IOException {
+    return new DormantPetStore(FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE));
+  }
+
+  /**
+   * Writes a pet, replacing its previous record.
+   *
+   * @param petId the pet id, not negative
+   * @param pet the dormant pet
+   * @throws IOException if the record cannot be written
+   */
+  public void write(int petId, Dormant pet) throws IOException {
+    buffer.clear();
+    buffer.putInt(pet.state()).putInt(PRESENT).putLong(pet.randomState()).putLong(pet.tick())
+        .flip();
+    long position = (long) petId * RECORD_BYTES;
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  /**
+   * Reads a pet.
+   *
+   * @param petId the pet id, not negative
+   * @return the dormant pet, or null if it was never written
+   * @throws IOException if the record cannot be read
+   */
+  public Dormant read(int petId) throws IOException {
+    buffer.clear();
+    long position = (long) petId * RECORD_BYTES;
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        return null;
+      }
+      position += read;
+    }
+    buffer.flip();
+    int state = buffer.getInt();
+    if (buffer.getInt() != PRESENT) {
+      return null;
+    }
+    return new Dormant(state, buffer.getLong(), buffer.getLong());
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
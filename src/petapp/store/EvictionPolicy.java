@@ -0,0 +1,28 @@
+package petapp.store;
+
+/**
+ * Decides which pets a PetCache keeps resident. Pets are identified by id, and the cache
+ * calls the policy on every access, so implementations should be O(1).
+ */
+public interface EvictionPolicy {
+  /**
+   * Returned when no pet has to be evicted.
+   */
+  int NONE = -1;
+
+  /**
+   * Records an access to a resident pet.
+   *
+   * @param petId the pet id
+   */
+  void onAccess(int petId);
+
+  /**
+   * Records that a pet became resident and picks the pet to evict if the cache is over
+   * capacity, which can be the new pet itself if the policy does not admit it.
+   *
+   * @param petId the new pet id
+   * @return the id of the pet to evict, or NONE
+   */
+  int onInsert(int petId);
+}
@@ -0,0 +1,80 @@
+package petapp.store;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import petapp.model.Action;
+import petapp.model.MoodRules;
+
+/**
+ * Measures journal throughput with many concurrent writers at several group sizes.
+ * Each writer owns one pet and alternates steps and interactions as fast as the journal
+ * lets it. Prints records per second and records per fsync for every group size, where
+ * group size 0 is the baseline that never waits for durability.
+ */
+public class JournalThroughput {
+  private static final Action[] ACTIONS = Action.values();
+  private static final MoodRules RULES = MoodRules.defaults();
+
+  /**
+   * Report entry point.
+   *
+   * @param args optional writer count (default 64), seconds per group size (default 3) and
+   *     maximum group delay in microseconds (default 2000)
+   * @throws Exception if the journal cannot be written
+   */
+  public static void main(String[] args) throws Exception {
+    int writers = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+    double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 3;
+    long maxDelay = args.length > 2 ? Long.parseLong(args[2]) : 2000;
+
+    System.out.printf("%d writers, max group delay %d us%n", writers, maxDelay);
+    for (int groupSize : new int[]{0, 1, 8, 32, 64, 256}) {
+      Path path = Files.createTempFile("pet-journal", ".bin");
+      try (PetJournal journal = PetJournal.open(path, groupSize, maxDelay)) {
+        double elapsed = run(journal, writers, (long) (seconds * 1e9));
+        System.out.printf("group %3d: %,12.0f records/s, %,10.0f fsyncs/s, %8.1f records/fsync%n",
+            groupSize, journal.records() / elapsed, journal.syncs() / elapsed,
+            journal.syncs() == 0 ? 0.0 : (double) journal.records() / journal.syncs());
+      } finally {
+        Files.delete(path);
+      }
+    }
+  }
+
+  private static double run(PetJournal journal, int writers, long nanos)
+      throws InterruptedException {
+    CountDownLatch go = new CountDownLatch(1);
+    long[] end = new long[1];
+    List<Thread> threads = new ArrayList<>(writers);
+    for (int i = 0; i < writers; i++) {
+      JournaledPet pet = journal.create(i, i);
+      threads.add(Thread.ofVirtual().start(() -> {
+        try {
+          go.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int n = 0; System.nanoTime() < end[0]; n++) {
+          Action action = ACTIONS[(n / 2) % ACTIONS.length];
+          if ((n & 1) == 0 && !pet.isDead()) {
+            pet.step();
+          } else if (!pet.isDead() && RULES.allows(pet.getMood(), action)) {
+            pet.interactWith(action);
+          } else {
+            pet.setMood(pet.getMood());
+          }
+        }
+      }));
+    }
+    long start = System.nanoTime();
+    end[0] = start + nanos;
+    go.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    return (System.nanoTime() - start) / 1e9;
+  }
+}
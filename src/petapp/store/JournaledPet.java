@@ -0,0 +1,125 @@
+package petapp.store;
+
+import petapp.model.Action;
+import petapp.model.HealthStatus;
+import petapp.model.MoodEnum;
+import petapp.model.Pet;
+import petapp.model.PetInterface;
+import petapp.model.PetListener;
+import petapp.model.PetRandom;
+
+/**
+ * A pet whose operations are recorded in a PetJournal.
+ * Each step(), interactWith() and setMood() is applied to the wrapped Pet and then appended
+ * with the random state the operation started from, so replaying the journal rebuilds the
+ * exact same pet. Not thread-safe, like Pet, but pets of one journal may run on different
+ * threads.
+ */
+public class JournaledPet implements PetInterface {
+  private final PetJournal journal;
+  private final int id;
+  private final Pet pet;
+  private final PetRandom random;
+  private long tick;
+
+  JournaledPet(PetJournal journal, int id, Pet pet, PetRandom random, long tick) {
+    this.journal = journal;
+    this.id = id;
+    this.pet = pet;
+    this.random = random;
+    this.tick = tick;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Returns the number of steps taken since the pet was created.
+   *
+   * @return the tick of the pet
+   */
+  public long getTick() {
+    return tick;
+  }
+
+  @Override
+  public void step() {
+    long state = random.getState();
+    pet.step();
+    tick++;
+    journal.append(id, tick, PetJournal.STEP, 0, state);
+  }
+
+  @Override
+  public void interactWith(Action action) {
+    long state = random.getState();
+    pet.interactWith(action);
+    journal.append(id, tick, PetJournal.ACTION, action.ordinal(), state);
+  }
+
+  @Override
+  public void setMood(MoodEnum mood) {
+    pet.setMood(mood);
+    journal.append(id, tick, PetJournal.SET_MOOD, mood.ordinal(), random.getState());
+  }
+
+  /**
+   * Applies a recorded operation without journaling it again.
+   */
+  void replay(int op, int arg, long state, long tick) {
+    random.setState(state);
+    switch (op) {
+      case PetJournal.STEP -> pet.step();
+      case PetJournal.ACTION -> pet.interactWith(PetJournal.action(arg));
+      case PetJournal.SET_MOOD -> pet.setMood(PetJournal.mood(arg));
+      default -> throw new IllegalStateException("Unexpected journal operation: " + op);
+    }
+    this.tick = tick;
+  }
+
+  @Override
+  public HealthStatus getHealth() {
+    return pet.getHealth();
+  }
+
+  @Override
+  public MoodEnum getMood() {
+    return pet.getMood();
+  }
+
+  @Override
+  public int getHunger() {
+    return pet.getHunger();
+  }
+
+  @Override
+  public int getHygiene() {
+    return pet.getHygiene();
+  }
+
+  @Override
+  public int getSocial() {
+    return pet.getSocial();
+  }
+
+  @Override
+  public int getSleep() {
+    return pet.getSleep();
+  }
+
+  @Override
+  public boolean isDead() {
+    return pet.isDead();
+  }
+
+  @Override
+  public void addListener(PetListener listener) {
+    pet.addListener(listener);
+  }
+
+  @Override
+  public void removeListener(PetListener listener) {
+    pet.removeListener(listener);
+  }
+}
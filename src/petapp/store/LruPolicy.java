@@ -0,0 +1,43 @@
+package petapp.store;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Evicts the least recently used pet.
+ */
+public class LruPolicy implements EvictionPolicy {
+  private final int capacity;
+
+  // Access-ordered, the eldest entry is the least recently used pet
+  private final Map<Integer, Boolean> order;
+
+  /**
+   * Creates a policy for a cache of the given capacity.
+   *
+   * @param capacity the maximum number of resident pets
+   */
+  public LruPolicy(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+    this.order = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true);
+  }
+
+  @Override
+  public void onAccess(int petId) {
+    order.get(petId);
+  }
+
+  @Override
+  public int onInsert(int petId) {
+    order.put(petId, Boolean.TRUE);
+    if (order.size() <= capacity) {
+      return NONE;
+    }
+    int eldest = order.keySet().iterator().next();
+    order.remove(eldest);
+    return eldest;
+  }
+}
@@ -0,0 +1,216 @@
+package petapp.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import petapp.model.Pet;
+import petapp.model.PetInterface;
+import petapp.model.PetRandom;
+import petapp.model.PetStates;
+
+/**
+ * Bounded cache of live pets in front of a DormantPetStore.
+ * Pets age lazily: each remembers the tick it was last advanced to, and whenever it is
+ * accessed the ticks it missed since are applied at once with step(ticks). A pet the
+ * eviction policy pushes out is written to the store with that tick and dropped from the
+ * heap, and the next access rehydrates it from its record and catches it up, so an evicted
+ * pet behaves exactly as if it had stayed resident.
+ * Pets are only reachable inside apply(), so no caller can hold on to an evicted pet.
+ * Not thread-safe; a cache should be owned by one thread, such as a shard.
+ */
+public class PetCache {
+  private final EvictionPolicy policy;
+  private final DormantPetStore store;
+  private final LongSupplier clock;
+  private final Map<Integer, Resident> resident = new HashMap<>();
+
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long rehydrationNanos;
+  private long maxRehydrationNanos;
+
+  /**
+   * Cache statistics.
+   *
+   * @param hits the accesses to resident pets
+   * @param misses the accesses that rehydrated a pet
+   * @param evictions the pets written to the store
+   * @param rehydrationNanos the total time spent rehydrating and catching up pets
+   * @param maxRehydrationNanos the longest rehydration
+   */
+  public record Stats(long hits, long misses, long evictions, long rehydrationNanos,
+                      long maxRehydrationNanos) {
+    /**
+     * Returns the share of accesses that found the pet resident.
+     *
+     * @return the hit rate between 0 and 1
+     */
+    public double hitRate() {
+      long accesses = hits + misses;
+      return accesses == 0 ? 0 : (double) hits / accesses;
+    }
+
+    /**
+     * Returns the mean time to rehydrate and catch up a pet.
+     *
+     * @return the mean rehydration latency in nanoseconds
+     */
+    public double meanRehydrationNanos() {
+      return misses == 0 ? 0 : (double) rehydrationNanos / misses;
+    }
+  }
+
+  /**
+   * Creates a cache.
+   *
+   * @param policy the eviction policy, which also sets the capacity
+   * @param store the store for evicted pets
+   * @param clock the current tick
+   */
+  public PetCache(EvictionPolicy policy, DormantPetStore store, LongSupplier clock) {
+    this.policy = policy;
+    this.store = store;
+    this.clock = clock;
+  }
+
+  /**
+   * Creates a pet with the Pet() default values at the current tick, replacing any pet
+   * with the same id.
+   *
+   * @param petId the pet id, not negative
+   * @param seed the seed of the pet's random generator
+   */
+  public void create(int petId, long seed) {
+    PetRandom random = new PetRandom(seed);
+    Resident pet = new Resident(new Pet(random), random, clock.getAsLong());
+    if (resident.put(petId, pet) != null) {
+      policy.onAccess(petId);
+    } else {
+      admit(petId);
+    }
+  }
+
+  /**
+   * Runs an operation on a pet after catching it up to the current tick, rehydrating it
+   * first if it was evicted. The pet must not be used after the operation returns.
+   *
+   * @param petId the pet id
+   * @param operation the operation
+   * @param <T> the result type
+   * @return the result of the operation
+   * @throws NoSuchElementException if the pet was never created
+   */
+  public <T> T apply(int petId, Function<? super PetInterface, T> operation) {
+    long now = clock.getAsLong();
+    Resident pet = resident.get(petId);
+    boolean miss = pet == null;
+    if (miss) {
+      long start = System.nanoTime();
+      pet = rehydrate(petId);
+      catchUp(pet, now);
+      long nanos = System.nanoTime() - start;
+      misses++;
+      rehydrationNanos += nanos;
+      maxRehydrationNanos = Math.max(maxRehydrationNanos, nanos);
+      resident.put(petId, pet);
+    } else {
+      hits++;
+      policy.onAccess(petId);
+      catchUp(pet, now);
+    }
+    try {
+      return operation.apply(pet.pet);
+    } finally {
+      if (miss) {
+        admit(petId);
+      }
+    }
+  }
+
+  /**
+   * Writes every resident pet to the store, keeping them resident.
+   */
+  public void flush() {
+    for (Map.Entry<Integer, Resident> entry : resident.entrySet()) {
+      write(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Returns the number of resident pets.
+   *
+   * @return the resident count
+   */
+  public int size() {
+    return resident.size();
+  }
+
+  /**
+   * Returns the statistics since the cache was created.
+   *
+   * @return the statistics
+   */
+  public Stats stats() {
+    return new Stats(hits, misses, evictions, rehydrationNanos, maxRehydrationNanos);
+  }
+
+  private void admit(int petId) {
+    int victim = policy.onInsert(petId);
+    if (victim != EvictionPolicy.NONE) {
+      write(victim, resident.remove(victim));
+      evictions++;
+    }
+  }
+
+  private Resident rehydrate(int petId) {
+    DormantPetStore.Dormant dormant;
+    try {
+      dormant = store.read(petId);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading pet " + petId + ": " + e.getMessage(), e);
+    }
+    if (dormant == null) {
+      throw new NoSuchElementException("No pet " + petId);
+    }
+    PetRandom random = new PetRandom();
+    random.setState(dormant.randomState());
+    return new Resident(new Pet(random, PetStates.toHealth(dormant.state())), random,
+        dormant.tick());
+  }
+
+  private void write(int petId, Resident pet) {
+    try {
+      store.write(petId, new DormantPetStore.Dormant(PetStates.pack(pet.pet.getHealth()),
+          pet.random.getState(), pet.tick));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error writing pet " + petId + ": " + e.getMessage(), e);
+    }
+  }
+
+  private static void catchUp(Resident pet, long now) {
+    if (now > pet.tick) {
+      pet.pet.step(now - pet.tick);
+      pet.tick = now;
+    }
+  }
+
+  /**
+   * A live pet with its random generator and the tick it was last advanced to.
+   */
+  private static final class Resident {
+    private final Pet pet;
+    private final PetRandom random;
+    private long tick;
+
+    Resident(Pet pet, PetRandom random, long tick) {
+      this.pet = pet;
+      this.random = random;
+      this.tick = tick;
+    }
+  }
+}
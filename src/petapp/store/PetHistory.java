@@ -0,0 +1,235 @@
+package petapp.store;
+
+import java.util.Arrays;
+import petapp.model.Action;
+import petapp.model.HealthStatus;
+import petapp.model.MoodEnum;
+import petapp.model.Pet;
+import petapp.model.PetInterface;
+import petapp.model.PetListener;
+import petapp.model.PetRandom;
+import petapp.model.PetStates;
+
+/**
+ * A pet that records its whole history and can restore the state it had at any tick.
+ * Every operation is kept as one byte, and every checkpointInterval ticks a checkpoint
+ * stores the packed pet state, its PetRandom state and the offset of the next operation,
+ * so the checkpoints are also the tick-to-offset index. Seeking restores the checkpoint at
+ * or before the tick and replays at most one interval of operations on the packed state.
+ * Not thread-safe, like Pet.
+ */
+public class PetHistory implements PetInterface {
+  /**
+   * Default number of ticks between checkpoints.
+   */
+  public static final int DEFAULT_CHECKPOINT_INTERVAL = 64;
+
+  // Operation bytes: a step, 1 + action ordinal, or SET_MOOD + mood ordinal
+  private static final byte STEP = 0;
+  private static final byte SET_MOOD = 16;
+
+  private static final Action[] ACTIONS = Action.values();
+  private static final MoodEnum[] MOODS = MoodEnum.values();
+
+  private final Pet pet;
+  private final PetRandom random;
+  private final int checkpointInterval;
+  private final PetRandom replayRandom = new PetRandom(0);
+
+  private byte[] operations = new byte[256];
+  private int operationCount;
+  private int tick;
+
+  // Checkpoint i holds the state right after tick i * checkpointInterval
+  private int[] checkpointStates = new int[16];
+  private long[] checkpointRandoms = new long[16];
+  private int[] checkpointOffsets = new int[16];
+  private int checkpointCount;
+
+  /**
+   * Creates a pet with the Pet() default values and records its history.
+   *
+   * @param seed the seed of the pet's random generator
+   */
+  public PetHistory(long seed) {
+    this(new PetRandom(seed), DEFAULT_CHECKPOINT_INTERVAL);
+  }
+
+  /**
+   * Creates a pet with the Pet() default values and records its history.
+   *
+   * @param random the random generator of the pet, only used by this pet
+   * @param checkpointInterval the number of ticks between checkpoints
+   */
+  public PetHistory(PetRandom random, int checkpointInterval) {
+    this(random, checkpointInterval, PetStates.toHealth(PetStates.DEFAULT));
+  }
+
+  /**
+   * Creates a pet that starts from a saved status and records its history from there.
+   *
+   * @param random the random generator of the pet, only used by this pet
+   * @param checkpointInterval the number of ticks between checkpoints
+   * @param initial the status at tick 0
+   */
+  public PetHistory(PetRandom random, int checkpointInterval, HealthStatus initial) {
+    if (checkpointInterval <= 0) {
+      throw new IllegalArgumentException("Checkpoint interval must be positive: "
+          + checkpointInterval);
+    }
+    this.pet = new Pet(random, initial);
+    this.random = random;
+    this.checkpointInterval = checkpointInterval;
+    checkpoint();
+  }
+
+  /**
+   * Returns the current tick, the number of steps recorded. Steps of a dead pet change
+   * nothing and are not recorded.
+   *
+   * @return the current tick
+   */
+  public int getTick() {
+    return tick;
+  }
+
+  /**
+   * Returns the state the pet had at a tick, after the step into that tick and every
+   * interaction before the next step.
+   *
+   * @param tick the tick, from 0 to getTick()
+   * @return the health status at that tick
+   */
+  public HealthStatus seek(int tick) {
+    if (tick < 0 || tick > this.tick) {
+      throw new IndexOutOfBoundsException("Tick " + tick + " outside 0-" + this.tick);
+    }
+    int checkpoint = tick / checkpointInterval;
+    int state = checkpointStates[checkpoint];
+    replayRandom.setState(checkpointRandoms[checkpoint]);
+
+    int remaining = tick - checkpoint * checkpointInterval;
+    for (int i = checkpointOffsets[checkpoint]; i < operationCount; i++) {
+      byte op = operations[i];
+      if (op == STEP) {
+        if (remaining == 0) {
+          break;
+        }
+        remaining--;
+        state = PetStates.step(state, replayRandom);
+      } else if (op >= SET_MOOD) {
+        state = PetStates.withMood(state, MOODS[op - SET_MOOD]);
+      } else {
+        state = PetStates.interact(state, ACTIONS[op - 1], replayRandom);
+      }
+    }
+    return PetStates.toHealth(state);
+  }
+
+  /**
+   * Returns a new pet in the state this pet had at a tick, that continues exactly as this
+   * pet did if given the same operations.
+   *
+   * @param tick the tick, from 0 to getTick()
+   * @return the restored pet
+   */
+  public Pet restore(int tick) {
+    HealthStatus status = seek(tick);
+    PetRandom restored = new PetRandom(0);
+    restored.setState(replayRandom.getState());
+    return new Pet(restored, status);
+  }
+
+  @Override
+  public void step() {
+    if (pet.isDead()) {
+      return;
+    }
+    pet.step();
+    record(STEP);
+    tick++;
+    if (tick % checkpointInterval == 0) {
+      checkpoint();
+    }
+  }
+
+  @Override
+  public void interactWith(Action action) {
+    if (pet.isDead()) {
+      return;
+    }
+    pet.interactWith(action);
+    record((byte) (1 + action.ordinal()));
+  }
+
+  @Override
+  public void setMood(MoodEnum mood) {
+    pet.setMood(mood);
+    record((byte) (SET_MOOD + mood.ordinal()));
+  }
+
+  private void record(byte op) {
+    if (operationCount == operations.length) {
+      operations = Arrays.copyOf(operations, operationCount * 2);
+    }
+    operations[operationCount++] = op;
+  }
+
+  private void checkpoint() {
+    if (checkpointCount == checkpointStates.length) {
+      int capacity = checkpointCount * 2;
+      checkpointStates = Arrays.copyOf(checkpointStates, capacity);
+      checkpointRandoms = Arrays.copyOf(checkpointRandoms, capacity);
+      checkpointOffsets = Arrays.copyOf(checkpointOffsets, capacity);
+    }
+    checkpointStates[checkpointCount] = PetStates.pack(pet.getHealth());
+    checkpointRandoms[checkpointCount] = random.getState();
+    checkpointOffsets[checkpointCount] = operationCount;
+    checkpointCount++;
+  }
+
+  @Override
+  public HealthStatus getHealth() {
+    return pet.getHealth();
+  }
+
+  @Override
+  public MoodEnum getMood() {
+    return pet.getMood();
+  }
+
+  @Override
+  public int getHunger() {
+    return pet.getHunger();
+  }
+
+  @Override
+  public int getHygiene() {
+    return pet.getHygiene();
+  }
+
+  @Override
+  public int getSocial() {
+    return pet.getSocial();
+  }
+
+  @Override
+  public int getSleep() {
+    return pet.getSleep();
+  }
+
+  @Override
+  public boolean isDead() {
+    return pet.isDead();
+  }
+
+  @Override
+  public void addListener(PetListener listener) {
+    pet.addListener(listener);
+  }
+
+  @Override
+  public void removeListener(PetListener listener) {
+    pet.removeListener(listener);
+  }
+}
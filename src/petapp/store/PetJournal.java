@@ -0,0 +1,389 @@
+package petapp.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+import petapp.model.Action;
+import petapp.model.MoodEnum;
+import petapp.model.Pet;
+import petapp.model.PetRandom;
+
+/**
+ * Append-only journal of pet operations, so pets survive a restart by replaying it.
+ * Every record is 24 little-endian bytes: the pet's tick (8), its PetRandom state before
+ * the operation (48 bits) with the operation and its argument in the top 16 bits (8),
+ * the pet id (4) and a CRC32C of the first 20 bytes (4).
+ * Records are written into memory-mapped segments of the file. Writers block until their
+ * record is durable, and durability uses group commit: the first waiting writer becomes the
+ * leader and forces every pending record with one fsync once groupSize records are pending,
+ * or once it has waited maxDelay for more writers to join.
+ */
+public final class PetJournal implements AutoCloseable {
+  /**
+   * Bytes of one record.
+   */
+  public static final int RECORD_BYTES = 24;
+
+  // Operation codes, 0 marks the end of the journal
+  static final int CREATE = 1;
+  static final int STEP = 2;
+  static final int ACTION = 3;
+  static final int SET_MOOD = 4;
+
+  private static final long MAGIC = 0x314C4E524A544550L; // "PETJRNL1"
+  private static final int HEADER_BYTES = 16;
+  private static final long SEGMENT_BYTES = 64L << 20;
+  private static final long STATE_MASK = (1L << 48) - 1;
+
+  private static final Action[] ACTIONS = Action.values();
+  private static final MoodEnum[] MOODS = MoodEnum.values();
+
+  private final FileChannel channel;
+  private final int groupSize;
+  private final long maxDelayNanos;
+
+  // Guards everything below, and signals writers when the durable position moves
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition durableMoved = lock.newCondition();
+  private final CRC32C crc = new CRC32C();
+  private final byte[] scratch = new byte[RECORD_BYTES];
+  private final ByteBuffer record = ByteBuffer.wrap(scratch).order(ByteOrder.LITTLE_ENDIAN);
+
+  private MappedByteBuffer segment;
+  private long segmentStart;
+  private long written;
+  private long durable;
+  private boolean flushing;
+  private boolean closed;
+
+  // Counters for throughput reports
+  private long records;
+  private long syncs;
+
+  private PetJournal(FileChannel channel, int groupSize, long maxDelayNanos) {
+    this.channel = channel;
+    this.groupSize = groupSize;
+    this.maxDelayNanos = maxDelayNanos;
+  }
+
+  /**
+   * Opens a journal file for appending, creating it if needed.
+   *
+   * @param path the journal file
+   * @param groupSize the number of pending records that triggers an fsync, or 0 to never
+   *     wait for durability and leave writing back to the operating system
+   * @param maxDelay the longest a writer waits for a group to fill, in microseconds
+   * @return the journal
+   * @throws IOException if the file cannot be opened or is not a journal
+   */
+  public static PetJournal open(Path path, int groupSize, long maxDelay) throws IOException {
+    if (groupSize < 0) {
+      throw new IllegalArgumentException("Negative group size: " + groupSize);
+    }
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    PetJournal journal = new PetJournal(channel, groupSize,
+        TimeUnit.MICROSECONDS.toNanos(maxDelay));
+    try {
+      journal.start(channel.size() == 0);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+    return journal;
+  }
+
+  /**
+   * Writes the header of a new journal, or finds the end of an existing one and clears
+   * anything after it, so stale records past a torn write are never replayed later.
+   */
+  private void start(boolean empty) throws IOException {
+    map(0);
+    if (empty) {
+      segment.order(ByteOrder.LITTLE_ENDIAN).putLong(0, MAGIC).putInt(8, RECORD_BYTES);
+      segment.force();
+      written = HEADER_BYTES;
+    } else {
+      if (segment.order(ByteOrder.LITTLE_ENDIAN).getLong(0) != MAGIC
+          || segment.getInt(8) != RECORD_BYTES) {
+        throw new IOException("Not a pet journal");
+      }
+      written = HEADER_BYTES;
+      while (readRecord(written) != null) {
+        written += RECORD_BYTES;
+      }
+      for (long position = written; position < channel.size(); position += RECORD_BYTES) {
+        if (isBlank(position)) {
+          break;
+        }
+        ensureMapped(position);
+        segment.put((int) (position - segmentStart), new byte[RECORD_BYTES]);
+      }
+      ensureMapped(written);
+      segment.force();
+    }
+    durable = written;
+  }
+
+  /**
+   * Creates a journaled pet with the Pet() default values and records its creation.
+   *
+   * @param petId the pet id, unique in this journal
+   * @param seed the seed of the pet's random generator
+   * @return the journaled pet
+   */
+  public JournaledPet create(int petId, long seed) {
+    PetRandom random = new PetRandom(seed);
+    append(petId, 0, CREATE, 0, random.getState());
+    return new JournaledPet(this, petId, new Pet(random), random, 0);
+  }
+
+  /**
+   * Replays every record of this journal and returns the rebuilt pets, attached to this
+   * journal so that new operations continue the same history.
+   *
+   * @return the pets by id
+   */
+  public Map<Integer, JournaledPet> recover() {
+    lock.lock();
+    try {
+      Map<Integer, JournaledPet> pets = new HashMap<>();
+      for (long position = HEADER_BYTES; position < written; position += RECORD_BYTES) {
+        long[] fields = readRecord(position);
+        replay(pets, (int) fields[2], fields[0], fields[1]);
+      }
+      return pets;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading journal: " + e.getMessage(), e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void replay(Map<Integer, JournaledPet> pets, int petId, long tick, long word) {
+    int op = (int) (word >>> 48) & 0xFF;
+    int arg = (int) (word >>> 56);
+    long state = word & STATE_MASK;
+
+    if (op == CREATE) {
+      PetRandom random = new PetRandom(0);
+      random.setState(state);
+      pets.put(petId, new JournaledPet(this, petId, new Pet(random), random, tick));
+      return;
+    }
+    JournaledPet pet = pets.get(petId);
+    if (pet == null) {
+      throw new IllegalStateException("Journal has operations on unknown pet " + petId);
+    }
+    pet.replay(op, arg, state, tick);
+  }
+
+  /**
+   * Appends a record and waits until it is durable.
+   *
+   * @return the journal position after the record
+   */
+  long append(int petId, long tick, int op, int arg, long randomState) {
+    long end;
+    lock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("Journal is closed");
+      }
+      ensureMapped(written);
+      record.putLong(0, tick)
+          .putLong(8, (randomState & STATE_MASK) | (long) op << 48 | (long) arg << 56)
+          .putInt(16, petId);
+      crc.reset();
+      crc.update(scratch, 0, 20);
+      record.putInt(20, (int) crc.getValue());
+      segment.put((int) (written - segmentStart), scratch);
+
+      written += RECORD_BYTES;
+      records++;
+      end = written;
+      if (groupSize > 0) {
+        awaitDurable(end);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error writing journal: " + e.getMessage(), e);
+    } finally {
+      lock.unlock();
+    }
+    return end;
+  }
+
+  /**
+   * Waits until the journal is durable up to a position, leading a group commit if no other
+   * writer is flushing. Called with the lock held.
+   */
+  private void awaitDurable(long position) throws IOException {
+    long deadline = System.nanoTime() + maxDelayNanos;
+    while (durable < position) {
+      long pending = (written - durable) / RECORD_BYTES;
+      long remaining = deadline - System.nanoTime();
+      if (!flushing && (pending >= groupSize || remaining <= 0)) {
+        flush();
+      } else {
+        try {
+          durableMoved.awaitNanos(flushing ? Long.MAX_VALUE : remaining);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("Interrupted while waiting for the journal", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Forces every pending record, releasing the lock during the fsync so other writers keep
+   * appending to the next group. Called with the lock held.
+   */
+  private void flush() throws IOException {
+    flushing = true;
+    long target = written;
+    MappedByteBuffer buffer = segment;
+    int from = (int) Math.max(0, durable - segmentStart);
+    int to = (int) (target - segmentStart);
+    lock.unlock();
+    try {
+      buffer.force(from, to - from);
+    } finally {
+      lock.lock();
+      flushing = false;
+      durable = Math.max(durable, target);
+      syncs++;
+      durableMoved.signalAll();
+    }
+  }
+
+  /**
+   * Forces everything appended so far.
+   */
+  public void sync() {
+    lock.lock();
+    try {
+      while (flushing) {
+        durableMoved.awaitUninterruptibly();
+      }
+      if (durable < written) {
+        flush();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error syncing journal: " + e.getMessage(), e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of records appended since the journal was opened.
+   *
+   * @return the record count
+   */
+  public long records() {
+    lock.lock();
+    try {
+      return records;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of fsyncs since the journal was opened.
+   *
+   * @return the sync count
+   */
+  public long syncs() {
+    lock.lock();
+    try {
+      return syncs;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    sync();
+    lock.lock();
+    try {
+      closed = true;
+      channel.close();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Maps a segment holding the record at a position, forcing the previous segment first so
+   * a segment switch never leaves pending records behind. Segments start at a record, so
+   * records never straddle two of them. Called with the lock held.
+   */
+  private void ensureMapped(long position) throws IOException {
+    if (position >= segmentStart && position + RECORD_BYTES <= segmentStart + SEGMENT_BYTES) {
+      return;
+    }
+    segment.force();
+    durable = Math.max(durable, Math.min(written, segmentStart + SEGMENT_BYTES));
+    map(position);
+  }
+
+  private void map(long start) throws IOException {
+    segment = channel.map(FileChannel.MapMode.READ_WRITE, start, SEGMENT_BYTES);
+    segmentStart = start;
+  }
+
+  /**
+   * Reads the record at a position, or returns null at the end of the journal or at a torn
+   * record. Returns {tick, operation word, pet id}.
+   */
+  private long[] readRecord(long position) throws IOException {
+    if (position + RECORD_BYTES > channel.size()) {
+      return null;
+    }
+    ensureMapped(position);
+    segment.get((int) (position - segmentStart), scratch);
+    long word = record.getLong(8);
+    if (word >>> 48 == 0) {
+      return null;
+    }
+    crc.reset();
+    crc.update(scratch, 0, 20);
+    if (record.getInt(20) != (int) crc.getValue()) {
+      return null;
+    }
+    return new long[]{record.getLong(0), word, record.getInt(16)};
+  }
+
+  private boolean isBlank(long position) throws IOException {
+    ensureMapped(position);
+    segment.get((int) (position - segmentStart), scratch);
+    for (byte b : scratch) {
+      if (b != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static Action action(int ordinal) {
+    return ACTIONS[ordinal];
+  }
+
+  static MoodEnum mood(int ordinal) {
+    return MOODS[ordinal];
+  }
+}
@@ -0,0 +1,174 @@
+package petapp.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import petapp.model.PackedPetStore;
+import petapp.model.PetPopulation;
+
+/**
+ * Binary snapshots of whole populations.
+ * A snapshot is a 32-byte little-endian header (magic, format version, record size, pet
+ * count and 8 reserved bytes) followed by one 4-byte record per pet, the packed PetStates
+ * word with the HealthStatus fields, mood and dead flag. The records are laid out exactly
+ * like a mapped PackedPetStore, so loading only validates the header and maps the file:
+ * no pet is parsed or allocated until it is read.
+ * Random generator states are not part of a snapshot.
+ */
+public final class PetSnapshot {
+  /**
+   * Current format version.
+   */
+  public static final int VERSION = 1;
+
+  /**
+   * Bytes of the header, the first record starts here.
+   */
+  public static final int HEADER_BYTES = 32;
+
+  private static final long MAGIC = 0x3150414E53544550L; // "PETSNAP1"
+
+  private PetSnapshot() {
+  }
+
+  /**
+   * Saves every pet of a store. The snapshot is written to a temporary file and forced to
+   * the storage device, then moved over the target and the move forced with the directory,
+   * so an interrupted save, even by an OS crash, never leaves a torn snapshot behind.
+   *
+   * @param path the snapshot file
+   * @param store the pets to save
+   * @throws IOException if the snapshot cannot be written
+   */
+  public static void save(Path path, PackedPetStore store) throws IOException {
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+          .putLong(MAGIC)
+          .putInt(VERSION)
+          .putInt(PackedPetStore.BYTES_PER_PET)
+          .putLong(store.size())
+          .putLong(0)
+          .flip();
+      while (header.hasRemaining()) {
+        channel.write(header, header.position());
+      }
+      PackedPetStore records =
+          PackedPetStore.map(channel, FileChannel.MapMode.READ_WRITE, HEADER_BYTES, store.size());
+      records.copyFrom(store);
+      // The records are written through the mapping, which channel.force() does not cover
+      records.force();
+      channel.force(true);
+    }
+    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    forceDirectory(path.toAbsolutePath().getParent());
+  }
+
+  /**
+   * Forces a directory's entries, such as a rename into it, to the storage device.
+   * Platforms that cannot open a directory as a channel, such as Windows, are skipped: they
+   * do not offer this guarantee to Java.
+   */
+  private static void forceDirectory(Path directory) throws IOException {
+    FileChannel channel;
+    try {
+      channel = FileChannel.open(directory, StandardOpenOption.READ);
+    } catch (IOException e) {
+      return;
+    }
+    try (channel) {
+      channel.force(true);
+    }
+  }
+
+  /**
+   * Saves every pet of a population.
+   *
+   * @param path the snapshot file
+   * @param population the pets to save
+   * @throws IOException if the snapshot cannot be written
+   */
+  public static void save(Path path, PetPopulation population) throws IOException {
+    PackedPetStore store = PackedPetStore.allocate(population.size());
+    for (int i = 0; i < population.size(); i++) {
+      store.set(i, population.getState(i));
+    }
+    save(path, store);
+  }
+
+  /**
+   * Maps a snapshot as a store. With READ_WRITE, changes to the pets are written back to
+   * the snapshot; with PRIVATE they stay in memory.
+   *
+   * @param path the snapshot file
+   * @param mode the map mode
+   * @return the mapped pets
+   * @throws IOException if the file cannot be read or is not a snapshot of this version
+   */
+  public static PackedPetStore map(Path path, FileChannel.MapMode mode) throws IOException {
+    StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+        ? new StandardOpenOption[]{StandardOpenOption.READ}
+        : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE};
+    // The mapping stays valid after the channel is closed
+    try (FileChannel channel = FileChannel.open(path, options)) {
+      long count = readHeader(channel);
+      return PackedPetStore.map(channel, mode, HEADER_BYTES, count);
+    }
+  }
+
+  /**
+   * Loads a snapshot into a population of the same size.
+   *
+   * @param path the snapshot file
+   * @param population the population to overwrite
+   * @throws IOException if the file cannot be read, is not a snapshot of this version or
+   *     holds a different number of pets
+   */
+  public static void load(Path path, PetPopulation population) throws IOException {
+    PackedPetStore store = map(path, FileChannel.MapMode.READ_ONLY);
+    if (store.size() != population.size()) {
+      throw new IOException("Snapshot holds " + store.size() + " pets, population has "
+          + population.size());
+    }
+    for (int i = 0; i < population.size(); i++) {
+      population.setState(i, store.get(i));
+    }
+  }
+
+  /**
+   * Validates the header and returns the pet count.
+   */
+  private static long readHeader(FileChannel channel) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    while (header.hasRemaining()) {
+      if (channel.read(header, header.position()) < 0) {
+        throw new IOException("Not a pet snapshot: file too short");
+      }
+    }
+    header.flip();
+    if (header.getLong() != MAGIC) {
+      throw new IOException("Not a pet snapshot");
+    }
+    int version = header.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported snapshot version " + version);
+    }
+    int recordBytes = header.getInt();
+    if (recordBytes != PackedPetStore.BYTES_PER_PET) {
+      throw new IOException("Unsupported snapshot record size " + recordBytes);
+    }
+    long count = header.getLong();
+    if (count < 0 || channel.size() < HEADER_BYTES + count * recordBytes) {
+      throw new IOException("Truncated snapshot of " + count + " pets");
+    }
+    return count;
+  }
+}
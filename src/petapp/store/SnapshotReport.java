@@ -0,0 +1,55 @@
+package petapp.store;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import petapp.model.PackedPetStore;
+import petapp.model.PetRandom;
+import petapp.model.PetStates;
+
+/**
+ * Measures saving a large population to a snapshot and restarting from it.
+ * Prints the save time, the time to map the snapshot, and the time of a first full pass
+ * over the mapped pets, which is when the pages are actually read.
+ */
+public class SnapshotReport {
+
+  /**
+   * Report entry point.
+   *
+   * @param args optional number of pets (default 50,000,000)
+   * @throws Exception if the snapshot cannot be written or read
+   */
+  public static void main(String[] args) throws Exception {
+    long count = args.length > 0 ? Long.parseLong(args[0]) : 50_000_000L;
+    Path path = Files.createTempFile("pet-snapshot", ".bin");
+    try {
+      PackedPetStore store = PackedPetStore.allocate(count);
+      store.stepAll(new PetRandom(42));
+
+      long start = System.nanoTime();
+      PetSnapshot.save(path, store);
+      double saveSeconds = (System.nanoTime() - start) / 1e9;
+
+      start = System.nanoTime();
+      PackedPetStore loaded = PetSnapshot.map(path, FileChannel.MapMode.READ_ONLY);
+      double mapSeconds = (System.nanoTime() - start) / 1e9;
+
+      start = System.nanoTime();
+      long alive = 0;
+      for (long i = 0; i < loaded.size(); i++) {
+        if (!PetStates.isDead(loaded.get(i))) {
+          alive++;
+        }
+      }
+      double scanSeconds = (System.nanoTime() - start) / 1e9;
+
+      System.out.printf("%,d pets, %,d MB snapshot%n", count,
+          Files.size(path) >> 20);
+      System.out.printf("save %.2f s, map %.4f s, first scan %.2f s (%,d alive)%n",
+          saveSeconds, mapSeconds, scanSeconds, alive);
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package petapp.store;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Window TinyLFU: evicts by recency inside a small admission window and by frequency
+ * everywhere else, so one-off accesses, such as a scan over every pet, cannot flush out
+ * the pets that are used all the time.
+ * New pets enter a window LRU of 1% of the capacity. A pet leaving the window competes with
+ * the LRU pet of the main space for its place, and the one accessed more often by the
+ * estimate of a count-min sketch stays. The main space is a segmented LRU: pets accessed
+ * again move from the probation segment to the protected one, which holds 80% of it.
+ */
+public class TinyLfuPolicy implements EvictionPolicy {
+  private final int windowCapacity;
+  private final int mainCapacity;
+  private final int protectedCapacity;
+
+  // Access-ordered segments, the eldest entry of each is its least recently used pet
+  private final Map<Integer, Boolean> window;
+  private final Map<Integer, Boolean> probation;
+  private final Map<Integer, Boolean> protectedSegment;
+
+  private final FrequencySketch sketch;
+
+  /**
+   * Creates a policy for a cache of the given capacity.
+   *
+   * @param capacity the maximum number of resident pets
+   */
+  public TinyLfuPolicy(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    windowCapacity = Math.max(1, capacity / 100);
+    mainCapacity = capacity - windowCapacity;
+    protectedCapacity = mainCapacity * 4 / 5;
+    window = new LinkedHashMap<>(16, 0.75f, true);
+    probation = new LinkedHashMap<>(16, 0.75f, true);
+    protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    sketch = new FrequencySketch(capacity);
+  }
+
+  @Override
+  public void onAccess(int petId) {
+    sketch.increment(petId);
+    if (window.get(petId) != null || protectedSegment.get(petId) != null) {
+      return;
+    }
+    if (probation.remove(petId) != null) {
+      protectedSegment.put(petId, Boolean.TRUE);
+      if (protectedSegment.size() > protectedCapacity) {
+        // The least recently used protected pet gets another chance in probation
+        probation.put(removeEldest(protectedSegment), Boolean.TRUE);
+      }
+    }
+  }
+
+  @Override
+  public int onInsert(int petId) {
+    sketch.increment(petId);
+    window.put(petId, Boolean.TRUE);
+    if (window.size() <= windowCapacity) {
+      return NONE;
+    }
+    int candidate = removeEldest(window);
+    if (mainCapacity == 0) {
+      // A cache of one pet is all window, the previous pet has nowhere to go
+      return candidate;
+    }
+    if (probation.size() + protectedSegment.size() < mainCapacity) {
+      probation.put(candidate, Boolean.TRUE);
+      return NONE;
+    }
+    Map<Integer, Boolean> victims = probation.isEmpty() ? protectedSegment : probation;
+    int victim = victims.keySet().iterator().next();
+    if (sketch.frequency(candidate) <= sketch.frequency(victim)) {
+      return candidate;
+    }
+    victims.remove(victim);
+    probation.put(candidate, Boolean.TRUE);
+    return victim;
+  }
+
+  private static int removeEldest(Map<Integer, Boolean> segment) {
+    Iterator<Integer> eldest = segment.keySet().iterator();
+    int petId = eldest.next();
+    eldest.remove();
+    return petId;
+  }
+
+  /**
+   * Count-min sketch of recent access frequencies: four rows of 4-bit counters packed into
+   * longs. Every counter is halved once the sketch has seen ten accesses per resident pet,
+   * so the estimates follow changes in popularity.
+   */
+  static final class FrequencySketch {
+    private static final long[] SEEDS = {
+        0x97CB3127E9D1F5A3L, 0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL};
+    private static final long HALF_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int capacity) {
+      // 16 counters per long, about one long per resident pet
+      int length = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+      table = new long[Math.min(length, 1 << 26)];
+      mask = table.length - 1;
+      sampleSize = 10 * Math.max(capacity, 1);
+    }
+
+    void increment(int key) {
+      boolean added = false;
+      for (int row = 0; row < SEEDS.length; row++) {
+        int index = index(key, row);
+        int shift = shift(key, row);
+        if (((table[index] >>> shift) & 0xF) < 0xF) {
+          table[index] += 1L << shift;
+          added = true;
+        }
+      }
+      if (added && ++additions == sampleSize) {
+        for (int i = 0; i < table.length; i++) {
+          table[i] = (table[i] >>> 1) & HALF_MASK;
+        }
+        additions /= 2;
+      }
+    }
+
+    int frequency(int key) {
+      int frequency = 0xF;
+      for (int row = 0; row < SEEDS.length; row++) {
+        frequency = Math.min(frequency,
+            (int) (table[index(key, row)] >>> shift(key, row)) & 0xF);
+      }
+      return frequency;
+    }
+
+    private long hash(int key, int row) {
+      long h = (key + SEEDS[row]) * SEEDS[(row + 1) & 3];
+      return h ^ (h >>> 29);
+    }
+
+    private int index(int key, int row) {
+      return (int) (hash(key, row) >>> 32) & mask;
+    }
+
+    private int shift(int key, int row) {
+      // Counter 0-15 inside the long
+      return ((int) hash(key, row) & 0xF) << 2;
+    }
+  }
+}
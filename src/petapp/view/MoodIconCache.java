@@ -0,0 +1,205 @@
+package petapp.view;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BaseMultiResolutionImage;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+/**
+ * Cache of the mood images, decoded and scaled once instead of on every update.
+ * Each image is drawn into display-compatible BufferedImages at the 256 pixel display size
+ * and at 1.5 and 2 times that for HiDPI screens, and wrapped in one multi-resolution
+ * ImageIcon. warmUp() prepares all moods on a background thread at startup, after which
+ * showing a mood is a map lookup returning the same icon every time.
+ */
+public final class MoodIconCache {
+  /**
+   * Displayed width and height of the mood images.
+   */
+  public static final int SIZE = 256;
+
+  // Screen scales that get their own variant, the display size first
+  private static final double[] SCALES = {1.0, 1.5, 2.0};
+
+  // Moods with an image, warmed up in this order so the first one shown is ready first
+  private static final List<String> MOODS = List.of("HAPPY", "SAD", "ANXIETY", "DEAD");
+
+  private static final MoodIconCache SHARED = new MoodIconCache(
+      task -> Thread.ofPlatform().daemon().name("mood-icon-warmup").start(task));
+
+  private final Executor executor;
+  private final Function<String, ImageIcon> loader;
+  // Icons by lowercase mood, a completed null stands for a missing or unloadable image
+  private final Map<String, CompletableFuture<ImageIcon>> icons = new ConcurrentHashMap<>();
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param executor runs the warm-up
+   */
+  MoodIconCache(Executor executor) {
+    this(executor, MoodIconCache::load);
+  }
+
+  /**
+   * Creates an empty cache with its own image loader.
+   *
+   * @param executor runs the warm-up
+   * @param loader prepares the icon of a mood, null if it has no image
+   */
+  MoodIconCache(Executor executor, Function<String, ImageIcon> loader) {
+    this.executor = executor;
+    this.loader = loader;
+  }
+
+  /**
+   * Returns the cache shared by all views.
+   *
+   * @return the shared cache
+   */
+  public static MoodIconCache shared() {
+    return SHARED;
+  }
+
+  /**
+   * Starts preparing the icons of all moods not prepared yet, in one background task.
+   *
+   * @return a future completing when they are ready
+   */
+  public CompletableFuture<Void> warmUp() {
+    List<CompletableFuture<ImageIcon>> pending = MOODS.stream()
+        .map(mood -> icons.computeIfAbsent(key(mood), k -> new CompletableFuture<>()))
+        .filter(icon -> !icon.isDone())
+        .toList();
+    Runnable task = () -> {
+      try {
+        for (String mood : MOODS) {
+          CompletableFuture<ImageIcon> icon = icons.get(key(mood));
+          if (!icon.isDone()) {
+            icon.complete(loadOrNull(mood));
+          }
+        }
+      } finally {
+        // Even an Error must not leave get() waiting forever, the moods go without images
+        completeWithNull(pending);
+      }
+    };
+    try {
+      executor.execute(task);
+    } catch (RuntimeException e) {
+      System.err.println("Error starting the image warm-up: " + e);
+      completeWithNull(pending);
+    }
+    return CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new));
+  }
+
+  /**
+   * Returns the icon of a mood, waiting for the warm-up if it is still preparing it, or
+   * preparing it on this thread if no warm-up was started.
+   *
+   * @param mood the String representing the pet's mood state (e.g., "HAPPY", "SAD", "DEAD").
+   * @return the icon, or null if there is no image for the mood
+   */
+  public ImageIcon get(String mood) {
+    CompletableFuture<ImageIcon> icon = icons.get(key(mood));
+    if (icon == null) {
+      CompletableFuture<ImageIcon> created = new CompletableFuture<>();
+      icon = icons.putIfAbsent(key(mood), created);
+      if (icon == null) {
+        try {
+          created.complete(loadOrNull(mood));
+        } finally {
+          created.complete(null);
+        }
+        icon = created;
+      }
+    }
+    return icon.join();
+  }
+
+  /**
+   * Prepares a mood's icon, returns null if it is missing or fails to load for any reason.
+   */
+  private ImageIcon loadOrNull(String mood) {
+    try {
+      return loader.apply(mood);
+    } catch (RuntimeException e) {
+      System.err.println("Error loading image of " + mood + ": " + e);
+      return null;
+    }
+  }
+
+  private static void completeWithNull(List<CompletableFuture<ImageIcon>> icons) {
+    for (CompletableFuture<ImageIcon> icon : icons) {
+      icon.complete(null);
+    }
+  }
+
+  private static String key(String mood) {
+    return mood.toLowerCase();
+  }
+
+  /**
+   * Decodes a mood's image and scales it to every variant, returns null if it is missing.
+   */
+  private static ImageIcon load(String mood) {
+    String imagePath = "/images/" + key(mood) + ".png";
+    try (InputStream in = MoodIconCache.class.getResourceAsStream(imagePath)) {
+      if (in == null) {
+        System.err.println("Image not found in resources: " + imagePath);
+        return null;
+      }
+      BufferedImage image = ImageIO.read(in);
+      Image[] variants = new Image[SCALES.length];
+      for (int i = 0; i < SCALES.length; i++) {
+        variants[i] = scale(image, (int) Math.round(SIZE * SCALES[i]));
+      }
+      return new ImageIcon(new BaseMultiResolutionImage(variants));
+    } catch (IOException e) {
+      System.err.println("Error loading image: " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Draws an image scaled to a square of the given size into a display-compatible image.
+   */
+  static BufferedImage scale(BufferedImage image, int size) {
+    BufferedImage scaled = compatibleImage(size);
+    Graphics2D g = scaled.createGraphics();
+    try {
+      g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+          RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+      g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      g.drawImage(image, 0, 0, size, size, null);
+    } finally {
+      g.dispose();
+    }
+    return scaled;
+  }
+
+  /**
+   * Returns a translucent image in the screen's pixel layout, so painting it needs no
+   * conversion, or a premultiplied ARGB image without a screen.
+   */
+  private static BufferedImage compatibleImage(int size) {
+    if (GraphicsEnvironment.isHeadless()) {
+      return new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+    return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+        .getDefaultConfiguration().createCompatibleImage(size, size, Transparency.TRANSLUCENT);
+  }
+}
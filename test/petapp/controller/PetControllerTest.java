@@ -0,0 +1,86 @@
+package petapp.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import org.junit.Test;
+import petapp.model.Action;
+import petapp.model.HealthStatus;
+import petapp.model.PackedPet;
+import petapp.model.PackedPetStore;
+import petapp.model.Pet;
+import petapp.model.PetRandom;
+import petapp.view.PetPanel;
+
+/**
+ * Tests for the pet controller, driven on the event dispatch thread like the view does.
+ */
+public class PetControllerTest {
+
+  @Test
+  public void testExitStopsAutopilot() throws Exception {
+    Pet pet = new Pet(new Random(42));
+    AtomicReference<PetPanel> view = new AtomicReference<>();
+    AtomicReference<PetController> controller = new AtomicReference<>();
+    SwingUtilities.invokeAndWait(() -> {
+      view.set(new PetPanel());
+      controller.set(new PetController(pet, view.get()));
+      view.get().getAutopilotButton().doClick();
+    });
+    Timer timer = controller.get().getAutopilotTimer();
+
+    // The policy is solved in the background before the timer starts
+    AtomicBoolean running = new AtomicBoolean();
+    long deadline = System.nanoTime() + 60_000_000_000L;
+    while (!running.get() && System.nanoTime() < deadline) {
+      Thread.sleep(50);
+      SwingUtilities.invokeAndWait(() -> running.set(timer.isRunning()));
+    }
+    assertTrue(running.get());
+
+    SwingUtilities.invokeAndWait(() -> {
+      view.get().getExitButton().doClick();
+      assertTrue(controller.get().isExited());
+      assertFalse(timer.isRunning());
+      assertFalse(view.get().getAutopilotButton().isSelected());
+      assertFalse(view.get().getAutopilotButton().isEnabled());
+
+      // A tick already queued when the pet was abandoned leaves it alone
+      HealthStatus exited = pet.getHealth();
+      for (ActionListener listener : timer.getActionListeners()) {
+        listener.actionPerformed(new ActionEvent(timer, ActionEvent.ACTION_PERFORMED, null));
+      }
+      controller.get().handleInteraction(List.of(Action.PLAY));
+      assertEquals(exited, pet.getHealth());
+    });
+  }
+
+  @Test
+  public void testPackedPetIsFollowedByItsDeltas() throws Exception {
+    PackedPet pet = PackedPetStore.allocate(1).pet(0, new PetRandom(3));
+    AtomicReference<Integer> shownHunger = new AtomicReference<>();
+    SwingUtilities.invokeAndWait(() -> {
+      PetPanel view = new PetPanel() {
+        @Override
+        public void updateHealth(int hunger, int hygiene, int social, int sleep,
+            boolean alive) {
+          super.updateHealth(hunger, hygiene, social, sleep, alive);
+          shownHunger.set(hunger);
+        }
+      };
+      // The view follows the deltas a packed pet publishes
+      new PetController(pet, view).handleInteraction(List.of(Action.FEED));
+    });
+    assertEquals(pet.getHunger(), (int) shownHunger.get());
+    assertTrue(pet.getHunger() < 20);
+  }
+}
@@ -0,0 +1,165 @@
+package petapp.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+import petapp.model.Action;
+import petapp.model.HealthStatus;
+import petapp.model.MoodEnum;
+import petapp.model.Pet;
+import petapp.model.PetStates;
+import petapp.test.TestPets;
+
+/**
+ * Tests for the Flight Recorder events and the recording analyzer.
+ */
+public class PetFlightTest {
+
+  @Test
+  public void testRecordsModelEvents() throws Exception {
+    Path file = Files.createTempFile("pets", ".jfr");
+    try {
+      try (Recording recording = new Recording()) {
+        for (Class<? extends SampledEvent> type : Set.of(PetStepEvent.class,
+            PetInteractionEvent.class, MoodChangeEvent.class, PetDeathEvent.class)) {
+          recording.enable(type).withThreshold(Duration.ZERO).with("sample", "1");
+        }
+        recording.start();
+        Pet pet = TestPets.calmPet(new HealthStatus(MoodEnum.HAPPY, false, 20, 20, 20, 20));
+        pet.step();
+        pet.interactWith(Action.FEED);
+        pet.interactWith(Action.FEED);
+        pet.setMood(MoodEnum.SAD);
+        Pet dying = TestPets.calmPet(new HealthStatus(MoodEnum.HAPPY, false, 95, 10, 10, 95));
+        dying.step(5);
+        recording.stop();
+        recording.dump(file);
+      }
+
+      RecordingAnalyzer analyzer = new RecordingAnalyzer(file);
+      Map<String, long[]> latencies = analyzer.getLatencies();
+      assertEquals(2, latencies.get("model STEP").length);
+      assertEquals(2, latencies.get("model FEED").length);
+      // setMood, and the dying pet turning sad in its fatal step
+      assertEquals(Long.valueOf(2), analyzer.getMoodChanges().get("HAPPY->SAD"));
+      assertEquals(Map.of("NEGLECT", 1L), analyzer.getDeaths());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testStepEventsCountTheTicksAdvanced() throws Exception {
+    Path file = Files.createTempFile("pets", ".jfr");
+    try {
+      try (Recording recording = new Recording()) {
+        recording.enable(PetStepEvent.class).withThreshold(Duration.ZERO).with("sample", "1");
+        recording.start();
+        Pet dying = TestPets.calmPet(new HealthStatus(MoodEnum.HAPPY, false, 95, 10, 10, 95));
+        // The pet dies on the first of the ticks, the dead pet's steps record nothing
+        dying.step(1000);
+        dying.step(1000);
+        dying.step();
+        TestPets.calmPet().step(-5);
+        recording.stop();
+        recording.dump(file);
+      }
+
+      List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+          .filter(event -> event.getEventType().getName().equals("petapp.PetStep"))
+          .toList();
+      assertEquals(1, events.size());
+      assertEquals(1, events.get(0).getLong("ticks"));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testControllerBatchesAreKeyedByAction() throws Exception {
+    Path file = Files.createTempFile("pets", ".jfr");
+    try {
+      try (Recording recording = new Recording()) {
+        recording.enable(PetInteractionEvent.class).withThreshold(Duration.ZERO)
+            .with("sample", "1");
+        recording.start();
+        for (List<Action> clicks : List.of(List.of(Action.FEED),
+            List.of(Action.FEED, Action.FEED), List.of(Action.FEED, Action.PLAY),
+            List.of(Action.PLAY, Action.FEED, Action.PLAY))) {
+          PetFlight.interacted(PetFlight.beginInteraction(), PetFlight.CONTROLLER, clicks,
+              PetStates.DEFAULT, PetStates.DEFAULT);
+        }
+        recording.stop();
+        recording.dump(file);
+      }
+
+      // Repeated clicks of one button count as that action, mixed clicks as one BATCH row
+      Map<String, long[]> latencies = new RecordingAnalyzer(file).getLatencies();
+      assertEquals(Set.of("controller FEED", "controller BATCH"), latencies.keySet());
+      assertEquals(2, latencies.get("controller FEED").length);
+      assertEquals(2, latencies.get("controller BATCH").length);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testNothingRecordedWhenDisabled() {
+    assertTrue(!PetFlight.isRecording(PetFlight.STEP));
+    assertTrue(!PetFlight.isRecording(null));
+    assertNull(PetFlight.beginStep());
+    assertNull(PetFlight.beginInteraction());
+  }
+
+  @Test
+  public void testSampleSetting() {
+    SampleSetting setting = new SampleSetting();
+    assertEquals(SampleSetting.EVERY, setting.combine(Set.of()));
+    assertEquals("8", setting.combine(Set.of("64", "8")));
+    setting.setValue("not a number");
+    assertEquals("1", setting.getValue());
+    assertTrue(setting.sample());
+
+    setting.setValue("1000");
+    int sampled = 0;
+    for (int i = 0; i < 100_000; i++) {
+      sampled += setting.sample() ? 1 : 0;
+    }
+    // 100 expected, the bounds are more than 6 standard deviations away
+    assertTrue(String.valueOf(sampled), sampled > 40 && sampled < 160);
+  }
+
+  @Test
+  public void testProfileParses() throws Exception {
+    try (InputStream in = PetFlightTest.class.getResourceAsStream("/jfr/petapp.jfc")) {
+      Configuration profile = Configuration.create(new InputStreamReader(in,
+          StandardCharsets.UTF_8));
+      assertEquals("65536", profile.getSettings().get("petapp.PetStep#sample"));
+      assertEquals("4096", profile.getSettings().get("petapp.PetInteraction#sample"));
+      assertNull(profile.getSettings().get("petapp.PetStep#stackTrace"));
+    }
+  }
+
+  @Test
+  public void testPercentile() {
+    long[] sorted = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+    assertEquals(5, RecordingAnalyzer.percentile(sorted, 0.5));
+    assertEquals(10, RecordingAnalyzer.percentile(sorted, 0.99));
+    assertEquals(1, RecordingAnalyzer.percentile(sorted, 0.0));
+  }
+}
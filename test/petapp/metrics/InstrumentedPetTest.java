@@ -0,0 +1,189 @@
+package petapp.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.Test;
+import petapp.model.Action;
+import petapp.model.ConcurrentPet;
+import petapp.model.DeathCause;
+import petapp.model.HealthStatus;
+import petapp.model.MoodEnum;
+import petapp.model.Pet;
+import petapp.model.PetDelta;
+import petapp.test.TestPets;
+
+/**
+ * Tests for the pet metrics and the instrumented pet wrapper.
+ */
+public class InstrumentedPetTest {
+
+  @Test
+  public void testCountsStepsAndInteractions() {
+    PetMetrics metrics = new PetMetrics(1);
+    InstrumentedPet pet = new InstrumentedPet(TestPets.calmPet(), metrics);
+    pet.step();
+    pet.step(3);
+    pet.interactWith(Action.FEED);
+    pet.apply(List.of(Action.PLAY, Action.FEED));
+
+    assertEquals(4, metrics.getSteps());
+    assertEquals(Map.of("FEED", 2L, "PLAY", 1L, "CLEAN", 0L, "SLEEP", 0L, "HUG", 0L),
+        metrics.getInteractions());
+    // Every single step and interaction is timed with a sample interval of 1
+    assertEquals(1, metrics.getStepLatency().count());
+    assertEquals(1, metrics.getInteractLatency().count());
+  }
+
+  @Test
+  public void testCountsMoodTransitions() {
+    PetMetrics metrics = new PetMetrics();
+    InstrumentedPet pet = new InstrumentedPet(TestPets.calmPet(), metrics);
+    pet.setMood(MoodEnum.SAD);
+    pet.setMood(MoodEnum.SAD);
+    pet.setMood(MoodEnum.ANXIETY);
+
+    assertEquals(1, metrics.getMoodTransitions(MoodEnum.HAPPY, MoodEnum.SAD));
+    assertEquals(1, metrics.getMoodTransitions(MoodEnum.SAD, MoodEnum.ANXIETY));
+    assertEquals(0, metrics.getMoodTransitions(MoodEnum.SAD, MoodEnum.SAD));
+    assertEquals(6, metrics.getMoodTransitions().size());
+    assertEquals(Long.valueOf(1), metrics.getMoodTransitions().get("HAPPY->SAD"));
+  }
+
+  @Test
+  public void testRecordsDeathByCause() {
+    PetMetrics metrics = new PetMetrics();
+    InstrumentedPet pet = new InstrumentedPet(
+        TestPets.calmPet(new HealthStatus(MoodEnum.HAPPY, false, 95, 10, 10, 95)), metrics);
+    pet.step();
+    assertTrue(pet.isDead());
+    // A dead pet's operations are not counted
+    pet.step();
+    pet.interactWith(Action.FEED);
+
+    assertEquals(1, metrics.getDeaths(DeathCause.NEGLECT));
+    assertEquals(0, metrics.getDeaths(DeathCause.INTERACTION));
+    assertEquals(1, metrics.getSteps());
+    assertEquals(Long.valueOf(0), metrics.getInteractions().get("FEED"));
+  }
+
+  @Test
+  public void testCountsTicksUpToDeath() {
+    PetMetrics metrics = new PetMetrics();
+    InstrumentedPet pet = new InstrumentedPet(
+        TestPets.calmPet(new HealthStatus(MoodEnum.HAPPY, false, 95, 10, 10, 95)), metrics);
+    // The pet dies on the first of the ticks asked for
+    assertEquals(1, pet.step(1000));
+    assertTrue(pet.isDead());
+    assertEquals(0, pet.step(1000));
+
+    assertEquals(1, metrics.getSteps());
+    assertEquals(1, metrics.getDeaths(DeathCause.NEGLECT));
+  }
+
+  @Test
+  public void testCountsRejectedInteractions() {
+    PetMetrics metrics = new PetMetrics();
+    InstrumentedPet pet = new InstrumentedPet(TestPets.calmPet(), metrics);
+    try {
+      // A happy pet cannot be hugged
+      pet.interactWith(Action.HUG);
+      fail("Expected the hug to be rejected");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    assertEquals(1, metrics.getRejectedInteractions());
+    assertEquals(Long.valueOf(0), metrics.getInteractions().get("HUG"));
+  }
+
+  @Test
+  public void testBatchCountsAppliedActions() {
+    PetMetrics metrics = new PetMetrics();
+    InstrumentedPet pet = new InstrumentedPet(
+        TestPets.calmPet(new HealthStatus(MoodEnum.HAPPY, false, 92, 10, 10, 90)), metrics);
+    // The play takes hunger and sleep over the death threshold, the feeds never happen
+    pet.apply(List.of(Action.PLAY, Action.FEED, Action.FEED));
+    assertTrue(pet.isDead());
+    assertEquals(Long.valueOf(1), metrics.getInteractions().get("PLAY"));
+    assertEquals(Long.valueOf(0), metrics.getInteractions().get("FEED"));
+    assertEquals(1, metrics.getDeaths(DeathCause.INTERACTION));
+
+    metrics = new PetMetrics();
+    pet = new InstrumentedPet(TestPets.calmPet(), metrics);
+    try {
+      pet.apply(List.of(Action.FEED, Action.HUG, Action.CLEAN));
+      fail("Expected the hug to be rejected");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    // The feed before the rejected hug ran and is counted
+    assertEquals(Long.valueOf(1), metrics.getInteractions().get("FEED"));
+    assertEquals(Long.valueOf(0), metrics.getInteractions().get("CLEAN"));
+    assertEquals(1, metrics.getRejectedInteractions());
+  }
+
+  @Test
+  public void testBatchGoesToWrappedPetWhole() {
+    PetMetrics metrics = new PetMetrics();
+    Pet wrapped = TestPets.calmPet();
+    List<PetDelta> deltas = new ArrayList<>();
+    wrapped.addListener(deltas::add);
+    new InstrumentedPet(wrapped, metrics).apply(List.of(Action.FEED, Action.PLAY));
+    // One notification for the batch, as from the wrapped pet alone
+    assertEquals(1, deltas.size());
+    assertEquals(Long.valueOf(1), metrics.getInteractions().get("PLAY"));
+
+    // A rejected batch on a concurrent pet keeps the actions before it, which are counted
+    metrics = new PetMetrics();
+    ConcurrentPet concurrent = new ConcurrentPet(1);
+    try {
+      new InstrumentedPet(concurrent, metrics).apply(List.of(Action.FEED, Action.HUG));
+      fail("Expected the hug to be rejected");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    assertEquals(1, concurrent.getOperations());
+    assertEquals(Long.valueOf(1), metrics.getInteractions().get("FEED"));
+    assertEquals(1, metrics.getRejectedInteractions());
+  }
+
+  @Test
+  public void testHistogramBuckets() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.percentile(0.5));
+    for (int i = 0; i < 99; i++) {
+      histogram.record(100);
+    }
+    histogram.record(5_000);
+
+    assertEquals(100, histogram.count());
+    assertEquals(0, LatencyHistogram.bucketOf(-1));
+    assertEquals(7, LatencyHistogram.bucketOf(100));
+    assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    assertEquals(128, histogram.percentile(0.5));
+    assertEquals(128, histogram.percentile(0.99));
+    assertEquals(8192, histogram.percentile(1.0));
+  }
+
+  @Test
+  public void testPublishedOverJmx() throws Exception {
+    PetMetrics metrics = new PetMetrics();
+    new InstrumentedPet(TestPets.calmPet(), metrics).step();
+    ObjectName name = metrics.register("test");
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      assertEquals(1L, server.getAttribute(name, "Steps"));
+      assertEquals(PetMetrics.DEFAULT_SAMPLE_INTERVAL,
+          server.getAttribute(name, "SampleInterval"));
+    } finally {
+      PetMetrics.unregister(name);
+    }
+  }
+}
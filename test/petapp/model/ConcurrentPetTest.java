@@ -0,0 +1,113 @@
+package petapp.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests for the lock-free ConcurrentPet and the SynchronizedPet wrapper.
+ */
+public class ConcurrentPetTest {
+  private static final MoodRules RULES = MoodRules.defaults();
+
+  @Test
+  public void testDefaultMatchesPet() {
+    assertEquals(new Pet(new Random(0)).getHealth(), new ConcurrentPet(3).getHealth());
+  }
+
+  @Test
+  public void testOperationsAreDeterministicPerSeed() {
+    ConcurrentPet first = new ConcurrentPet(11);
+    ConcurrentPet second = new ConcurrentPet(11);
+    for (int i = 0; i < 300; i++) {
+      for (ConcurrentPet pet : new ConcurrentPet[]{first, second}) {
+        Action action = Action.values()[i % Action.values().length];
+        if (i % 3 == 0 && RULES.allows(pet.getMood(), action)) {
+          pet.interactWith(action);
+        } else {
+          pet.step();
+        }
+      }
+      assertEquals(first.getHealth(), second.getHealth());
+    }
+  }
+
+  @Test
+  public void testConcurrentStepsMatchSequentialReplay() throws InterruptedException {
+    ConcurrentPet pet = new ConcurrentPet(5);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      threads.add(Thread.ofPlatform().start(() -> {
+        for (int i = 0; i < 5_000; i++) {
+          pet.step();
+          pet.getHealth();
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    // Whatever the interleaving, operation n drew the numbers of operation n
+    int state = PetStates.DEFAULT;
+    for (long n = 0; n < pet.getOperations(); n++) {
+      state = RULES.step(state, new ConcurrentPet.Draws(5, n));
+    }
+    assertEquals(state, pet.getState());
+    assertTrue(pet.isDead() || pet.getOperations() == 20_000);
+  }
+
+  @Test
+  public void testDisallowedActionLeavesPetUnchanged() {
+    ConcurrentPet pet = new ConcurrentPet(1);
+    try {
+      pet.interactWith(Action.HUG);
+      fail("A happy pet cannot be hugged");
+    } catch (IllegalStateException expected) {
+      // expected
+    }
+    assertEquals(PetStates.DEFAULT, pet.getState());
+    assertEquals(0, pet.getOperations());
+  }
+
+  @Test
+  public void testRejectedBatchKeepsActionsBeforeIt() {
+    ConcurrentPet pet = new ConcurrentPet(1);
+    PetBatch batch = pet.applyBatch(List.of(Action.FEED, Action.HUG, Action.FEED));
+
+    // Like Pet, the feed before the rejected hug is applied
+    assertEquals(1, batch.applied());
+    assertNotNull(batch.rejection());
+    int fed = RULES.interact(PetStates.DEFAULT, Action.FEED, new ConcurrentPet.Draws(1, 0));
+    assertEquals(new PetDelta(PetStates.DEFAULT, fed), batch.delta());
+    assertEquals(fed, pet.getState());
+    assertEquals(1, pet.getOperations());
+  }
+
+  @Test
+  public void testDeadPetIgnoresOperations() {
+    int dead = PetStates.pack(100, 0, 0, 100, MoodEnum.SAD, true);
+    ConcurrentPet pet = new ConcurrentPet(1, dead, RULES);
+    pet.step();
+    pet.interactWith(Action.FEED);
+    assertEquals(dead, pet.getState());
+    assertEquals(0, pet.getOperations());
+  }
+
+  @Test
+  public void testSynchronizedPetDelegates() {
+    Pet expected = new Pet(new PetRandom(9));
+    SynchronizedPet pet = new SynchronizedPet(new Pet(new PetRandom(9)));
+    expected.interactWith(Action.FEED);
+    pet.interactWith(Action.FEED);
+    expected.step(10);
+    pet.step(10);
+    assertEquals(expected.getHealth(), pet.getHealth());
+  }
+}
@@ -0,0 +1,163 @@
+package petapp.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import petapp.test.TestRandom;
+
+/**
+ * Tests that the compiled default rules match the strategy classes.
+ */
+public class MoodRulesTest {
+  private static final int[] LEVELS = {0, 1, 13, 26, 39, 49, 50, 51, 59, 60, 61, 74, 88, 95, 96,
+      99, 100};
+
+  private final MoodRules rules = MoodRules.defaults();
+
+  @Test
+  public void testStepMatchesStrategies() {
+    int seed = 0;
+    for (MoodEnum mood : MoodEnum.values()) {
+      for (int hunger : LEVELS) {
+        for (int hygiene : LEVELS) {
+          for (int social : LEVELS) {
+            for (int sleep : LEVELS) {
+              Pet pet = newPet(seed, hunger, hygiene, social, sleep, mood);
+              int state = PetStates.pack(pet.getHealth());
+              pet.step();
+              assertEquals(pet.getHealth(),
+                  PetStates.toHealth(rules.step(state, new Random(seed))));
+              seed++;
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testInteractMatchesStrategies() {
+    int seed = 0;
+    for (MoodEnum mood : MoodEnum.values()) {
+      for (Action action : Action.values()) {
+        for (int hunger : LEVELS) {
+          for (int hygiene : LEVELS) {
+            for (int social : LEVELS) {
+              for (int sleep : LEVELS) {
+                Pet pet = newPet(seed, hunger, hygiene, social, sleep, mood);
+                int state = PetStates.pack(pet.getHealth());
+                if (action == Action.HUG && mood != MoodEnum.ANXIETY) {
+                  assertRejected(state, action);
+                  continue;
+                }
+                pet.interactWith(action);
+                assertEquals(pet.getHealth(),
+                    PetStates.toHealth(rules.interact(state, action, new Random(seed))));
+                seed++;
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCustomRulesChangeDeltas() throws IOException {
+    String text = new String(
+        MoodRules.class.getResourceAsStream(MoodRules.DEFAULT_RESOURCE).readAllBytes(),
+        StandardCharsets.UTF_8)
+        .replace("happy.action.FEED = -15 3 5 5", "happy.action.FEED = -1 0 0 0");
+    MoodRules custom;
+    try (InputStream in = new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))) {
+      custom = MoodRules.load(in);
+    }
+
+    // 99 never triggers anxiety
+    TestRandom testRandom = new TestRandom();
+    testRandom.setNextIntValues(new int[]{99});
+    int state = custom.interact(PetStates.DEFAULT, Action.FEED, testRandom);
+    assertEquals(new HealthStatus(MoodEnum.HAPPY, false, 19, 60, 60, 15),
+        PetStates.toHealth(state));
+  }
+
+  @Test
+  public void testInteractionOutcomesMatchSampling() {
+    int state = PetStates.pack(50, 55, 45, 62, MoodEnum.ANXIETY, false);
+    Map<Integer, Double> exact = new HashMap<>();
+    rules.forEachInteraction(state, Action.PLAY, (next, p) -> exact.merge(next, p, Double::sum));
+    assertEquals(1.0, exact.values().stream().mapToDouble(Double::doubleValue).sum(), 1e-12);
+
+    int samples = 100_000;
+    Map<Integer, Integer> sampled = new HashMap<>();
+    Random random = new Random(8);
+    for (int i = 0; i < samples; i++) {
+      sampled.merge(rules.interact(state, Action.PLAY, random), 1, Integer::sum);
+    }
+    for (Map.Entry<Integer, Integer> entry : sampled.entrySet()) {
+      assertTrue(exact.containsKey(entry.getKey()));
+      assertEquals(exact.get(entry.getKey()), (double) entry.getValue() / samples, 0.01);
+    }
+  }
+
+  @Test
+  public void testThresholdEdges() {
+    // Mood modifiers above 60 and below 50, anxiety chance above 60, death above 95
+    assertArrayEquals(new int[]{50, 61, 96}, rules.thresholdEdges());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingRuleRejected() throws IOException {
+    MoodRules.load(new ByteArrayInputStream("happy.drift = 1 1 1 1".getBytes(
+        StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testModifierOutOfRangeRejected() throws IOException {
+    String defaults;
+    try (InputStream in = MoodRules.class.getResourceAsStream(MoodRules.DEFAULT_RESOURCE)) {
+      defaults = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    for (String modifier : new String[]{"above 200 2 SAD HAPPY", "above -1 2 SAD HAPPY",
+        "above 60 5 SAD HAPPY"}) {
+      String custom = defaults.replace("happy.modifier = above 60 2 SAD HAPPY",
+          "happy.modifier = " + modifier);
+      try {
+        MoodRules.load(new ByteArrayInputStream(custom.getBytes(StandardCharsets.UTF_8)));
+        fail("Expected " + modifier + " to be rejected");
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    }
+  }
+
+  private void assertRejected(int state, Action action) {
+    try {
+      rules.interact(state, action, new Random(0));
+      fail("Expected " + action + " to be rejected");
+    } catch (IllegalStateException expected) {
+      // Same as the HAPPY and SAD strategies
+    }
+  }
+
+  private static Pet newPet(int seed, int hunger, int hygiene, int social, int sleep,
+                            MoodEnum mood) {
+    Pet pet = new Pet(new Random(seed));
+    pet.setHunger(hunger);
+    pet.setHygiene(hygiene);
+    pet.setSocial(social);
+    pet.setSleep(sleep);
+    pet.setMood(mood);
+    return pet;
+  }
+}
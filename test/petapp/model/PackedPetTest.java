@@ -0,0 +1,68 @@
+package petapp.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests for the packed pet encoding and PackedPet.
+ */
+public class PackedPetTest {
+
+  @Test
+  public void testDefaultMatchesPet() {
+    assertEquals(new Pet(new Random(0)).getHealth(), PetStates.toHealth(PetStates.DEFAULT));
+  }
+
+  @Test
+  public void testPackRoundTrip() {
+    HealthStatus health = new HealthStatus(MoodEnum.ANXIETY, true, 100, 0, 63, 64);
+    int state = PetStates.pack(health);
+    assertEquals(health, PetStates.toHealth(state));
+    assertTrue(state >= 0);
+  }
+
+  @Test
+  public void testPackClampsLikePetSetters() {
+    int state = PetStates.pack(150, -5, 101, 99, MoodEnum.SAD, false);
+    assertEquals(100, PetStates.hunger(state));
+    assertEquals(0, PetStates.hygiene(state));
+    assertEquals(100, PetStates.social(state));
+    assertEquals(99, PetStates.sleep(state));
+    assertEquals(MoodEnum.SAD, PetStates.mood(state));
+    assertFalse(PetStates.isDead(state));
+  }
+
+  @Test
+  public void testPackedPetMatchesPet() {
+    Pet pet = new Pet(new Random(11));
+    PackedPet packed = PackedPetStore.allocate(3).pet(1, new Random(11));
+    Random script = new Random(5);
+
+    for (int i = 0; i < 2000 && !pet.isDead(); i++) {
+      int choice = script.nextInt(6);
+      if (choice == 5) {
+        pet.step();
+        packed.step();
+      } else {
+        Action action = Action.values()[choice];
+        if (action == Action.HUG && pet.getMood() != MoodEnum.ANXIETY) {
+          action = Action.SLEEP;
+        }
+        pet.interactWith(action);
+        packed.interactWith(action);
+      }
+      assertEquals(pet.getHealth(), packed.getHealth());
+    }
+  }
+
+  @Test
+  public void testSetMoodKeepsStats() {
+    PackedPet packed = PackedPetStore.allocate(1).pet(0, new Random(0));
+    packed.setMood(MoodEnum.ANXIETY);
+    assertEquals(new HealthStatus(MoodEnum.ANXIETY, false, 20, 60, 60, 15), packed.getHealth());
+  }
+}
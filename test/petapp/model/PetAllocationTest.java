@@ -0,0 +1,84 @@
+package petapp.model;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that the Pet hot path does not allocate.
+ */
+public class PetAllocationTest {
+  private static final int WARMUP = 200_000;
+  private static final int ITERATIONS = 100_000;
+  private static final Action[] CARE = {Action.FEED, Action.PLAY, Action.CLEAN, Action.SLEEP};
+
+  // Keeps the measured loop from being optimized away
+  private static volatile int sink;
+
+  private com.sun.management.ThreadMXBean threadBean;
+
+  @Before
+  public void setUp() {
+    assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+    threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+    threadBean.setThreadAllocatedMemoryEnabled(true);
+  }
+
+  @Test
+  public void testStepAndInteractDoNotAllocate() {
+    Pet pet = new Pet(new Random(1));
+
+    // Warm up so the measured loop runs compiled code
+    run(pet, WARMUP);
+
+    // Bytes attributed to reading the counter itself
+    long start = threadBean.getCurrentThreadAllocatedBytes();
+    long overhead = threadBean.getCurrentThreadAllocatedBytes() - start;
+
+    long before = threadBean.getCurrentThreadAllocatedBytes();
+    sink = run(pet, ITERATIONS);
+    long allocated = threadBean.getCurrentThreadAllocatedBytes() - before - overhead;
+
+    // Far less than one object over all the iterations, so no call allocates
+    assertTrue("bytes allocated " + allocated, allocated < 4096);
+  }
+
+  @Test
+  public void testStrategiesAreShared() {
+    Pet first = new Pet(new Random(1));
+    Pet second = new Pet(new Random(2));
+    first.setMood(MoodEnum.ANXIETY);
+    second.setMood(MoodEnum.ANXIETY);
+    assertSame(first.getMoodStrategy(), second.getMoodStrategy());
+
+    first.setMood(MoodEnum.SAD);
+    second.setMood(MoodEnum.SAD);
+    assertSame(first.getMoodStrategy(), second.getMoodStrategy());
+  }
+
+  /**
+   * Steps and interacts with the pet, keeping it alive so the full path is exercised.
+   */
+  private static int run(Pet pet, int iterations) {
+    int checksum = 0;
+    for (int i = 0; i < iterations; i++) {
+      pet.setHunger(30);
+      pet.setSleep(30);
+      pet.step();
+
+      if (pet.getMood() == MoodEnum.ANXIETY) {
+        pet.interactWith(Action.HUG);
+      } else {
+        pet.interactWith(CARE[i % CARE.length]);
+      }
+      checksum += pet.getHunger() + pet.getHygiene() + pet.getSocial() + pet.getSleep();
+    }
+    return checksum;
+  }
+}
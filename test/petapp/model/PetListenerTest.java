@@ -0,0 +1,218 @@
+package petapp.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/**
+ * Tests for the pet change listeners, deltas and batched actions.
+ */
+public class PetListenerTest {
+
+  @Test
+  public void testStepPublishesOneDelta() {
+    Pet pet = new Pet(new PetRandom(1));
+    List<PetDelta> deltas = new ArrayList<>();
+    pet.addListener(deltas::add);
+    HealthStatus before = pet.getHealth();
+    pet.step();
+
+    assertEquals(1, deltas.size());
+    assertEquals(before, deltas.get(0).oldHealth());
+    assertEquals(pet.getHealth(), deltas.get(0).newHealth());
+    // A happy step adds 2 hunger and 1 sleep
+    assertEquals(2, deltas.get(0).change(Stat.HUNGER));
+    assertEquals(1, deltas.get(0).change(Stat.SLEEP));
+  }
+
+  @Test
+  public void testEventsAreTyped() {
+    PetDelta delta = new PetDelta(PetStates.pack(90, 10, 10, 90, MoodEnum.HAPPY, false),
+        PetStates.pack(97, 10, 12, 96, MoodEnum.SAD, true));
+    assertEquals(List.of(
+        new PetEvent.StatChanged(Stat.HUNGER, 90, 97),
+        new PetEvent.StatChanged(Stat.SOCIAL, 10, 12),
+        new PetEvent.StatChanged(Stat.SLEEP, 90, 96),
+        new PetEvent.MoodChanged(MoodEnum.HAPPY, MoodEnum.SAD),
+        new PetEvent.Died()), delta.events());
+  }
+
+  @Test
+  public void testStepTicksAndMergeCoalesce() {
+    Pet pet = new Pet(new PetRandom(2));
+    List<PetDelta> deltas = new ArrayList<>();
+    int start = PetStates.pack(pet.getHealth());
+    pet.addListener(deltas::add);
+    pet.step(30);
+    assertEquals(1, deltas.size());
+
+    pet.setMood(MoodEnum.HAPPY);
+    pet.interactWith(Action.FEED);
+    PetDelta merged = deltas.get(0);
+    for (PetDelta delta : deltas.subList(1, deltas.size())) {
+      merged = merged.merge(delta);
+    }
+    assertEquals(new PetDelta(start, PetStates.pack(pet.getHealth())), merged);
+  }
+
+  @Test
+  public void testUnchangedPetPublishesNothing() {
+    Pet pet = new Pet(new PetRandom(3));
+    pet.setMood(MoodEnum.SAD);
+    AtomicInteger calls = new AtomicInteger();
+    PetListener listener = delta -> calls.incrementAndGet();
+    pet.addListener(listener);
+    pet.setMood(MoodEnum.SAD);
+    // A negative count is an empty batch, as in the old interaction loops
+    int state = PetStates.pack(pet.getHealth());
+    assertEquals(new PetDelta(state, state), pet.interactWith(Action.FEED, -3));
+    assertEquals(0, calls.get());
+
+    pet.step();
+    pet.removeListener(listener);
+    pet.step();
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void testConcurrentRegistration() throws InterruptedException {
+    Pet pet = new Pet(new PetRandom(4));
+    AtomicInteger calls = new AtomicInteger();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      threads.add(Thread.ofPlatform().start(() -> {
+        for (int i = 0; i < 250; i++) {
+          pet.addListener(delta -> calls.incrementAndGet());
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    pet.step();
+    assertEquals(1_000, calls.get());
+  }
+
+  @Test
+  public void testConcurrentPetPublishesEveryOperation() {
+    ConcurrentPet pet = new ConcurrentPet(5);
+    List<PetDelta> deltas = new ArrayList<>();
+    pet.addListener(deltas::add);
+    int before = pet.getState();
+    pet.step();
+    assertEquals(List.of(new PetDelta(before, pet.getState())), deltas);
+  }
+
+  @Test
+  public void testDecoratorsDelegate() {
+    Pet pet = new Pet(new PetRandom(6));
+    SynchronizedPet synchronizedPet = new SynchronizedPet(pet);
+    AtomicInteger calls = new AtomicInteger();
+    synchronizedPet.addListener(delta -> calls.incrementAndGet());
+    synchronizedPet.step();
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void testPackedPetPublishesItsOwnChanges() {
+    PackedPetStore store = PackedPetStore.allocate(1);
+    PackedPet pet = store.pet(0, new PetRandom(7));
+    List<PetDelta> deltas = new ArrayList<>();
+    PetListener listener = deltas::add;
+    pet.addListener(listener);
+    int before = pet.getState();
+    pet.step();
+    assertEquals(List.of(new PetDelta(before, pet.getState())), deltas);
+
+    // A batch is one change
+    before = pet.getState();
+    pet.apply(List.of(Action.FEED, Action.PLAY));
+    assertEquals(new PetDelta(before, pet.getState()), deltas.get(1));
+    assertEquals(2, deltas.size());
+
+    // Changes through another view of the store are not this view's
+    store.pet(0, new PetRandom(8)).step();
+    pet.removeListener(listener);
+    pet.step();
+    assertEquals(2, deltas.size());
+  }
+
+  @Test
+  public void testBatchedActionsMatchSingleCalls() {
+    List<Action> actions = List.of(Action.FEED, Action.PLAY, Action.FEED, Action.CLEAN,
+        Action.SLEEP, Action.FEED);
+    Pet single = new Pet(new PetRandom(8));
+    Pet batched = new Pet(new PetRandom(8));
+    List<PetDelta> deltas = new ArrayList<>();
+    batched.addListener(deltas::add);
+    int before = PetStates.pack(batched.getHealth());
+    for (Action action : actions) {
+      single.interactWith(action);
+    }
+    PetDelta delta = batched.apply(actions);
+
+    assertEquals(single.getHealth(), batched.getHealth());
+    assertEquals(new PetDelta(before, PetStates.pack(batched.getHealth())), delta);
+    assertEquals(List.of(delta), deltas);
+  }
+
+  @Test
+  public void testInteractTimes() {
+    Pet pet = new Pet(new PetRandom(9));
+    PetDelta delta = pet.interactWith(Action.FEED, 2);
+    // Two happy feeds take hunger from 20 to 0
+    assertEquals(-20, delta.change(Stat.HUNGER));
+  }
+
+  @Test
+  public void testDisallowedActionEndsBatch() {
+    // A seed whose pet does not turn anxious from the feed, so it cannot be hugged after
+    long seed = 10;
+    while (true) {
+      Pet probe = new Pet(new PetRandom(seed));
+      probe.interactWith(Action.FEED);
+      if (probe.getMood() != MoodEnum.ANXIETY) {
+        break;
+      }
+      seed++;
+    }
+    Pet pet = new Pet(new PetRandom(seed));
+    List<PetDelta> deltas = new ArrayList<>();
+    pet.addListener(deltas::add);
+    try {
+      pet.apply(List.of(Action.FEED, Action.HUG));
+      fail("Only an anxious pet can be hugged");
+    } catch (IllegalStateException expected) {
+      // expected
+    }
+    // The feed was applied and published
+    assertEquals(1, deltas.size());
+    assertTrue(deltas.get(0).change(Stat.HUNGER) < 0);
+  }
+
+  @Test
+  public void testConcurrentPetBatchIsOneOperation() {
+    ConcurrentPet pet = new ConcurrentPet(11);
+    List<PetDelta> deltas = new ArrayList<>();
+    pet.addListener(deltas::add);
+    try {
+      pet.apply(List.of(Action.FEED, Action.HUG));
+      fail("A happy pet cannot be hugged");
+    } catch (IllegalStateException expected) {
+      // expected
+    }
+    // The feed before the rejected hug was applied and published in one delta
+    assertEquals(1, pet.getOperations());
+    assertEquals(List.of(new PetDelta(PetStates.DEFAULT, pet.getState())), deltas);
+
+    PetDelta delta = pet.apply(List.of(Action.FEED, Action.PLAY));
+    assertEquals(3, pet.getOperations());
+    assertEquals(pet.getState(), delta.after());
+    assertEquals(2, deltas.size());
+  }
+}
@@ -0,0 +1,103 @@
+package petapp.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests for the PetPopulation.
+ */
+public class PetPopulationTest {
+  private static final int SIZE = 64;
+
+  @Test
+  public void testInitialValuesMatchPet() {
+    PetPopulation population = new PetPopulation(3, new Random(0));
+    assertEquals(new Pet(new Random(0)).getHealth(), population.getHealth(2));
+  }
+
+  @Test
+  public void testStepAllMatchesPets() {
+    // Pets sharing one Random consume it in the same order as the population does
+    Random petRandom = new Random(42);
+    Pet[] pets = new Pet[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      pets[i] = new Pet(petRandom);
+    }
+    PetPopulation population = new PetPopulation(SIZE, new Random(42));
+
+    for (int tick = 0; tick < 200; tick++) {
+      for (Pet pet : pets) {
+        pet.step();
+      }
+      population.stepAll();
+      assertMatches(pets, population);
+    }
+  }
+
+  @Test
+  public void testInteractMatchesPets() {
+    Random petRandom = new Random(7);
+    Pet[] pets = new Pet[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      pets[i] = new Pet(petRandom);
+    }
+    PetPopulation population = new PetPopulation(SIZE, new Random(7));
+    Random script = new Random(99);
+
+    for (int round = 0; round < 300; round++) {
+      for (int i = 0; i < SIZE; i++) {
+        int choice = script.nextInt(Action.values().length + 1);
+        if (choice == Action.values().length) {
+          pets[i].step();
+          population.step(i);
+        } else {
+          Action action = Action.values()[choice];
+          if (action == Action.HUG && pets[i].getMood() != MoodEnum.ANXIETY) {
+            // HUG is only valid for anxious pets
+            action = Action.FEED;
+          }
+          pets[i].interactWith(action);
+          population.interact(i, action);
+        }
+      }
+      assertMatches(pets, population);
+    }
+  }
+
+  @Test
+  public void testCareRangeMatchesInteract() {
+    PetPopulation cared = PetPopulation.withStreams(SIZE, 3);
+    PetPopulation expected = PetPopulation.withStreams(SIZE, 3);
+    CarePolicy policy = status -> status.mood() == MoodEnum.ANXIETY ? Action.PLAY
+        : status.hunger() > 30 ? Action.FEED : null;
+
+    for (int tick = 0; tick < 50; tick++) {
+      cared.careRange(0, SIZE, policy);
+      cared.stepRange(0, SIZE);
+      for (int i = 0; i < SIZE; i++) {
+        Action action = policy.decide(expected.getHealth(i));
+        if (action != null) {
+          expected.interact(i, action);
+        }
+        expected.step(i);
+      }
+      for (int i = 0; i < SIZE; i++) {
+        assertEquals("pet " + i, expected.getHealth(i), cared.getHealth(i));
+      }
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testHugRejectedWhenNotAnxious() {
+    PetPopulation population = new PetPopulation(1, new Random(0));
+    population.interact(0, Action.HUG);
+  }
+
+  private static void assertMatches(Pet[] pets, PetPopulation population) {
+    for (int i = 0; i < pets.length; i++) {
+      assertEquals("pet " + i, pets[i].getHealth(), population.getHealth(i));
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package petapp.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests for the PetRandom.
+ */
+public class PetRandomTest {
+
+  @Test
+  public void testSameSequenceAsRandom() {
+    Random expected = new Random(1234);
+    PetRandom actual = new PetRandom(1234);
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(expected.nextInt(100), actual.nextInt(100));
+      assertEquals(expected.nextInt(15), actual.nextInt(15));
+      assertEquals(expected.nextFloat(), actual.nextFloat(), 0.0f);
+      assertEquals(expected.nextDouble(), actual.nextDouble(), 0.0);
+    }
+  }
+
+  @Test
+  public void testStateRestore() {
+    PetRandom random = new PetRandom(99);
+    random.nextInt();
+    long state = random.getState();
+    int first = random.nextInt(1000);
+
+    random.nextInt();
+    random.setState(state);
+    assertEquals(first, random.nextInt(1000));
+  }
+}
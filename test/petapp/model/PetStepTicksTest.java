@@ -0,0 +1,106 @@
+package petapp.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests that Pet.step(long) fast-forwards with the same outcome distribution as step().
+ */
+public class PetStepTicksTest {
+  private static final int SAMPLES = 20_000;
+
+  // Chi-square critical value for 3 degrees of freedom at p = 0.001
+  private static final double CHI_SQUARE_CRITICAL = 16.27;
+
+  @Test
+  public void testZeroTicksChangesNothing() {
+    Pet pet = new Pet(new Random(1));
+    HealthStatus before = pet.getHealth();
+    pet.step(0);
+    assertEquals(before, pet.getHealth());
+  }
+
+  @Test
+  public void testDeadPetDoesNotChange() {
+    Pet pet = new Pet(new Random(1));
+    pet.setHunger(100);
+    pet.setSleep(100);
+    pet.step();
+    assertTrue(pet.isDead());
+
+    HealthStatus before = pet.getHealth();
+    pet.step(1_000);
+    assertEquals(before, pet.getHealth());
+  }
+
+  @Test
+  public void testLongAbsenceEndsInDeath() {
+    Pet pet = new Pet(new Random(3));
+    pet.step(Long.MAX_VALUE);
+    assertTrue(pet.isDead());
+  }
+
+  @Test
+  public void testCustomStrategyIsSteppedNormally() {
+    Pet pet = new Pet(new Random(1));
+    pet.setMoodStrategy(new SadMoodStrategy());
+    pet.step(1);
+    // Sad drift of 5 hunger, the Happy drift would give 22
+    assertEquals(25, pet.getHunger());
+  }
+
+  @Test
+  public void testShortRunMatchesStepDistribution() {
+    assertSameDistribution(12);
+  }
+
+  @Test
+  public void testLongRunMatchesStepDistribution() {
+    assertSameDistribution(40);
+  }
+
+  /**
+   * Compares the outcome (anxious, happy, sad or dead) and mean hunger after the given
+   * number of ticks between a step() loop and step(long), over independent pets.
+   */
+  private static void assertSameDistribution(int ticks) {
+    int[] looped = new int[4];
+    int[] skipped = new int[4];
+    long loopedHunger = 0;
+    long skippedHunger = 0;
+    Random seeds = new Random(ticks);
+
+    for (int i = 0; i < SAMPLES; i++) {
+      Pet loop = new Pet(new Random(seeds.nextLong()));
+      for (int t = 0; t < ticks; t++) {
+        loop.step();
+      }
+      looped[outcome(loop)]++;
+      loopedHunger += loop.getHunger();
+
+      Pet skip = new Pet(new Random(seeds.nextLong()));
+      skip.step(ticks);
+      skipped[outcome(skip)]++;
+      skippedHunger += skip.getHunger();
+    }
+
+    double chiSquare = 0;
+    for (int k = 0; k < looped.length; k++) {
+      double expected = (looped[k] + skipped[k]) / 2.0;
+      if (expected > 0) {
+        chiSquare += Math.pow(looped[k] - expected, 2) / expected
+            + Math.pow(skipped[k] - expected, 2) / expected;
+      }
+    }
+    assertTrue("chi-square " + chiSquare, chiSquare < CHI_SQUARE_CRITICAL);
+    assertEquals("mean hunger", (double) loopedHunger / SAMPLES,
+        (double) skippedHunger / SAMPLES, 1.0);
+  }
+
+  private static int outcome(Pet pet) {
+    return pet.isDead() ? 3 : pet.getMood().ordinal();
+  }
+}
@@ -0,0 +1,77 @@
+package petapp.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests that the tick kernels match stepping pets one at a time.
+ */
+public class TickKernelTest {
+  private static final int SIZE = 5_003;
+  private static final int TICKS = 40;
+
+  @Test
+  public void testScalarKernelMatchesPerPetStep() {
+    assertKernelMatches(TickKernel.scalar());
+  }
+
+  @Test
+  public void testVectorKernelMatchesPerPetStep() {
+    assumeTrue(TickKernel.isVectorAvailable());
+    assertKernelMatches(TickKernel.vector());
+  }
+
+  @Test
+  public void testSharedRandomPopulationMatchesPets() {
+    Random petRandom = new Random(3);
+    Pet[] pets = new Pet[100];
+    for (int i = 0; i < pets.length; i++) {
+      pets[i] = new Pet(petRandom);
+    }
+    PetPopulation population = new PetPopulation(pets.length, new Random(3));
+
+    for (int t = 0; t < TICKS; t++) {
+      for (Pet pet : pets) {
+        pet.step();
+      }
+      population.stepAll(TickKernel.best());
+      for (int i = 0; i < pets.length; i++) {
+        assertEquals(pets[i].getHealth(), population.getHealth(i));
+      }
+    }
+  }
+
+  private static void assertKernelMatches(TickKernel kernel) {
+    PetPopulation expected = randomized();
+    PetPopulation actual = randomized();
+
+    for (int t = 0; t < TICKS; t++) {
+      for (int i = 0; i < SIZE; i++) {
+        expected.step(i);
+      }
+      actual.stepAll(kernel);
+      for (int i = 0; i < SIZE; i++) {
+        assertEquals(expected.getHealth(i), actual.getHealth(i));
+      }
+    }
+  }
+
+  /**
+   * Creates a population with spread out stats and moods, including anxious pets.
+   */
+  private static PetPopulation randomized() {
+    PetPopulation population = PetPopulation.withStreams(SIZE, 77);
+    Random random = new Random(5);
+    for (int i = 0; i < SIZE; i++) {
+      population.setHunger(i, random.nextInt(101));
+      population.setHygiene(i, random.nextInt(101));
+      population.setSocial(i, random.nextInt(101));
+      population.setSleep(i, random.nextInt(101));
+      population.setMood(i, MoodEnum.values()[random.nextInt(3)]);
+    }
+    return population;
+  }
+}
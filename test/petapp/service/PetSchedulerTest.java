@@ -0,0 +1,160 @@
+package petapp.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+import petapp.model.ConcurrentPet;
+import petapp.model.MoodEnum;
+import petapp.model.MoodRules;
+import petapp.model.PetStates;
+
+/**
+ * Tests for the timing wheel and the PetScheduler.
+ */
+public class PetSchedulerTest {
+
+  @Test
+  public void testWheelFiresEveryEntryAtItsDeadline() {
+    // Start just below a top level boundary so entries cascade through every level
+    long start = (1L << 36) - 5_000;
+    TimingWheel wheel = new TimingWheel(start);
+    Random random = new Random(4);
+    Map<ScheduledPet, Long> deadlines = new HashMap<>();
+    List<ScheduledPet> removed = new ArrayList<>();
+    for (int i = 0; i < 2_000; i++) {
+      long delay = 1 + (long) Math.pow(300_000, random.nextDouble());
+      ScheduledPet entry = new ScheduledPet(null, null, delay, start + delay);
+      wheel.add(entry);
+      deadlines.put(entry, start + delay);
+      if (i % 10 == 0) {
+        removed.add(entry);
+      }
+    }
+    for (ScheduledPet entry : removed) {
+      wheel.remove(entry);
+      deadlines.remove(entry);
+    }
+    assertEquals(deadlines.size(), wheel.size());
+
+    int fired = 0;
+    while (wheel.size() > 0) {
+      for (ScheduledPet entry = wheel.advance(); entry != null; entry = entry.next) {
+        assertEquals(deadlines.get(entry).longValue(), wheel.tick());
+        fired++;
+      }
+    }
+    assertEquals(deadlines.size(), fired);
+  }
+
+  @Test
+  public void testWheelPastDeadlineIsDueOnNextTick() {
+    TimingWheel wheel = new TimingWheel(100);
+    ScheduledPet late = new ScheduledPet(null, null, 1, 40);
+    wheel.add(late);
+    assertEquals(late, wheel.advance());
+    assertNull(wheel.advance());
+  }
+
+  @Test
+  public void testPetsAreSteppedAtTheirIntervals() throws InterruptedException {
+    try (PetScheduler scheduler = new PetScheduler(Runnable::run, 5, 16)) {
+      ConcurrentPet fast = new ConcurrentPet(1);
+      ConcurrentPet slow = new ConcurrentPet(2);
+      scheduler.schedule(fast, 10);
+      scheduler.schedule(slow, 100);
+      Thread.sleep(520);
+      // Catch-up keeps the count right even if the scheduler thread is delayed
+      assertTrue("fast " + fast.getOperations(), fast.getOperations() >= 40
+          || fast.isDead());
+      assertTrue("slow " + slow.getOperations(), slow.getOperations() >= 4
+          && slow.getOperations() <= 6);
+    }
+  }
+
+  @Test
+  public void testCancelledPetIsNoLongerStepped() throws InterruptedException {
+    try (PetScheduler scheduler = new PetScheduler(Runnable::run, 5, 16)) {
+      ConcurrentPet pet = new ConcurrentPet(3);
+      ScheduledPet scheduled = scheduler.schedule(pet, 10);
+      Thread.sleep(100);
+      scheduled.cancel();
+      Thread.sleep(20);
+      long steps = pet.getOperations();
+      Thread.sleep(100);
+      assertTrue(scheduled.isCancelled());
+      assertEquals(steps, pet.getOperations());
+    }
+  }
+
+  @Test
+  public void testSlowStepDoesNotDelayOtherPets() throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try (PetScheduler scheduler = new PetScheduler(executor, 5, 1)) {
+      ConcurrentPet slow = new ConcurrentPet(4) {
+        @Override
+        public void step() {
+          try {
+            Thread.sleep(1_000);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      };
+      ConcurrentPet pet = new ConcurrentPet(5);
+      scheduler.schedule(slow, 5);
+      scheduler.schedule(pet, 10);
+      Thread.sleep(300);
+      assertTrue("steps " + pet.getOperations(), pet.getOperations() >= 20 || pet.isDead());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testRejectedBatchDoesNotStopTheWheel() throws InterruptedException {
+    AtomicBoolean reject = new AtomicBoolean(true);
+    Executor executor = task -> {
+      if (reject.getAndSet(false)) {
+        throw new RejectedExecutionException("Executor is shut down");
+      }
+      task.run();
+    };
+    try (PetScheduler scheduler = new PetScheduler(executor, 5, 16)) {
+      ScheduledPet rejected = scheduler.schedule(new ConcurrentPet(7), 5);
+      Thread.sleep(100);
+      assertTrue(rejected.isCancelled());
+      assertEquals(0, ((ConcurrentPet) rejected.getPet()).getOperations());
+
+      // The wheel thread survived and steps pets scheduled afterwards
+      ConcurrentPet pet = new ConcurrentPet(8);
+      scheduler.schedule(pet, 5);
+      Thread.sleep(100);
+      assertTrue("steps " + pet.getOperations(), pet.getOperations() > 0);
+    }
+  }
+
+  @Test
+  public void testDeadPetIsDropped() throws InterruptedException {
+    try (PetScheduler scheduler = new PetScheduler(Runnable::run, 5, 16)) {
+      // Both critical stats are past the death threshold, so the first step kills it
+      int dying = PetStates.pack(100, 0, 0, 100, MoodEnum.SAD, false);
+      ScheduledPet scheduled = scheduler.schedule(
+          new ConcurrentPet(6, dying, MoodRules.defaults()), 5);
+      Thread.sleep(100);
+      assertTrue(scheduled.getPet().isDead());
+      assertTrue(scheduled.isCancelled());
+    }
+  }
+}
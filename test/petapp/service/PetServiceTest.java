@@ -0,0 +1,91 @@
+package petapp.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the HTTP pet service.
+ */
+public class PetServiceTest {
+  private PetService service;
+  private HttpClient client;
+
+  @Before
+  public void setUp() throws IOException {
+    service = new PetService(0);
+    client = HttpClient.newHttpClient();
+  }
+
+  @After
+  public void tearDown() {
+    service.close();
+  }
+
+  @Test
+  public void testCreateReadAndStep() throws Exception {
+    HttpResponse<String> created = send("POST", "/pets");
+    assertEquals(201, created.statusCode());
+    assertEquals("{\"id\":0,\"mood\":\"HAPPY\",\"dead\":false,\"hunger\":20,\"hygiene\":60,"
+        + "\"social\":60,\"sleep\":15}", created.body());
+    assertEquals(1, service.size());
+
+    HttpResponse<String> read = send("GET", "/pets/0");
+    assertEquals(200, read.statusCode());
+    assertEquals(created.body(), read.body());
+
+    HttpResponse<String> stepped = send("POST", "/pets/0/step");
+    assertEquals(200, stepped.statusCode());
+    assertTrue(stepped.body(), stepped.body().contains("\"hunger\":22"));
+  }
+
+  @Test
+  public void testInteract() throws Exception {
+    send("POST", "/pets");
+    HttpResponse<String> fed = send("POST", "/pets/0/interact?action=FEED");
+    assertEquals(200, fed.statusCode());
+    assertTrue(fed.body(), fed.body().contains("\"hunger\":5"));
+    assertEquals(Long.valueOf(1), service.getMetrics().getInteractions().get("FEED"));
+  }
+
+  @Test
+  public void testDelete() throws Exception {
+    HttpResponse<String> created = send("POST", "/pets");
+    HttpResponse<String> deleted = send("DELETE", "/pets/0");
+    assertEquals(200, deleted.statusCode());
+    assertEquals(created.body(), deleted.body());
+    assertEquals(0, service.size());
+    assertEquals(404, send("GET", "/pets/0").statusCode());
+    assertEquals(404, send("DELETE", "/pets/0").statusCode());
+  }
+
+  @Test
+  public void testErrors() throws Exception {
+    send("POST", "/pets");
+    // A happy pet cannot be hugged
+    assertEquals(409, send("POST", "/pets/0/interact?action=HUG").statusCode());
+    assertEquals(400, send("POST", "/pets/0/interact?action=DANCE").statusCode());
+    assertEquals(404, send("GET", "/pets/7").statusCode());
+    assertEquals(404, send("GET", "/pets/abc").statusCode());
+    assertEquals(404, send("POST", "/pets/0/fly").statusCode());
+    assertEquals(405, send("POST", "/pets/0").statusCode());
+    assertEquals(405, send("GET", "/pets/0/step").statusCode());
+    assertEquals(405, send("GET", "/pets").statusCode());
+  }
+
+  private HttpResponse<String> send(String method, String path) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(
+            URI.create("http://localhost:" + service.getPort() + path))
+        .method(method, HttpRequest.BodyPublishers.noBody())
+        .build();
+    return client.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+}
@@ -0,0 +1,127 @@
+package petapp.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.Test;
+import petapp.model.Action;
+import petapp.model.HealthStatus;
+import petapp.model.MoodEnum;
+import petapp.model.MoodRules;
+import petapp.model.Pet;
+import petapp.model.PetRandom;
+
+/**
+ * Tests for the sharded pet runtime.
+ */
+public class ShardedPetRuntimeTest {
+  private static final MoodRules RULES = MoodRules.defaults();
+
+  @Test
+  public void testConcurrentCallersMatchSequentialPets() throws Exception {
+    int callers = 8;
+    int petsPerCaller = 50;
+    try (ShardedPetRuntime runtime = new ShardedPetRuntime(3, 16)) {
+      List<Thread> threads = new ArrayList<>();
+      for (int c = 0; c < callers; c++) {
+        int first = c * petsPerCaller;
+        threads.add(Thread.ofPlatform().start(() -> {
+          for (int id = first; id < first + petsPerCaller; id++) {
+            runtime.create(id, id);
+          }
+          for (int round = 0; round < 100; round++) {
+            for (int id = first; id < first + petsPerCaller; id++) {
+              runtime.step(id);
+            }
+          }
+        }));
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+
+      for (int id = 0; id < callers * petsPerCaller; id++) {
+        Pet pet = new Pet(new PetRandom(id));
+        for (int round = 0; round < 100; round++) {
+          pet.step();
+        }
+        assertEquals(pet.getHealth(), runtime.getHealth(id).join());
+      }
+    }
+  }
+
+  @Test
+  public void testCommandsRunInPostingOrder() {
+    try (ShardedPetRuntime runtime = new ShardedPetRuntime(2)) {
+      Pet pet = new Pet(new PetRandom(8));
+      runtime.create(1, 8);
+      CompletableFuture<HealthStatus> last = null;
+      for (int i = 0; i < 200 && !pet.isDead(); i++) {
+        Action action = Action.values()[i % Action.values().length];
+        if (i % 3 == 0 && RULES.allows(pet.getMood(), action)) {
+          pet.interactWith(action);
+          last = runtime.interactWith(1, action);
+        } else if (i % 17 == 0) {
+          pet.setMood(MoodEnum.SAD);
+          last = runtime.setMood(1, MoodEnum.SAD);
+        } else {
+          pet.step();
+          last = runtime.step(1);
+        }
+      }
+      assertEquals(pet.getHealth(), last.join());
+    }
+  }
+
+  @Test
+  public void testFailuresCompleteTheFuture() {
+    try (ShardedPetRuntime runtime = new ShardedPetRuntime(1)) {
+      assertFailsWith(NoSuchElementException.class, runtime.step(5));
+      runtime.create(5, 1);
+      // A new pet is happy and cannot be hugged
+      assertFailsWith(IllegalStateException.class, runtime.interactWith(5, Action.HUG));
+      assertEquals(MoodEnum.HAPPY, runtime.getHealth(5).join().mood());
+    }
+  }
+
+  @Test
+  public void testClosedRuntimeRejectsCommands() {
+    ShardedPetRuntime runtime = new ShardedPetRuntime(2);
+    CompletableFuture<HealthStatus> created = runtime.create(3, 3);
+    runtime.close();
+    assertTrue(created.isDone());
+    try {
+      runtime.step(3);
+      fail("Expected a RejectedExecutionException");
+    } catch (RejectedExecutionException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testShardsSpreadConsecutiveIds() {
+    int[] counts = new int[8];
+    for (int id = 0; id < 8000; id++) {
+      counts[ShardedPetRuntime.shardOf(id, 8)]++;
+    }
+    for (int count : counts) {
+      assertTrue("shard size " + count, count > 800 && count < 1200);
+    }
+  }
+
+  private static void assertFailsWith(Class<?> type, CompletableFuture<HealthStatus> future) {
+    try {
+      future.join();
+      fail("Expected " + type.getSimpleName());
+    } catch (CompletionException e) {
+      assertTrue(e.getCause().toString(), type.isInstance(e.getCause()));
+    }
+  }
+}
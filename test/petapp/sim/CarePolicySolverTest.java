@@ -0,0 +1,65 @@
+package petapp.sim;
+
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import petapp.model.Action;
+import petapp.model.CarePolicy;
+import petapp.model.MoodEnum;
+import petapp.model.MoodRules;
+import petapp.model.PetStates;
+import petapp.model.PolicyTable;
+
+/**
+ * Tests for the care policy solver and its table.
+ */
+public class CarePolicySolverTest {
+  private static final int[] LEVELS = {0, 20, 49, 50, 60, 61, 80, 95, 96, 100};
+
+  private static PolicyTable table;
+
+  @BeforeClass
+  public static void solve() {
+    // Coarse buckets keep the test fast, the policy is still good enough to check
+    table = new CarePolicySolver(MoodRules.defaults(), 10, CarePolicySolver.DEFAULT_DISCOUNT,
+        ForkJoinPool.commonPool()).solve(1e-3).table();
+  }
+
+  @Test
+  public void testBucketsStartAtThresholds() {
+    byte[] bucketOf = CarePolicySolver.bucketOf(10, MoodRules.defaults().thresholdEdges());
+    assertNotEquals(bucketOf[49], bucketOf[50]);
+    assertNotEquals(bucketOf[60], bucketOf[61]);
+    assertNotEquals(bucketOf[95], bucketOf[96]);
+  }
+
+  @Test
+  public void testDecisionsAreAllowed() {
+    MoodRules rules = MoodRules.defaults();
+    for (MoodEnum mood : MoodEnum.values()) {
+      for (int hunger : LEVELS) {
+        for (int hygiene : LEVELS) {
+          for (int social : LEVELS) {
+            for (int sleep : LEVELS) {
+              Action action = table.decide(
+                  PetStates.pack(hunger, hygiene, social, sleep, mood, false));
+              assertTrue(action == null || rules.allows(mood, action));
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testAutopilotOutlivesUnattendedPet() {
+    MonteCarloRunner runner = new MonteCarloRunner();
+    LifespanStats unattended = runner.run(CarePolicy.UNATTENDED, 2000, 0, 2048, 1);
+    LifespanStats autopilot = runner.run(table, 2000, 0, 2048, 1);
+    assertTrue("autopilot " + autopilot.mean() + ", unattended " + unattended.mean(),
+        autopilot.mean() > 4 * unattended.mean());
+  }
+}
@@ -0,0 +1,55 @@
+package petapp.sim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests for the mergeable lifespan statistics.
+ */
+public class LifespanStatsTest {
+
+  @Test
+  public void testMeanAndVariance() {
+    LifespanStats stats = new LifespanStats(100);
+    for (int ticks : new int[]{2, 4, 4, 4, 5, 5, 7, 9}) {
+      stats.add(ticks, true);
+    }
+    assertEquals(8, stats.count());
+    assertEquals(5.0, stats.mean(), 1e-12);
+    assertEquals(32.0 / 7, stats.variance(), 1e-12);
+    assertEquals(0.5, stats.deathCdf(4), 1e-12);
+  }
+
+  @Test
+  public void testMergeMatchesSingleStream() {
+    Random random = new Random(3);
+    LifespanStats single = new LifespanStats(50);
+    LifespanStats first = new LifespanStats(50);
+    LifespanStats second = new LifespanStats(50);
+    for (int i = 0; i < 1000; i++) {
+      int ticks = random.nextInt(60);
+      boolean died = ticks < 50;
+      single.add(ticks, died);
+      (i % 3 == 0 ? first : second).add(ticks, died);
+    }
+
+    LifespanStats merged = first.merge(second);
+    assertEquals(single.count(), merged.count());
+    assertEquals(single.censored(), merged.censored());
+    assertEquals(single.mean(), merged.mean(), 1e-9);
+    assertEquals(single.variance(), merged.variance(), 1e-9);
+    assertArrayEquals(single.histogram(), merged.histogram());
+  }
+
+  @Test
+  public void testCensoredEpisodesAreNotDeaths() {
+    LifespanStats stats = new LifespanStats(10);
+    stats.add(10, true);
+    stats.add(10, false);
+    assertEquals(1, stats.censored());
+    assertEquals(0.5, stats.deathCdf(10), 1e-12);
+  }
+}
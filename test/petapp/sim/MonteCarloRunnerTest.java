@@ -0,0 +1,63 @@
+package petapp.sim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import petapp.model.Action;
+import petapp.model.CarePolicy;
+import petapp.model.MoodEnum;
+
+/**
+ * Tests for the Monte Carlo lifespan estimator.
+ */
+public class MonteCarloRunnerTest {
+  // Exact expected lifespan of an unattended pet from StateDistributionAnalyzer
+  private static final double UNATTENDED_LIFESPAN = 241.786;
+
+  @Test
+  public void testUnattendedMatchesExactLifespan() {
+    LifespanStats stats = new MonteCarloRunner().run(CarePolicy.UNATTENDED, 100_000, 4.0,
+        Long.MAX_VALUE, 11);
+    assertEquals(0, stats.censored());
+    assertEquals(UNATTENDED_LIFESPAN, stats.mean(), 2 * stats.halfWidth(MonteCarloRunner.Z_95));
+  }
+
+  @Test
+  public void testStopsOnceIntervalIsNarrow() {
+    LifespanStats stats = new MonteCarloRunner().run(CarePolicy.UNATTENDED, 100_000, 10.0,
+        Long.MAX_VALUE, 5);
+    assertTrue(stats.halfWidth(MonteCarloRunner.Z_95) <= 10.0);
+    assertTrue(stats.count() < 100_000);
+  }
+
+  @Test
+  public void testSameResultForAnyThreadCount() {
+    CarePolicy feeder = status -> status.hunger() > 50 && status.mood() != MoodEnum.ANXIETY
+        ? Action.FEED : null;
+    LifespanStats expected = run(1, feeder);
+    LifespanStats actual = run(3, feeder);
+    assertEquals(expected.count(), actual.count());
+    assertEquals(expected.mean(), actual.mean(), 0.0);
+    assertArrayEquals(expected.histogram(), actual.histogram());
+  }
+
+  @Test
+  public void testLongLivesAreCensored() {
+    LifespanStats stats = new MonteCarloRunner().run(CarePolicy.UNATTENDED, 5, 0, 2048, 1);
+    assertEquals(2048, stats.count());
+    assertEquals(2048, stats.censored());
+    assertEquals(5.0, stats.mean(), 0.0);
+  }
+
+  private static LifespanStats run(int threads, CarePolicy policy) {
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      return new MonteCarloRunner(pool, 100).run(policy, 2000, 0, 10_000, 9);
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package petapp.sim;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import petapp.model.Pet;
+import petapp.model.PetPopulation;
+import petapp.model.PetRandom;
+
+/**
+ * Tests that parallel stepping does not depend on threads or chunking.
+ */
+public class ParallelStepperTest {
+  private static final int SIZE = 10_000;
+  private static final int TICKS = 60;
+  private static final long SEED = 2024;
+
+  @Test
+  public void testSameResultForAnyThreadCountAndChunkSize() {
+    PetPopulation expected = PetPopulation.withStreams(SIZE, SEED);
+    for (int t = 0; t < TICKS; t++) {
+      expected.stepAll();
+    }
+
+    int[][] configurations = {{1, 10_000}, {2, 333}, {4, 64}, {8, 1}};
+    for (int[] configuration : configurations) {
+      ForkJoinPool pool = new ForkJoinPool(configuration[0]);
+      try {
+        PetPopulation actual = PetPopulation.withStreams(SIZE, SEED);
+        new ParallelStepper(pool, configuration[1]).run(actual, TICKS);
+        for (int i = 0; i < SIZE; i++) {
+          assertEquals(expected.getHealth(i), actual.getHealth(i));
+        }
+      } finally {
+        pool.shutdown();
+      }
+    }
+  }
+
+  @Test
+  public void testPetStreamMatchesSeededPet() {
+    PetPopulation population = PetPopulation.withStreams(100, SEED);
+    new ParallelStepper().run(population, TICKS);
+
+    for (int i = 0; i < population.size(); i++) {
+      Pet pet = new Pet(new Random(PetRandom.streamSeed(SEED, i)));
+      for (int t = 0; t < TICKS; t++) {
+        pet.step();
+      }
+      assertEquals(pet.getHealth(), population.getHealth(i));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSharedRandomRejected() {
+    new ParallelStepper().tick(new PetPopulation(10, new Random(0)));
+  }
+}
@@ -0,0 +1,91 @@
+package petapp.sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import petapp.model.Action;
+import petapp.model.HealthStatus;
+import petapp.model.MoodEnum;
+import petapp.model.MoodRules;
+import petapp.model.Pet;
+import petapp.model.PetRandom;
+
+/**
+ * Tests for the headless scenario runner.
+ */
+public class ScenarioRunnerTest {
+
+  @Test
+  public void testScenarioMatchesPet() throws IOException {
+    String result = run("scenario fed\nseed 5\nf 2\na 10\nm sad\np\n", 4);
+
+    Pet pet = new Pet(new PetRandom(5));
+    pet.interactWith(Action.FEED, 2);
+    int ticks = 0;
+    for (; ticks < 10 && !pet.isDead(); ticks++) {
+      pet.step();
+    }
+    pet.setMood(MoodEnum.SAD);
+    pet.interactWith(Action.PLAY);
+    assertEquals("fed" + line(pet.getHealth(), ticks, 0), result);
+  }
+
+  @Test
+  public void testInitialStateAndRejectedActions() throws IOException {
+    // A happy pet cannot be hugged, and a dead one ignores everything
+    assertEquals("hug,HAPPY,false,30,40,50,10,0,3\nghost,SAD,true,99,0,0,99,0,0\n",
+        run("scenario hug\nstate 30 40 50 10 happy\nh 3\n"
+            + "scenario ghost # a dead pet\nstate 99 0 0 99 SAD dead\na 50\nf\n", 4));
+  }
+
+  @Test
+  public void testResultsKeepInputOrderAcrossChunks() throws IOException {
+    StringBuilder scenarios = new StringBuilder();
+    for (int i = 0; i < 1_000; i++) {
+      scenarios.append("scenario s").append(i).append("\nx 40\n");
+    }
+    String parallel = run(scenarios.toString(), 7);
+    String[] lines = parallel.split("\n");
+    assertEquals(1_000, lines.length);
+    for (int i = 0; i < lines.length; i++) {
+      assertTrue(lines[i], lines[i].startsWith("s" + i + ","));
+    }
+    // Default seeds depend on the position only, not on how the run was split
+    assertEquals(parallel, run(scenarios.toString(), 1_000));
+  }
+
+  @Test
+  public void testUnnamedScenario() throws IOException {
+    assertTrue(run("a 3\n", 4).startsWith("0,"));
+    assertEquals("", run("# nothing\n\n", 4));
+  }
+
+  @Test
+  public void testInvalidLine() throws IOException {
+    try {
+      run("scenario bad\nf 1\nz 2\n", 4);
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("line 3: unknown command z", e.getMessage());
+    }
+  }
+
+  private static String run(String scenarios, int chunkSize) throws IOException {
+    StringWriter out = new StringWriter();
+    new ScenarioRunner(MoodRules.defaults(), 9, ForkJoinPool.commonPool(), chunkSize)
+        .run(new StringReader(scenarios), out, 0);
+    return out.toString();
+  }
+
+  private static String line(HealthStatus health, int ticks, int rejected) {
+    return "," + health.mood() + "," + health.dead() + "," + health.hunger() + ","
+        + health.hygiene() + "," + health.social() + "," + health.sleep() + "," + ticks + ","
+        + rejected + "\n";
+  }
+}
@@ -0,0 +1,103 @@
+package petapp.sim;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import petapp.model.MoodEnum;
+import petapp.model.MoodRules;
+import petapp.model.Pet;
+import petapp.model.PetStates;
+
+/**
+ * Tests for the exact state distribution analyzer.
+ */
+public class StateDistributionAnalyzerTest {
+  private static final int SAMPLES = 40_000;
+
+  private final StateDistributionAnalyzer analyzer = new StateDistributionAnalyzer();
+
+  @Test
+  public void testFirstTickOfDefaultPet() {
+    StateDistributionAnalyzer.Analysis analysis = analyzer.analyze(PetStates.DEFAULT, 1);
+
+    // Happy drift is deterministic and makes hygiene and social problems, only the 20%
+    // anxiety check branches
+    assertEquals(2, analysis.support()[1]);
+    assertEquals(0.8, analysis.moodOccupancy()[1][MoodEnum.SAD.ordinal()], 1e-12);
+    assertEquals(0.2, analysis.moodOccupancy()[1][MoodEnum.ANXIETY.ordinal()], 1e-12);
+    assertEquals(0.0, analysis.deathCdf()[1], 0.0);
+  }
+
+  @Test
+  public void testProbabilityIsConserved() {
+    StateDistributionAnalyzer.Analysis analysis = analyzer.analyze(PetStates.DEFAULT, 12);
+    for (int t = 0; t <= analysis.ticks(); t++) {
+      double total = analysis.deathCdf()[t];
+      for (double mood : analysis.moodOccupancy()[t]) {
+        total += mood;
+      }
+      assertEquals("tick " + t, 1.0, total, 1e-9);
+    }
+  }
+
+  @Test
+  public void testDeadPetHasNoLifespan() {
+    int dead = PetStates.pack(100, 100, 100, 100, MoodEnum.SAD, true);
+    StateDistributionAnalyzer.Analysis analysis = analyzer.analyze(dead, 100, 1e-9);
+    assertEquals(0, analysis.ticks());
+    assertEquals(0.0, analysis.expectedLifespan(), 0.0);
+  }
+
+  @Test
+  public void testMatchesSampledPets() {
+    // Close to death, so a few ticks give a spread of outcomes including death
+    int start = PetStates.pack(85, 50, 40, 80, MoodEnum.SAD, false);
+    int ticks = 4;
+    StateDistributionAnalyzer.Analysis analysis = analyzer.analyze(start, ticks);
+
+    int dead = 0;
+    int anxious = 0;
+    Random seeds = new Random(5);
+    for (int i = 0; i < SAMPLES; i++) {
+      Pet pet = new Pet(new Random(seeds.nextLong()));
+      pet.setHunger(85);
+      pet.setHygiene(50);
+      pet.setSocial(40);
+      pet.setSleep(80);
+      pet.setMood(MoodEnum.SAD);
+      pet.step(ticks);
+      if (pet.isDead()) {
+        dead++;
+      } else if (pet.getMood() == MoodEnum.ANXIETY) {
+        anxious++;
+      }
+    }
+
+    // Five standard errors of a proportion of SAMPLES pets
+    double tolerance = 5 * Math.sqrt(0.25 / SAMPLES);
+    assertEquals(analysis.deathCdf()[ticks], (double) dead / SAMPLES, tolerance);
+    assertEquals(analysis.moodOccupancy()[ticks][MoodEnum.ANXIETY.ordinal()],
+        (double) anxious / SAMPLES, tolerance);
+  }
+
+  @Test
+  public void testSameResultForAnyThreadCount() {
+    StateDistributionAnalyzer.Analysis expected = analyze(1);
+    StateDistributionAnalyzer.Analysis actual = analyze(4);
+    assertArrayEquals(expected.support(), actual.support());
+    assertArrayEquals(expected.deathCdf(), actual.deathCdf(), 1e-12);
+  }
+
+  private static StateDistributionAnalyzer.Analysis analyze(int threads) {
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      return new StateDistributionAnalyzer(MoodRules.defaults(), pool)
+          .analyze(PetStates.DEFAULT, 10);
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package petapp.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import petapp.model.Action;
+import petapp.model.HealthStatus;
+import petapp.model.MoodRules;
+import petapp.model.PetInterface;
+
+/**
+ * Tests for the pet cache, its eviction policies and the dormant pet store.
+ */
+public class PetCacheTest {
+  private static final MoodRules RULES = MoodRules.defaults();
+
+  private Path path;
+  private DormantPetStore store;
+  private long tick;
+
+  @Before
+  public void setUp() throws IOException {
+    path = Files.createTempFile("pet-cache", ".bin");
+    store = DormantPetStore.open(path);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    store.close();
+    Files.deleteIfExists(path);
+  }
+
+  @Test
+  public void testStoreRoundTrip() throws IOException {
+    assertNull(store.read(3));
+    DormantPetStore.Dormant pet = new DormantPetStore.Dormant(0x1234567, 1L << 47, 99);
+    store.write(3, pet);
+    assertEquals(pet, store.read(3));
+    assertNull(store.read(2));
+  }
+
+  @Test
+  public void testEvictedPetsMatchResidentPets() throws IOException {
+    Path otherPath = Files.createTempFile("pet-cache-resident", ".bin");
+    try (DormantPetStore other = DormantPetStore.open(otherPath)) {
+      for (EvictionPolicy policy : new EvictionPolicy[]{new LruPolicy(3),
+          new TinyLfuPolicy(3)}) {
+        PetCache small = new PetCache(policy, store, () -> tick);
+        PetCache large = new PetCache(new LruPolicy(1000), other, () -> tick);
+        tick = 0;
+        for (int id = 0; id < 20; id++) {
+          small.create(id, id);
+          large.create(id, id);
+        }
+
+        Random random = new Random(7);
+        for (int i = 0; i < 2_000; i++) {
+          tick += random.nextInt(3);
+          int id = random.nextInt(20);
+          Action action = Action.values()[random.nextInt(Action.values().length)];
+          HealthStatus expected = large.apply(id, pet -> interact(pet, action));
+          assertEquals(expected, small.apply(id, pet -> interact(pet, action)));
+        }
+        assertTrue(small.size() <= 3);
+        assertTrue(small.stats().evictions() > 0);
+        assertEquals(2_000, small.stats().hits() + small.stats().misses());
+      }
+    } finally {
+      Files.deleteIfExists(otherPath);
+    }
+  }
+
+  @Test
+  public void testMissedTicksAreAppliedOnAccess() {
+    PetCache cache = new PetCache(new LruPolicy(1), store, () -> tick);
+    tick = 10;
+    cache.create(0, 1);
+    cache.create(1, 1);
+    tick = 15;
+    // Pet 0 was evicted at tick 10 and comes back five happy ticks older
+    HealthStatus health = cache.apply(0, PetInterface::getHealth);
+    assertEquals(1, cache.stats().misses());
+    assertTrue(health.hunger() > 20);
+  }
+
+  @Test
+  public void testUnknownPet() {
+    PetCache cache = new PetCache(new LruPolicy(2), store, () -> tick);
+    try {
+      cache.apply(5, PetInterface::getHealth);
+      fail("Expected a NoSuchElementException");
+    } catch (NoSuchElementException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testLruEvictsLeastRecentlyUsed() {
+    LruPolicy policy = new LruPolicy(2);
+    assertEquals(EvictionPolicy.NONE, policy.onInsert(1));
+    assertEquals(EvictionPolicy.NONE, policy.onInsert(2));
+    policy.onAccess(1);
+    assertEquals(2, policy.onInsert(3));
+  }
+
+  @Test
+  public void testTinyLfuOfOnePet() {
+    TinyLfuPolicy policy = new TinyLfuPolicy(1);
+    assertEquals(EvictionPolicy.NONE, policy.onInsert(1));
+    policy.onAccess(1);
+    assertEquals(1, policy.onInsert(2));
+    assertEquals(2, policy.onInsert(3));
+
+    PetCache cache = new PetCache(new TinyLfuPolicy(1), store, () -> tick);
+    cache.create(0, 1);
+    cache.create(1, 1);
+    assertEquals(1, cache.size());
+    cache.apply(0, PetInterface::getHealth);
+    assertEquals(1, cache.stats().misses());
+  }
+
+  @Test
+  public void testTinyLfuResistsScans() {
+    PetCache lru = new PetCache(new LruPolicy(100), store, () -> tick);
+    int hot = hotHits(lru);
+    PetCache tinyLfu = new PetCache(new TinyLfuPolicy(100), store, () -> tick);
+    int hotTinyLfu = hotHits(tinyLfu);
+    assertEquals(0, hot);
+    assertTrue("hot hits " + hotTinyLfu, hotTinyLfu > 40);
+  }
+
+  /**
+   * Uses 50 hot pets, scans 10,000 cold ones, then counts hits among the hot pets.
+   */
+  private int hotHits(PetCache cache) {
+    for (int id = 0; id < 10_050; id++) {
+      cache.create(id, id);
+    }
+    for (int round = 0; round < 10; round++) {
+      for (int id = 0; id < 50; id++) {
+        cache.apply(id, PetInterface::getHealth);
+      }
+    }
+    for (int id = 50; id < 10_050; id++) {
+      cache.apply(id, PetInterface::getHealth);
+    }
+    long before = cache.stats().hits();
+    for (int id = 0; id < 50; id++) {
+      cache.apply(id, PetInterface::getHealth);
+    }
+    return (int) (cache.stats().hits() - before);
+  }
+
+  private static HealthStatus interact(PetInterface pet, Action action) {
+    if (RULES.allows(pet.getMood(), action)) {
+      pet.interactWith(action);
+    }
+    return pet.getHealth();
+  }
+}
@@ -0,0 +1,102 @@
+package petapp.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import petapp.model.Action;
+import petapp.model.HealthStatus;
+import petapp.model.MoodEnum;
+import petapp.model.MoodRules;
+import petapp.model.Pet;
+import petapp.model.PetRandom;
+
+/**
+ * Tests for the recorded pet history and seeking in it.
+ */
+public class PetHistoryTest {
+  private static final Action[] ACTIONS = Action.values();
+  private static final MoodRules RULES = MoodRules.defaults();
+
+  @Test
+  public void testSeekMatchesLiveStateAtEveryTick() {
+    PetHistory history = new PetHistory(new PetRandom(21), 8);
+    List<HealthStatus> live = playUntilDead(history);
+    assertTrue(history.isDead());
+    assertEquals(live.size() - 1, history.getTick());
+
+    // Backward, then forward, so every seek starts from a different checkpoint
+    for (int tick = history.getTick(); tick >= 0; tick--) {
+      assertEquals("tick " + tick, live.get(tick), history.seek(tick));
+    }
+    for (int tick = 0; tick <= history.getTick(); tick += 3) {
+      assertEquals("tick " + tick, live.get(tick), history.seek(tick));
+    }
+  }
+
+  @Test
+  public void testRestoredPetContinuesLikeTheOriginal() {
+    PetHistory history = new PetHistory(5);
+    for (int i = 0; i < 100; i++) {
+      history.step();
+    }
+    Pet restored = history.restore(70);
+    PetHistory replay = new PetHistory(5);
+    for (int i = 0; i < 70; i++) {
+      replay.step();
+    }
+    assertEquals(replay.getHealth(), restored.getHealth());
+    for (int i = 0; i < 30; i++) {
+      replay.step();
+      restored.step();
+      assertEquals(replay.getHealth(), restored.getHealth());
+    }
+  }
+
+  @Test
+  public void testDeadPetStopsRecordingTicks() {
+    PetHistory history = new PetHistory(new PetRandom(3), 4);
+    while (!history.isDead()) {
+      history.step();
+    }
+    int last = history.getTick();
+    history.step();
+    history.interactWith(Action.FEED);
+    assertEquals(last, history.getTick());
+    assertTrue(history.seek(last).dead());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testSeekPastTheEndFails() {
+    PetHistory history = new PetHistory(1);
+    history.step();
+    history.seek(2);
+  }
+
+  /**
+   * Steps the pet until it dies, with a few interactions and mood changes along the way,
+   * and returns its status at every tick after the interactions of that tick.
+   */
+  private static List<HealthStatus> playUntilDead(PetHistory pet) {
+    PetRandom choices = new PetRandom(99);
+    List<HealthStatus> live = new ArrayList<>();
+    while (!pet.isDead()) {
+      if (choices.nextInt(20) == 0) {
+        pet.setMood(MoodEnum.values()[choices.nextInt(3)]);
+      }
+      Action action = ACTIONS[choices.nextInt(ACTIONS.length)];
+      if (choices.nextInt(4) == 0 && RULES.allows(pet.getMood(), action)) {
+        pet.interactWith(action);
+      }
+      if (pet.isDead()) {
+        break;
+      }
+      live.add(pet.getHealth());
+      pet.step();
+    }
+    live.add(pet.getHealth());
+    return live;
+  }
+}
@@ -0,0 +1,157 @@
+package petapp.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import petapp.model.Action;
+import petapp.model.MoodEnum;
+import petapp.model.MoodRules;
+
+/**
+ * Tests for the pet journal and its recovery.
+ */
+public class PetJournalTest {
+  private static final Action[] ACTIONS = Action.values();
+  private static final MoodRules RULES = MoodRules.defaults();
+
+  private Path path;
+
+  @Before
+  public void setUp() throws IOException {
+    path = Files.createTempFile("pet-journal", ".bin");
+    Files.delete(path);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  @Test
+  public void testRecoveryRebuildsPets() throws IOException {
+    List<JournaledPet> live = new ArrayList<>();
+    try (PetJournal journal = PetJournal.open(path, 0, 0)) {
+      for (int id = 0; id < 5; id++) {
+        live.add(play(journal.create(id, 100 + id), 200));
+      }
+      live.get(2).setMood(MoodEnum.ANXIETY);
+    }
+
+    try (PetJournal journal = PetJournal.open(path, 0, 0)) {
+      Map<Integer, JournaledPet> recovered = journal.recover();
+      assertEquals(5, recovered.size());
+      for (JournaledPet pet : live) {
+        JournaledPet copy = recovered.get(pet.getId());
+        assertEquals(pet.getHealth(), copy.getHealth());
+        assertEquals(pet.getTick(), copy.getTick());
+      }
+    }
+  }
+
+  @Test
+  public void testReopenedJournalContinuesHistory() throws IOException {
+    JournaledPet reference;
+    try (PetJournal journal = PetJournal.open(path, 0, 0)) {
+      reference = play(journal.create(7, 3), 300);
+    }
+
+    Path split = Files.createTempFile("pet-journal-split", ".bin");
+    Files.delete(split);
+    try {
+      try (PetJournal journal = PetJournal.open(split, 0, 0)) {
+        play(journal.create(7, 3), 100);
+      }
+      try (PetJournal journal = PetJournal.open(split, 1, 0)) {
+        JournaledPet pet = journal.recover().get(7);
+        // play() numbers its operations from 0, so continue where the first run stopped
+        for (int n = 100; n < 300; n++) {
+          apply(pet, n);
+        }
+      }
+      try (PetJournal journal = PetJournal.open(split, 0, 0)) {
+        JournaledPet pet = journal.recover().get(7);
+        assertEquals(reference.getHealth(), pet.getHealth());
+        assertEquals(reference.getTick(), pet.getTick());
+      }
+    } finally {
+      Files.deleteIfExists(split);
+    }
+  }
+
+  @Test
+  public void testTornTailIsIgnored() throws IOException {
+    long tick;
+    try (PetJournal journal = PetJournal.open(path, 0, 0)) {
+      JournaledPet pet = play(journal.create(1, 9), 50);
+      tick = pet.getTick();
+      pet.step();
+      pet.step();
+    }
+    // Corrupt the second to last record, the last one is valid but must not be replayed
+    long lastButOne = 16 + 51L * PetJournal.RECORD_BYTES;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[]{0x55}), lastButOne + 3);
+    }
+
+    try (PetJournal journal = PetJournal.open(path, 0, 0)) {
+      JournaledPet pet = journal.recover().get(1);
+      assertEquals(tick, pet.getTick());
+      pet.step();
+    }
+    try (PetJournal journal = PetJournal.open(path, 0, 0)) {
+      assertEquals(tick + 1, journal.recover().get(1).getTick());
+    }
+  }
+
+  @Test
+  public void testGroupCommitBatchesSyncs() throws Exception {
+    int writers = 16;
+    int operations = 50;
+    try (PetJournal journal = PetJournal.open(path, 8, 5000)) {
+      List<Thread> threads = new ArrayList<>();
+      for (int id = 0; id < writers; id++) {
+        JournaledPet pet = journal.create(id, id);
+        threads.add(Thread.ofVirtual().start(() -> play(pet, operations)));
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      assertEquals(writers * (operations + 1L), journal.records());
+      assertTrue("syncs " + journal.syncs(), journal.syncs() < journal.records() / 2);
+    }
+    try (PetJournal journal = PetJournal.open(path, 0, 0)) {
+      assertEquals(writers, journal.recover().size());
+    }
+  }
+
+  private static JournaledPet play(JournaledPet pet, int operations) {
+    for (int n = 0; n < operations; n++) {
+      apply(pet, n);
+    }
+    return pet;
+  }
+
+  // Steps on even operations, on odd ones tries the next action the mood allows
+  private static void apply(JournaledPet pet, int n) {
+    Action action = ACTIONS[(n / 2) % ACTIONS.length];
+    if ((n & 1) == 0 || pet.isDead()) {
+      pet.step();
+    } else if (RULES.allows(pet.getMood(), action)) {
+      pet.interactWith(action);
+    } else {
+      pet.setMood(pet.getMood());
+    }
+  }
+}
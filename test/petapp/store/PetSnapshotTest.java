@@ -0,0 +1,112 @@
+package petapp.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import petapp.model.MoodEnum;
+import petapp.model.PackedPetStore;
+import petapp.model.PetPopulation;
+import petapp.model.PetRandom;
+import petapp.model.PetStates;
+
+/**
+ * Tests for population snapshots.
+ */
+public class PetSnapshotTest {
+  private Path path;
+
+  @Before
+  public void setUp() throws IOException {
+    path = Files.createTempFile("pet-snapshot", ".bin");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  @Test
+  public void testStoreRoundTrip() throws IOException {
+    PackedPetStore store = PackedPetStore.allocate(1000);
+    for (int tick = 0; tick < 30; tick++) {
+      store.stepAll(new PetRandom(tick));
+    }
+    PetSnapshot.save(path, store);
+    assertEquals(PetSnapshot.HEADER_BYTES + 1000L * PackedPetStore.BYTES_PER_PET,
+        Files.size(path));
+    assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".tmp")));
+
+    PackedPetStore loaded = PetSnapshot.map(path, FileChannel.MapMode.READ_ONLY);
+    assertEquals(store.size(), loaded.size());
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(store.get(i), loaded.get(i));
+    }
+  }
+
+  @Test
+  public void testPopulationRoundTrip() throws IOException {
+    PetPopulation population = new PetPopulation(500, new Random(4));
+    for (int tick = 0; tick < 40; tick++) {
+      population.stepAll();
+    }
+    PetSnapshot.save(path, population);
+
+    PetPopulation loaded = new PetPopulation(500, new Random(0));
+    PetSnapshot.load(path, loaded);
+    for (int i = 0; i < 500; i++) {
+      assertEquals(population.getHealth(i), loaded.getHealth(i));
+    }
+  }
+
+  @Test
+  public void testReadWriteMappingWritesThrough() throws IOException {
+    PetSnapshot.save(path, PackedPetStore.allocate(10));
+    int state = PetStates.pack(99, 1, 2, 98, MoodEnum.SAD, false);
+    PetSnapshot.map(path, FileChannel.MapMode.READ_WRITE).set(7, state);
+    assertEquals(state, PetSnapshot.map(path, FileChannel.MapMode.READ_ONLY).get(7));
+
+    // A private mapping keeps its changes in memory
+    PetSnapshot.map(path, FileChannel.MapMode.PRIVATE).set(3, state);
+    assertEquals(PetStates.DEFAULT, PetSnapshot.map(path, FileChannel.MapMode.READ_ONLY).get(3));
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsOtherVersions() throws IOException {
+    PetSnapshot.save(path, PackedPetStore.allocate(1));
+    overwriteInt(8, PetSnapshot.VERSION + 1);
+    PetSnapshot.map(path, FileChannel.MapMode.READ_ONLY);
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsTruncatedSnapshot() throws IOException {
+    PetSnapshot.save(path, PackedPetStore.allocate(100));
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.truncate(PetSnapshot.HEADER_BYTES + 50L * PackedPetStore.BYTES_PER_PET);
+    }
+    PetSnapshot.map(path, FileChannel.MapMode.READ_ONLY);
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsOtherFiles() throws IOException {
+    Files.writeString(path, "not a snapshot, but long enough for a header");
+    PetSnapshot.map(path, FileChannel.MapMode.READ_ONLY);
+  }
+
+  private void overwriteInt(long position, int value) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value).flip(),
+          position);
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package petapp.test;
+
+import petapp.model.HealthStatus;
+import petapp.model.Pet;
+
+/**
+ * Pet fixtures shared by the tests.
+ */
+public final class TestPets {
+
+  private TestPets() {
+  }
+
+  /**
+   * Returns a pet with the default values that never becomes anxious by chance.
+   *
+   * @return the pet
+   */
+  public static Pet calmPet() {
+    return new Pet(calmRandom());
+  }
+
+  /**
+   * Returns a pet restored from a status that never becomes anxious by chance.
+   *
+   * @param status The status to restore
+   * @return the pet
+   */
+  public static Pet calmPet(HealthStatus status) {
+    return new Pet(calmRandom(), status);
+  }
+
+  private static TestRandom calmRandom() {
+    TestRandom random = new TestRandom();
+    random.setNextIntValues(new int[]{99});
+    return random;
+  }
+}
@@ -0,0 +1,89 @@
+package petapp.view;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.MultiResolutionImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javax.swing.ImageIcon;
+import org.junit.Test;
+
+/**
+ * Tests for the mood image cache.
+ */
+public class MoodIconCacheTest {
+
+  @Test
+  public void testWarmUpPreparesEveryMood() {
+    List<Runnable> tasks = new ArrayList<>();
+    MoodIconCache cache = new MoodIconCache(tasks::add);
+    CompletableFuture<Void> ready = cache.warmUp();
+    assertEquals(1, tasks.size());
+    assertTrue(!ready.isDone());
+
+    tasks.get(0).run();
+    assertTrue(ready.isDone());
+    for (String mood : List.of("HAPPY", "SAD", "ANXIETY", "DEAD")) {
+      assertNotNull(mood, cache.get(mood));
+    }
+  }
+
+  @Test
+  public void testIconsAreSharedAndScaled() {
+    MoodIconCache cache = new MoodIconCache(Runnable::run);
+    ImageIcon icon = cache.get("HAPPY");
+    // A mood change only swaps the icon, the same one is returned every time
+    assertSame(icon, cache.get("HAPPY"));
+    assertSame(icon, cache.get("happy"));
+    assertEquals(MoodIconCache.SIZE, icon.getIconWidth());
+    assertEquals(MoodIconCache.SIZE, icon.getIconHeight());
+
+    List<Image> variants = ((MultiResolutionImage) icon.getImage()).getResolutionVariants();
+    assertEquals(3, variants.size());
+    assertEquals(256, ((BufferedImage) variants.get(0)).getWidth());
+    assertEquals(384, ((BufferedImage) variants.get(1)).getWidth());
+    assertEquals(512, ((BufferedImage) variants.get(2)).getWidth());
+  }
+
+  @Test
+  public void testMissingImage() {
+    MoodIconCache cache = new MoodIconCache(Runnable::run);
+    assertNull(cache.get("BORED"));
+    assertNull(cache.get("BORED"));
+  }
+
+  @Test
+  public void testFailedLoadsDoNotBlock() {
+    MoodIconCache cache = new MoodIconCache(Runnable::run, mood -> {
+      if (mood.equals("SAD")) {
+        throw new IllegalArgumentException("Corrupt image");
+      }
+      return new ImageIcon(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+    });
+    assertTrue(cache.warmUp().isDone());
+    // The broken mood shows its text label, the others still get their images
+    assertNull(cache.get("SAD"));
+    assertNotNull(cache.get("HAPPY"));
+    assertNotNull(cache.get("DEAD"));
+
+    MoodIconCache crashed = new MoodIconCache(Runnable::run, mood -> {
+      throw new OutOfMemoryError("Image too large");
+    });
+    try {
+      crashed.warmUp();
+      fail("Expected the warm-up to fail");
+    } catch (OutOfMemoryError expected) {
+      // expected
+    }
+    assertNull(crashed.get("HAPPY"));
+    assertNull(crashed.get("ANXIETY"));
+  }
+}